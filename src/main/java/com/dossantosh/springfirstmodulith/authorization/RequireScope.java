@@ -0,0 +1,26 @@
+package com.dossantosh.springfirstmodulith.authorization;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Requires the caller to hold the given scopes: all of them by default, or at
+ * least one with {@code match = Match.ANY}. A method annotation replaces one
+ * declared on its class.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RequireScope {
+
+	String[] value();
+
+	Match match() default Match.ALL;
+
+	enum Match {
+		ALL, ANY
+	}
+}
@@ -0,0 +1,77 @@
+package com.dossantosh.springfirstmodulith.authorization;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every scope name a bit position for {@link ScopeSet}. The scopes
+ * declared in {@link AuthorizationScopes} take the first positions in a fixed
+ * order, so their bits mean the same thing in every process and can be stored
+ * in sessions; any other scope (e.g. one only present in the {@code scopes}
+ * table) is numbered when first registered and is only meaningful in this
+ * process.
+ */
+public final class ScopeRegistry {
+
+	// Append only: reordering would change the meaning of stored bits.
+	static final List<String> DECLARED = List.of(AuthorizationScopes.SYSTEMS_READ,
+			AuthorizationScopes.SYSTEMS_WRITE, AuthorizationScopes.PERFUMES_READ, AuthorizationScopes.PERFUMES_WRITE);
+
+	private static final Map<String, Integer> INDICES = new ConcurrentHashMap<>();
+	private static volatile String[] names = new String[0];
+
+	static {
+		if (DECLARED.size() > Long.SIZE) {
+			throw new IllegalStateException("At most " + Long.SIZE + " declared scopes are supported");
+		}
+		DECLARED.forEach(ScopeRegistry::register);
+	}
+
+	private ScopeRegistry() {
+	}
+
+	/**
+	 * Returns the bit position of {@code scope}, or -1 if it was never
+	 * registered (in which case no {@link ScopeSet} can contain it).
+	 */
+	public static int indexOf(String scope) {
+		Integer index = scope == null ? null : INDICES.get(scope);
+		return index == null ? -1 : index;
+	}
+
+	public static int register(String scope) {
+		Integer index = INDICES.get(scope);
+		return index != null ? index : assign(scope);
+	}
+
+	public static void registerAll(Collection<String> scopes) {
+		scopes.forEach(ScopeRegistry::register);
+	}
+
+	public static String nameOf(int index) {
+		return names[index];
+	}
+
+	static int declaredCount() {
+		return DECLARED.size();
+	}
+
+	private static synchronized int assign(String scope) {
+		if (scope == null || scope.isBlank()) {
+			throw new IllegalArgumentException("scope cannot be blank");
+		}
+		Integer index = INDICES.get(scope);
+		if (index != null) {
+			return index;
+		}
+		String[] grown = Arrays.copyOf(names, names.length + 1);
+		grown[names.length] = scope;
+		// Publish the name before the index so readers never see an index without one.
+		names = grown;
+		INDICES.put(scope, names.length - 1);
+		return names.length - 1;
+	}
+}
@@ -0,0 +1,191 @@
+package com.dossantosh.springfirstmodulith.authorization;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable set of scopes stored as a bitset over {@link ScopeRegistry}
+ * positions, so membership is one array read and a mask. Serialized as the
+ * word of declared scopes plus the names of any others, since only declared
+ * positions are stable across processes.
+ */
+public final class ScopeSet implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	private static final ScopeSet EMPTY = new ScopeSet(new long[0]);
+
+	private final long[] bits;
+	private transient volatile List<String> names;
+
+	private ScopeSet(long[] bits) {
+		this.bits = bits;
+	}
+
+	public static ScopeSet empty() {
+		return EMPTY;
+	}
+
+	public static ScopeSet of(Collection<String> scopes) {
+		if (scopes == null || scopes.isEmpty()) {
+			return EMPTY;
+		}
+		long[] bits = new long[0];
+		for (String scope : scopes) {
+			int index = ScopeRegistry.register(scope);
+			int word = index >>> 6;
+			if (word >= bits.length) {
+				bits = Arrays.copyOf(bits, word + 1);
+			}
+			bits[word] |= 1L << index;
+		}
+		return new ScopeSet(bits);
+	}
+
+	public boolean contains(String scope) {
+		return contains(ScopeRegistry.indexOf(scope));
+	}
+
+	public boolean contains(int index) {
+		if (index < 0) {
+			return false;
+		}
+		int word = index >>> 6;
+		return word < bits.length && (bits[word] & (1L << index)) != 0;
+	}
+
+	public boolean intersects(ScopeSet other) {
+		int words = Math.min(bits.length, other.bits.length);
+		for (int word = 0; word < words; word++) {
+			if ((bits[word] & other.bits[word]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public boolean isEmpty() {
+		for (long word : bits) {
+			if (word != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Scope names in alphabetical order.
+	 */
+	public List<String> names() {
+		List<String> resolved = names;
+		if (resolved == null) {
+			List<String> collected = new ArrayList<>();
+			for (int word = 0; word < bits.length; word++) {
+				for (long rest = bits[word]; rest != 0; rest &= rest - 1) {
+					collected.add(ScopeRegistry.nameOf((word << 6) + Long.numberOfTrailingZeros(rest)));
+				}
+			}
+			collected.sort(null);
+			resolved = List.copyOf(collected);
+			names = resolved;
+		}
+		return resolved;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof ScopeSet that && Arrays.equals(trimmed(bits), trimmed(that.bits));
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(trimmed(bits));
+	}
+
+	@Override
+	public String toString() {
+		return names().toString();
+	}
+
+	private static long[] trimmed(long[] bits) {
+		int length = bits.length;
+		while (length > 0 && bits[length - 1] == 0) {
+			length--;
+		}
+		return length == bits.length ? bits : Arrays.copyOf(bits, length);
+	}
+
+	/**
+	 * The scopes declared in {@link AuthorizationScopes} as one word whose bits
+	 * mean the same in every process.
+	 */
+	public long declaredBits() {
+		return bits.length == 0 ? 0 : bits[0] & declaredMask();
+	}
+
+	/**
+	 * Names of the scopes that have no stable bit, in alphabetical order.
+	 */
+	public List<String> undeclaredNames() {
+		int declaredCount = ScopeRegistry.declaredCount();
+		return names().stream().filter(name -> ScopeRegistry.indexOf(name) >= declaredCount).toList();
+	}
+
+	/**
+	 * Rebuilds a set from {@link #declaredBits()} and {@link #undeclaredNames()}.
+	 *
+	 * @throws IllegalArgumentException if a bit has no declared scope
+	 */
+	public static ScopeSet of(long declaredBits, Collection<String> undeclaredNames) {
+		if (!isKnownDeclaredBits(declaredBits)) {
+			throw new IllegalArgumentException("Unknown declared scope bits " + Long.toBinaryString(declaredBits));
+		}
+		List<String> scopes = new ArrayList<>(undeclaredNames);
+		for (long rest = declaredBits; rest != 0; rest &= rest - 1) {
+			scopes.add(ScopeRegistry.nameOf(Long.numberOfTrailingZeros(rest)));
+		}
+		return of(scopes);
+	}
+
+	/**
+	 * Whether every bit of {@code declaredBits} is a scope declared in this
+	 * version; sets written by a version declaring more scopes are not.
+	 */
+	public static boolean isKnownDeclaredBits(long declaredBits) {
+		return (declaredBits & ~declaredMask()) == 0;
+	}
+
+	private static long declaredMask() {
+		int declaredCount = ScopeRegistry.declaredCount();
+		return declaredCount == Long.SIZE ? -1L : (1L << declaredCount) - 1;
+	}
+
+	@Serial
+	private Object writeReplace() {
+		return new SerializedForm(declaredBits(), undeclaredNames().toArray(String[]::new));
+	}
+
+	@Serial
+	private void readObject(ObjectInputStream in) throws InvalidObjectException {
+		throw new InvalidObjectException("ScopeSet is serialized through SerializedForm");
+	}
+
+	private record SerializedForm(long declared, String[] others) implements Serializable {
+
+		@Serial
+		private Object readResolve() throws InvalidObjectException {
+			try {
+				return of(declared, Arrays.asList(others));
+			} catch (IllegalArgumentException e) {
+				throw new InvalidObjectException(e.getMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.dossantosh.springfirstmodulith.core.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Small in-process cache bounded both in size (least recently used entries are
+ * evicted first) and in age (entries expire {@code ttl} after being written).
+ * Meant for hot, cheap-to-recompute values; all operations lock the whole map.
+ */
+public final class ExpiringCache<K, V> {
+
+	private final int maxEntries;
+	private final long ttlNanos;
+	private final LongSupplier clock;
+	private final LinkedHashMap<K, Entry<V>> entries;
+
+	public ExpiringCache(int maxEntries, Duration ttl) {
+		this(maxEntries, ttl, System::nanoTime);
+	}
+
+	ExpiringCache(int maxEntries, Duration ttl, LongSupplier clock) {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("maxEntries must be positive");
+		}
+		if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+			throw new IllegalArgumentException("ttl must be positive");
+		}
+		this.maxEntries = maxEntries;
+		this.ttlNanos = ttl.toNanos();
+		this.clock = clock;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				return size() > ExpiringCache.this.maxEntries;
+			}
+		};
+	}
+
+	public synchronized V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (clock.getAsLong() - entry.writtenAt() >= ttlNanos) {
+			entries.remove(key);
+			return null;
+		}
+		return entry.value();
+	}
+
+	public synchronized void put(K key, V value) {
+		Objects.requireNonNull(key, "key cannot be null");
+		Objects.requireNonNull(value, "value cannot be null");
+		entries.put(key, new Entry<>(value, clock.getAsLong()));
+	}
+
+	public synchronized void invalidate(K key) {
+		entries.remove(key);
+	}
+
+	public synchronized void invalidateIf(Predicate<? super K> predicate) {
+		entries.keySet().removeIf(predicate);
+	}
+
+	public synchronized void invalidateValuesIf(Predicate<? super V> predicate) {
+		entries.values().removeIf(entry -> predicate.test(entry.value()));
+	}
+
+	public synchronized void invalidateAll() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private record Entry<V>(V value, long writtenAt) {
+	}
+}
@@ -0,0 +1,111 @@
+package com.dossantosh.springfirstmodulith.core.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the
+ * loader, callers arriving while it runs (or within {@code grace} after it
+ * succeeded) get the same result instead of loading again. Failures are
+ * shared with the callers already waiting but never reused afterwards.
+ */
+public final class SingleFlight<K, V> {
+
+	private static final int PRUNE_THRESHOLD = 256;
+
+	private final long graceNanos;
+	private final LongSupplier clock;
+	private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+	private final LongAdder executed = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+
+	public SingleFlight(Duration grace) {
+		this(grace, System::nanoTime);
+	}
+
+	SingleFlight(Duration grace, LongSupplier clock) {
+		if (grace == null || grace.isNegative()) {
+			throw new IllegalArgumentException("grace cannot be negative");
+		}
+		this.graceNanos = grace.toNanos();
+		this.clock = clock;
+	}
+
+	public V execute(K key, Supplier<V> loader) {
+		Flight<V> mine = new Flight<>();
+		Flight<V> current = flights.compute(key,
+				(k, existing) -> existing != null && existing.reusable(clock.getAsLong(), graceNanos) ? existing : mine);
+		if (current != mine) {
+			coalesced.increment();
+			return current.join();
+		}
+
+		executed.increment();
+		V value;
+		try {
+			value = loader.get();
+		} catch (RuntimeException | Error e) {
+			flights.remove(key, mine);
+			mine.future.completeExceptionally(e);
+			throw e;
+		}
+
+		mine.completedAt = clock.getAsLong();
+		mine.future.complete(value);
+		if (graceNanos == 0) {
+			flights.remove(key, mine);
+		} else if (flights.size() > PRUNE_THRESHOLD) {
+			long now = clock.getAsLong();
+			flights.values().removeIf(flight -> flight.future.isDone() && !flight.reusable(now, graceNanos));
+		}
+		return value;
+	}
+
+	/**
+	 * Makes later calls load afresh, e.g. once the underlying data changed.
+	 * Callers already waiting on a running load still get its result.
+	 */
+	public void forget() {
+		flights.clear();
+	}
+
+	public long executed() {
+		return executed.sum();
+	}
+
+	public long coalesced() {
+		return coalesced.sum();
+	}
+
+	private static final class Flight<V> {
+
+		private final CompletableFuture<V> future = new CompletableFuture<>();
+		private volatile long completedAt;
+
+		private boolean reusable(long now, long graceNanos) {
+			if (!future.isDone()) {
+				return true;
+			}
+			return !future.isCompletedExceptionally() && now - completedAt < graceNanos;
+		}
+
+		private V join() {
+			try {
+				return future.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException runtime) {
+					throw runtime;
+				}
+				if (e.getCause() instanceof Error error) {
+					throw error;
+				}
+				throw e;
+			}
+		}
+	}
+}
@@ -0,0 +1,4 @@
+@NamedInterface("cache")
+package com.dossantosh.springfirstmodulith.core.cache;
+
+import org.springframework.modulith.NamedInterface;
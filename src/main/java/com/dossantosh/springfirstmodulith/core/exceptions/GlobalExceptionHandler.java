@@ -1,7 +1,9 @@
 package com.dossantosh.springfirstmodulith.core.exceptions;
 
 import com.dossantosh.springfirstmodulith.core.exceptions.custom.BusinessException;
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.ServiceBusyException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -50,6 +52,15 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
 	}
 
+	@ExceptionHandler(ServiceBusyException.class)
+	public ResponseEntity<ApiError> handleServiceBusy(ServiceBusyException ex, WebRequest request) {
+		ApiError apiError = new ApiError(HttpStatus.SERVICE_UNAVAILABLE.value(),
+				HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(), ex.getMessage(),
+				request.getDescription(false).replace("uri=", ""));
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.retryAfter().toSeconds())).body(apiError);
+	}
+
 	@ExceptionHandler(Exception.class)
 	public ResponseEntity<ApiError> handleGenericException(Exception ex, WebRequest request) {
 		ApiError apiError = new ApiError(HttpStatus.INTERNAL_SERVER_ERROR.value(),
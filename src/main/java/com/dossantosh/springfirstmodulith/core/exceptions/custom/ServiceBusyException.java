@@ -0,0 +1,21 @@
+package com.dossantosh.springfirstmodulith.core.exceptions.custom;
+
+import java.time.Duration;
+
+/**
+ * Thrown when work is shed because a bounded resource is saturated; clients
+ * get a 503 and may retry after {@link #retryAfter()}.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+	private final Duration retryAfter;
+
+	public ServiceBusyException(String message, Duration retryAfter) {
+		super(message);
+		this.retryAfter = retryAfter;
+	}
+
+	public Duration retryAfter() {
+		return retryAfter;
+	}
+}
@@ -0,0 +1,120 @@
+package com.dossantosh.springfirstmodulith.core.hashing;
+
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing off the request threads, on one platform thread per
+ * core. The queue is bounded: once it is full new work is refused with a
+ * {@link ServiceBusyException} instead of piling up behind a login burst.
+ * Work submitted from a hashing thread runs inline.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+	public static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+	private static final int QUEUED_TASKS_PER_THREAD = 32;
+	private static final ThreadLocal<Boolean> HASHING_THREAD = ThreadLocal.withInitial(() -> false);
+
+	private final ThreadPoolExecutor pool;
+	private final Timer latency;
+	private final Counter rejected;
+
+	@Autowired
+	public PasswordHashingExecutor(MeterRegistry meterRegistry) {
+		this(Runtime.getRuntime().availableProcessors(), meterRegistry);
+	}
+
+	PasswordHashingExecutor(int threads, MeterRegistry meterRegistry) {
+		this.pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(threads * QUEUED_TASKS_PER_THREAD),
+				Thread.ofPlatform().name("password-hash-", 0).factory(), new ThreadPoolExecutor.AbortPolicy());
+		this.pool.allowCoreThreadTimeOut(true);
+		this.latency = meterRegistry.timer("security.password.hashing");
+		this.rejected = meterRegistry.counter("security.password.hashing.rejected");
+		meterRegistry.gauge("security.password.hashing.queue", pool, executor -> executor.getQueue().size());
+	}
+
+	/**
+	 * Runs {@code task} on a hashing thread and waits for its result.
+	 */
+	public <T> T call(Supplier<T> task) {
+		if (HASHING_THREAD.get()) {
+			return latency.record(task);
+		}
+		return await(submit(() -> latency.record(task)));
+	}
+
+	/**
+	 * Queues {@code task} and returns its pending result, for callers that
+	 * keep several hashes in flight; hashing done inside the task runs inline.
+	 * Background callers should keep no more than a quarter of
+	 * {@link #parallelism()} of them pending, so logins keep most of the pool.
+	 */
+	public <T> Future<T> submit(Supplier<T> task) {
+		try {
+			return pool.submit(() -> onHashingThread(task));
+		} catch (RejectedExecutionException e) {
+			throw busy();
+		}
+	}
+
+	/**
+	 * Waits for a result of {@link #submit}, rethrowing what the task threw.
+	 */
+	public static <T> T await(Future<T> result) {
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			result.cancel(true);
+			throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Number of hashing threads.
+	 */
+	public int parallelism() {
+		return pool.getMaximumPoolSize();
+	}
+
+	@PreDestroy
+	void shutdown() {
+		pool.shutdownNow();
+	}
+
+	private ServiceBusyException busy() {
+		rejected.increment();
+		return new ServiceBusyException("Too many password operations in progress, retry shortly", RETRY_AFTER);
+	}
+
+	private static <T> T onHashingThread(Supplier<T> task) {
+		HASHING_THREAD.set(true);
+		try {
+			return task.get();
+		} finally {
+			HASHING_THREAD.remove();
+		}
+	}
+}
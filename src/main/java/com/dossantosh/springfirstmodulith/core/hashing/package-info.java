@@ -0,0 +1,4 @@
+@NamedInterface("hashing")
+package com.dossantosh.springfirstmodulith.core.hashing;
+
+import org.springframework.modulith.NamedInterface;
@@ -0,0 +1,29 @@
+package com.dossantosh.springfirstmodulith.core.invalidation;
+
+import java.util.Objects;
+
+/**
+ * One entry of a cache region that changed, or the whole region when
+ * {@code key} is {@code null}.
+ */
+public record CacheInvalidation(String region, String key) {
+
+	public CacheInvalidation {
+		Objects.requireNonNull(region, "region cannot be null");
+		if (region.isEmpty() || region.indexOf(InvalidationBus.SEPARATOR) >= 0) {
+			throw new IllegalArgumentException("Invalid region " + region);
+		}
+	}
+
+	public static CacheInvalidation of(String region, Object key) {
+		return new CacheInvalidation(region, String.valueOf(key));
+	}
+
+	public static CacheInvalidation all(String region) {
+		return new CacheInvalidation(region, null);
+	}
+
+	public boolean isRegionWide() {
+		return key == null;
+	}
+}
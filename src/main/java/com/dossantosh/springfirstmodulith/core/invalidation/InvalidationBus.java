@@ -0,0 +1,220 @@
+package com.dossantosh.springfirstmodulith.core.invalidation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Keeps in-process caches of several nodes in step through PostgreSQL
+ * {@code LISTEN/NOTIFY}. {@link #publish} sends a short text message on
+ * {@link #CHANNEL} of the prod database; every node holds one dedicated
+ * connection listening on it per database (prod, and historic when it is a
+ * different one, since catalog triggers notify from both) and hands messages
+ * from other nodes to the {@link InvalidationHandler} beans. NOTIFY is not
+ * durable, so whenever such a connection is (re)established every handler is
+ * flushed. A listening connection is probed after every poll, so one that
+ * silently stopped answering is replaced too.
+ * <p>
+ * Messages read {@code node|region|key}. Triggers may send them with an empty
+ * node, which every node, the writing one included, then applies.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class InvalidationBus implements SmartLifecycle {
+
+	public static final String CHANNEL = "cache_invalidation";
+
+	static final char SEPARATOR = '|';
+
+	private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+	private static final Duration RECONNECT_DELAY = Duration.ofSeconds(2);
+	private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(5);
+
+	private final Map<String, ConnectionFactory> listenerConnections;
+	private final JdbcTemplate jdbcTemplate;
+	private final Iterable<InvalidationHandler> handlers;
+	private final String nodeId = UUID.randomUUID().toString();
+	private final Counter sent;
+	private final Counter received;
+	private final Counter publishFailures;
+	private final Counter flushes;
+	private volatile boolean running;
+	private volatile List<Thread> listeners = List.of();
+
+	@Autowired
+	public InvalidationBus(@Qualifier("prodDataSourceProperties") DataSourceProperties prod,
+			@Qualifier("historicDataSourceProperties") DataSourceProperties historic,
+			@Qualifier("prodDataSource") DataSource dataSource, ObjectProvider<InvalidationHandler> handlers,
+			MeterRegistry meterRegistry) {
+		this(listenerConnections(prod, historic), dataSource, handlers, meterRegistry);
+	}
+
+	InvalidationBus(Map<String, ConnectionFactory> listenerConnections, DataSource dataSource,
+			Iterable<InvalidationHandler> handlers, MeterRegistry meterRegistry) {
+		this.listenerConnections = listenerConnections;
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.handlers = handlers;
+		this.sent = meterRegistry.counter("cache.invalidation.messages", "direction", "sent");
+		this.received = meterRegistry.counter("cache.invalidation.messages", "direction", "received");
+		this.publishFailures = meterRegistry.counter("cache.invalidation.publish.failures");
+		this.flushes = meterRegistry.counter("cache.invalidation.flushes");
+	}
+
+	/**
+	 * Tells the other nodes about a change. Call it once the change has
+	 * committed, e.g. from a {@code @TransactionalEventListener}; a failure to
+	 * send is counted rather than thrown, since the change itself stands.
+	 */
+	public void publish(CacheInvalidation invalidation) {
+		String payload = nodeId + SEPARATOR + invalidation.region() + SEPARATOR
+				+ (invalidation.isRegionWide() ? "" : invalidation.key());
+		try {
+			jdbcTemplate.queryForList("select pg_notify(?, ?)", CHANNEL, payload);
+			sent.increment();
+		} catch (DataAccessException e) {
+			publishFailures.increment();
+		}
+	}
+
+	@Override
+	public void start() {
+		running = true;
+		List<Thread> started = new ArrayList<>();
+		listenerConnections.forEach((database, connections) -> started.add(Thread.ofPlatform()
+				.name("cache-invalidation-listener-" + database).daemon(true).start(() -> listen(connections))));
+		listeners = started;
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		for (Thread current : listeners) {
+			current.interrupt();
+		}
+		for (Thread current : listeners) {
+			try {
+				current.join(RECONNECT_DELAY.toMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	private void listen(ConnectionFactory connections) {
+		while (running) {
+			try (Connection connection = connections.connect(); Statement probe = connection.createStatement()) {
+				connection.setNetworkTimeout(Runnable::run, (int) PROBE_TIMEOUT.toMillis());
+				probe.execute("LISTEN " + CHANNEL);
+				// Whatever was sent while nobody listened is lost.
+				flushAll();
+				PGConnection notifications = connection.unwrap(PGConnection.class);
+				while (running) {
+					PGNotification[] batch = notifications.getNotifications((int) POLL_TIMEOUT.toMillis());
+					if (batch != null) {
+						for (PGNotification notification : batch) {
+							dispatch(notification.getParameter());
+						}
+					}
+					// Polling alone only notices a connection the socket reports as closed.
+					probe.execute("SELECT 1");
+				}
+			} catch (SQLException | RuntimeException e) {
+				// Reconnecting flushes, which covers whatever this failure dropped.
+				pauseBeforeReconnect();
+			}
+		}
+	}
+
+	void dispatch(String payload) {
+		int first = payload.indexOf(SEPARATOR);
+		int second = first < 0 ? -1 : payload.indexOf(SEPARATOR, first + 1);
+		if (second < 0) {
+			flushAll();
+			return;
+		}
+		if (payload.substring(0, first).equals(nodeId)) {
+			return;
+		}
+
+		received.increment();
+		String key = payload.substring(second + 1);
+		CacheInvalidation invalidation;
+		try {
+			invalidation = new CacheInvalidation(payload.substring(first + 1, second), key.isEmpty() ? null : key);
+		} catch (IllegalArgumentException e) {
+			flushAll();
+			return;
+		}
+		for (InvalidationHandler handler : handlers) {
+			try {
+				handler.invalidate(invalidation);
+			} catch (RuntimeException e) {
+				handler.invalidateAll();
+			}
+		}
+	}
+
+	void flushAll() {
+		flushes.increment();
+		for (InvalidationHandler handler : handlers) {
+			handler.invalidateAll();
+		}
+	}
+
+	private static Map<String, ConnectionFactory> listenerConnections(DataSourceProperties prod,
+			DataSourceProperties historic) {
+		Map<String, ConnectionFactory> connections = new LinkedHashMap<>();
+		connections.put("prod", connectionFactory(prod));
+		if (!Objects.equals(prod.determineUrl(), historic.determineUrl())) {
+			connections.put("historic", connectionFactory(historic));
+		}
+		return connections;
+	}
+
+	private static ConnectionFactory connectionFactory(DataSourceProperties properties) {
+		return () -> DriverManager.getConnection(properties.determineUrl(), properties.determineUsername(),
+				properties.determinePassword());
+	}
+
+	private void pauseBeforeReconnect() {
+		try {
+			Thread.sleep(RECONNECT_DELAY);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@FunctionalInterface
+	interface ConnectionFactory {
+
+		Connection connect() throws SQLException;
+	}
+}
@@ -0,0 +1,20 @@
+package com.dossantosh.springfirstmodulith.core.invalidation;
+
+/**
+ * Implemented by beans holding in-process caches that other nodes can make
+ * stale. Called on the listener thread of {@link InvalidationBus}; changes
+ * made by this node are expected to be handled locally and are not replayed.
+ */
+public interface InvalidationHandler {
+
+	/**
+	 * Drops whatever this handler caches for {@code invalidation}; regions it
+	 * does not know are ignored.
+	 */
+	void invalidate(CacheInvalidation invalidation);
+
+	/**
+	 * Drops everything, because messages may have been missed.
+	 */
+	void invalidateAll();
+}
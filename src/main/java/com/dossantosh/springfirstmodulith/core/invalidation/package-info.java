@@ -0,0 +1,5 @@
+@NamedInterface("invalidation")
+
+package com.dossantosh.springfirstmodulith.core.invalidation;
+
+import org.springframework.modulith.NamedInterface;
@@ -0,0 +1,68 @@
+package com.dossantosh.springfirstmodulith.core.page;
+
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.BusinessException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position inside a keyset-ordered listing: the value of the sort column plus
+ * the id used as tiebreaker. Clients only ever see the {@link #encode() encoded}
+ * form and send it back untouched.
+ */
+public record KeysetCursor(String sortKey, String sortValue, long id) {
+
+	private static final byte VERSION = 1;
+
+	public KeysetCursor {
+		Objects.requireNonNull(sortKey, "sortKey cannot be null");
+	}
+
+	public static KeysetCursor of(String sortKey, String sortValue, long id) {
+		return new KeysetCursor(sortKey, sortValue, id);
+	}
+
+	public String encode() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(VERSION);
+			out.writeUTF(sortKey);
+			out.writeBoolean(sortValue != null);
+			if (sortValue != null) {
+				out.writeUTF(sortValue);
+			}
+			out.writeLong(id);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+	}
+
+	public static KeysetCursor decode(String token) {
+		if (token == null || token.isBlank()) {
+			return null;
+		}
+
+		try (DataInputStream in = new DataInputStream(
+				new ByteArrayInputStream(Base64.getUrlDecoder().decode(token.trim())))) {
+			if (in.readByte() != VERSION) {
+				throw new BusinessException("Unsupported cursor version");
+			}
+			String sortKey = in.readUTF();
+			String sortValue = in.readBoolean() ? in.readUTF() : null;
+			long id = in.readLong();
+			if (in.read() != -1) {
+				throw new BusinessException("Invalid cursor");
+			}
+			return new KeysetCursor(sortKey, sortValue, id);
+		} catch (IOException | IllegalArgumentException e) {
+			throw new BusinessException("Invalid cursor");
+		}
+	}
+}
@@ -5,20 +5,58 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 public record KeysetPage<T extends Serializable>(List<T> content, boolean hasNext, boolean hasPrevious, Long nextId,
-		Long previousId) implements Serializable {
+		Long previousId, String nextCursor, String previousCursor, Long total,
+		boolean exactTotal) implements Serializable {
 
 	public KeysetPage {
 		content = content == null ? List.of() : List.copyOf(content);
 	}
 
+	public KeysetPage(List<T> content, boolean hasNext, boolean hasPrevious, Long nextId, Long previousId) {
+		this(content, hasNext, hasPrevious, nextId, previousId, null, null, null, false);
+	}
+
+	/**
+	 * Returns a copy carrying the total number of matching rows; {@code exact}
+	 * tells clients whether it is a planner estimate or a real count.
+	 */
+	public KeysetPage<T> withTotal(Long total, boolean exact) {
+		return new KeysetPage<>(content, hasNext, hasPrevious, nextId, previousId, nextCursor, previousCursor, total,
+				total != null && exact);
+	}
+
 	public static <R, T extends Serializable> KeysetPage<T> fromSlice(List<R> rows, int limit, Direction direction,
 			Long lastId, Function<R, T> mapper, Function<T, Long> idExtractor) {
+		Objects.requireNonNull(idExtractor, "idExtractor cannot be null");
+
+		return slice(rows, limit, direction, lastId != null, mapper,
+				(first, last) -> new Edges(idExtractor.apply(last), idExtractor.apply(first), null, null));
+	}
+
+	/**
+	 * Same as {@link #fromSlice(List, int, Direction, Long, Function, Function)}
+	 * for listings paged with a composite {@link KeysetCursor}; both the encoded
+	 * cursors and their tiebreaker ids are exposed.
+	 */
+	public static <R, T extends Serializable> KeysetPage<T> fromSlice(List<R> rows, int limit, Direction direction,
+			KeysetCursor cursor, Function<R, T> mapper, Function<T, KeysetCursor> cursorExtractor) {
+		Objects.requireNonNull(cursorExtractor, "cursorExtractor cannot be null");
+
+		return slice(rows, limit, direction, cursor != null, mapper, (first, last) -> {
+			KeysetCursor next = cursorExtractor.apply(last);
+			KeysetCursor previous = cursorExtractor.apply(first);
+			return new Edges(next.id(), previous.id(), next.encode(), previous.encode());
+		});
+	}
+
+	private static <R, T extends Serializable> KeysetPage<T> slice(List<R> rows, int limit, Direction direction,
+			boolean afterCursor, Function<R, T> mapper, BiFunction<T, T, Edges> edgesOf) {
 		Objects.requireNonNull(direction, "direction cannot be null");
 		Objects.requireNonNull(mapper, "mapper cannot be null");
-		Objects.requireNonNull(idExtractor, "idExtractor cannot be null");
 
 		List<R> source = rows == null ? List.of() : rows;
 		int pageSize = Math.max(limit, 0);
@@ -33,12 +71,12 @@ public record KeysetPage<T extends Serializable>(List<T> content, boolean hasNex
 			return new KeysetPage<>(List.of(), false, false, null, null);
 		}
 
-		Long nextId = idExtractor.apply(content.getLast());
-		Long previousId = idExtractor.apply(content.getFirst());
-		boolean hasNext = direction == Direction.NEXT ? hasMore : lastId != null;
-		boolean hasPrevious = direction == Direction.NEXT ? lastId != null : hasMore;
+		Edges edges = edgesOf.apply(content.getFirst(), content.getLast());
+		boolean hasNext = direction == Direction.NEXT ? hasMore : afterCursor;
+		boolean hasPrevious = direction == Direction.NEXT ? afterCursor : hasMore;
 
-		return new KeysetPage<>(content, hasNext, hasPrevious, nextId, previousId);
+		return new KeysetPage<>(content, hasNext, hasPrevious, edges.nextId(), edges.previousId(), edges.nextCursor(),
+				edges.previousCursor(), null, false);
 	}
 
 	private static <T> List<T> reversedCopy(List<T> values) {
@@ -46,4 +84,7 @@ public record KeysetPage<T extends Serializable>(List<T> content, boolean hasNex
 		Collections.reverse(reversed);
 		return reversed;
 	}
+
+	private record Edges(Long nextId, Long previousId, String nextCursor, String previousCursor) {
+	}
 }
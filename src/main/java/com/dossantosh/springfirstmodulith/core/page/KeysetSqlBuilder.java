@@ -0,0 +1,138 @@
+package com.dossantosh.springfirstmodulith.core.page;
+
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.BusinessException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Generates keyset paging SQL for a whitelist of sort columns. Every sort is
+ * paired with the tiebreaker id and compared as a row value, e.g.
+ * {@code (u.username, u.id_user) > (:keysetValue, :keysetId)}, so a composite
+ * index on {@code (column, id)} serves both the predicate and the ordering at
+ * any depth.
+ * <p>
+ * Sort columns must be {@code NOT NULL} in practice: a row value containing
+ * {@code NULL} never compares true and those rows would be skipped.
+ * <p>
+ * Instances are immutable; {@link #sortable} returns a copy, so builders are
+ * meant to be declared once as constants.
+ */
+public final class KeysetSqlBuilder {
+
+	public static final String VALUE_PARAM = "keysetValue";
+	public static final String ID_PARAM = "keysetId";
+
+	private final String idKey;
+	private final String idExpression;
+	private final Map<String, SortColumn> columns;
+
+	private KeysetSqlBuilder(String idKey, String idExpression, Map<String, SortColumn> columns) {
+		this.idKey = idKey;
+		this.idExpression = idExpression;
+		this.columns = columns;
+	}
+
+	/**
+	 * Starts a builder whose tiebreaker is {@code idExpression}; sorting by
+	 * {@code idKey} alone is always allowed.
+	 */
+	public static KeysetSqlBuilder tiebreaker(String idKey, String idExpression) {
+		Objects.requireNonNull(idKey, "idKey cannot be null");
+		Objects.requireNonNull(idExpression, "idExpression cannot be null");
+		return new KeysetSqlBuilder(idKey, idExpression, Map.of());
+	}
+
+	public KeysetSqlBuilder sortable(String key, String expression) {
+		return sortable(key, expression, Function.identity());
+	}
+
+	/**
+	 * Whitelists a sort column. {@code parser} turns the cursor's string value
+	 * back into the JDBC parameter type of the column.
+	 */
+	public KeysetSqlBuilder sortable(String key, String expression, Function<String, ?> parser) {
+		Objects.requireNonNull(key, "key cannot be null");
+		Objects.requireNonNull(expression, "expression cannot be null");
+		Objects.requireNonNull(parser, "parser cannot be null");
+		if (key.equals(idKey) || columns.containsKey(key)) {
+			throw new IllegalArgumentException("Duplicate sort key: " + key);
+		}
+
+		Map<String, SortColumn> copy = new LinkedHashMap<>(columns);
+		copy.put(key, new SortColumn(expression, parser));
+		return new KeysetSqlBuilder(idKey, idExpression, Collections.unmodifiableMap(copy));
+	}
+
+	public Set<String> sortKeys() {
+		Set<String> keys = new LinkedHashSet<>();
+		keys.add(idKey);
+		keys.addAll(columns.keySet());
+		return Collections.unmodifiableSet(keys);
+	}
+
+	/**
+	 * Resolves the sort key ({@code null} means the tiebreaker) and returns the
+	 * predicate, ordering and parameters for the requested page.
+	 *
+	 * @throws BusinessException if the sort key is not whitelisted or the cursor
+	 *                           was issued for a different sort
+	 */
+	public KeysetClause build(String sortKey, KeysetCursor cursor, Direction direction) {
+		Objects.requireNonNull(direction, "direction cannot be null");
+		String key = sortKey == null || sortKey.isBlank() ? idKey : sortKey;
+		SortColumn column = key.equals(idKey) ? null : columns.get(key);
+		if (column == null && !key.equals(idKey)) {
+			throw new BusinessException("Unsupported sort: " + key);
+		}
+		if (cursor != null && !cursor.sortKey().equals(key)) {
+			throw new BusinessException("Cursor does not match sort: " + key);
+		}
+
+		boolean next = direction == Direction.NEXT;
+		String order = next ? " ASC" : " DESC";
+		String orderBy = column == null
+				? idExpression + order
+				: column.expression() + order + ", " + idExpression + order;
+
+		if (cursor == null) {
+			return new KeysetClause(key, null, orderBy, Map.of());
+		}
+
+		String operator = next ? " > " : " < ";
+		if (column == null) {
+			return new KeysetClause(key, idExpression + operator + ":" + ID_PARAM, orderBy,
+					Map.of(ID_PARAM, cursor.id()));
+		}
+		if (cursor.sortValue() == null) {
+			throw new BusinessException("Invalid cursor");
+		}
+
+		Object value;
+		try {
+			value = column.parser().apply(cursor.sortValue());
+		} catch (RuntimeException e) {
+			throw new BusinessException("Invalid cursor");
+		}
+		String predicate = "(" + column.expression() + ", " + idExpression + ")" + operator + "(:" + VALUE_PARAM
+				+ ", :" + ID_PARAM + ")";
+		return new KeysetClause(key, predicate, orderBy, Map.of(VALUE_PARAM, value, ID_PARAM, cursor.id()));
+	}
+
+	/**
+	 * @param sortKey    the resolved sort key, to stamp on the cursors of the page
+	 * @param predicate  {@code null} on the first page
+	 * @param orderBy    ordering without the {@code ORDER BY} keyword
+	 * @param parameters named parameters referenced by {@code predicate}
+	 */
+	public record KeysetClause(String sortKey, String predicate, String orderBy, Map<String, Object> parameters) {
+	}
+
+	private record SortColumn(String expression, Function<String, ?> parser) {
+	}
+}
@@ -15,7 +15,18 @@ public class AuthorizationService {
 		if (authentication == null || !authentication.isAuthenticated()) {
 			return false;
 		}
-		return effectiveScopes(authentication).contains(scope);
+		if (authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
+			return userDetails.hasScope(scope);
+		}
+		if (!AuthorizationScopes.isScopeAuthority(scope)) {
+			return false;
+		}
+		for (GrantedAuthority authority : authentication.getAuthorities()) {
+			if (scope.equals(authority.getAuthority())) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	public List<String> roles(Authentication authentication) {
@@ -0,0 +1,27 @@
+package com.dossantosh.springfirstmodulith.security;
+
+import com.dossantosh.springfirstmodulith.authorization.RequireScope;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.Pointcuts;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+
+@Configuration(proxyBeanMethods = false)
+public class MethodSecurityConfig {
+
+	@Bean
+	@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+	Advisor requireScopeAuthorizationAdvisor(AuthorizationService authorizationService) {
+		AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+				Pointcuts.union(new AnnotationMatchingPointcut(RequireScope.class, true),
+						new AnnotationMatchingPointcut(null, RequireScope.class, true)),
+				new ScopeAuthorizationManager(authorizationService));
+		interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+		return interceptor;
+	}
+}
@@ -4,6 +4,10 @@ import com.dossantosh.springfirstmodulith.authorization.AuthorizationScopes;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+/**
+ * Scope checks for SpEL and other code that cannot use {@code @RequireScope};
+ * both end in the same bit test on the principal.
+ */
 @Component("permissions")
 public class Permissions {
 
@@ -0,0 +1,92 @@
+package com.dossantosh.springfirstmodulith.security;
+
+import com.dossantosh.springfirstmodulith.authorization.RequireScope;
+import com.dossantosh.springfirstmodulith.authorization.ScopeRegistry;
+import com.dossantosh.springfirstmodulith.security.login.CustomUserDetails;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Enforces {@link RequireScope}. Each method's annotation is resolved once
+ * into scope bit positions, so later calls only test bits of the principal's
+ * {@code ScopeSet} (or compare authorities for other principals).
+ */
+public final class ScopeAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+	private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+	private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+	private final AuthorizationService authorizationService;
+	private final Map<MethodClassKey, ScopeRequirement> requirements = new ConcurrentHashMap<>();
+
+	public ScopeAuthorizationManager(AuthorizationService authorizationService) {
+		this.authorizationService = authorizationService;
+	}
+
+	@Override
+	public AuthorizationResult authorize(Supplier<? extends Authentication> authentication,
+			MethodInvocation invocation) {
+		Object target = invocation.getThis();
+		Class<?> targetClass = target == null ? null : AopUtils.getTargetClass(target);
+		ScopeRequirement requirement = requirements.computeIfAbsent(
+				new MethodClassKey(invocation.getMethod(), targetClass),
+				key -> compile(invocation.getMethod(), targetClass));
+		return requirement.test(authentication.get(), authorizationService) ? GRANTED : DENIED;
+	}
+
+	private static ScopeRequirement compile(Method method, Class<?> targetClass) {
+		Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+		RequireScope annotation = AnnotatedElementUtils.findMergedAnnotation(specific, RequireScope.class);
+		if (annotation == null) {
+			annotation = AnnotatedElementUtils.findMergedAnnotation(specific.getDeclaringClass(), RequireScope.class);
+		}
+		if (annotation == null && targetClass != null) {
+			annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequireScope.class);
+		}
+		if (annotation == null || annotation.value().length == 0) {
+			throw new IllegalStateException("No scopes required on " + specific);
+		}
+		return ScopeRequirement.of(annotation);
+	}
+
+	record ScopeRequirement(String[] scopes, int[] indices, boolean any) {
+
+		static ScopeRequirement of(RequireScope annotation) {
+			String[] scopes = annotation.value().clone();
+			int[] indices = new int[scopes.length];
+			for (int i = 0; i < scopes.length; i++) {
+				indices[i] = ScopeRegistry.register(scopes[i]);
+			}
+			return new ScopeRequirement(scopes, indices, annotation.match() == RequireScope.Match.ANY);
+		}
+
+		boolean test(Authentication authentication, AuthorizationService authorizationService) {
+			if (authentication == null || !authentication.isAuthenticated()) {
+				return false;
+			}
+			CustomUserDetails userDetails = authentication.getPrincipal() instanceof CustomUserDetails details
+					? details
+					: null;
+			for (int i = 0; i < indices.length; i++) {
+				boolean granted = userDetails != null
+						? userDetails.hasScope(indices[i])
+						: authorizationService.hasScope(authentication, scopes[i]);
+				if (granted == any) {
+					return granted;
+				}
+			}
+			return !any;
+		}
+	}
+}
@@ -1,14 +1,28 @@
 package com.dossantosh.springfirstmodulith.security;
 
+import com.dossantosh.springfirstmodulith.core.hashing.PasswordHashingExecutor;
+import com.dossantosh.springfirstmodulith.security.hashing.OffloadedPasswordEncoder;
+import com.dossantosh.springfirstmodulith.security.login.CustomUserDetails;
 import com.dossantosh.springfirstmodulith.security.login.CustomUserDetailsService;
 import com.dossantosh.springfirstmodulith.security.login.JsonUsernamePasswordAuthenticationFilter;
+import com.dossantosh.springfirstmodulith.security.login.LoginThrottle;
+import com.dossantosh.springfirstmodulith.security.login.LoginThrottledException;
+import com.dossantosh.springfirstmodulith.security.session.AccessEpochFilter;
+import com.dossantosh.springfirstmodulith.security.session.AccessEpochs;
 import com.dossantosh.springfirstmodulith.security.session.CurrentDataViewQuery;
 import com.dossantosh.springfirstmodulith.security.session.CurrentSessionDataViewProvider;
 import com.dossantosh.springfirstmodulith.security.session.DataViewFromSessionFilter;
+import com.dossantosh.springfirstmodulith.security.token.BearerTokenAuthenticationFilter;
+import com.dossantosh.springfirstmodulith.security.token.SignedTokenService;
+import com.dossantosh.springfirstmodulith.security.token.TokenResponse;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -19,6 +33,8 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -38,10 +54,12 @@ public class SecurityConfig {
 	@Bean
 	public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationManager authenticationManager,
 			DataViewFromSessionFilter dataViewFromSessionFilter,
-			CurrentSessionDataViewProvider currentSessionDataViewProvider, ObjectMapper objectMapper) {
+			CurrentSessionDataViewProvider currentSessionDataViewProvider, ObjectMapper objectMapper,
+			AccessEpochs accessEpochs, LoginThrottle loginThrottle,
+			ObjectProvider<SignedTokenService> signedTokenService) {
 
 		JsonUsernamePasswordAuthenticationFilter jsonLoginFilter = new JsonUsernamePasswordAuthenticationFilter(
-				objectMapper);
+				objectMapper, loginThrottle);
 		jsonLoginFilter.setAuthenticationManager(authenticationManager);
 
 		jsonLoginFilter.setAuthenticationSuccessHandler((request, response, authentication) -> {
@@ -55,9 +73,17 @@ public class SecurityConfig {
 			response.getWriter().write("{\"username\":\"" + authentication.getName() + "\"}");
 		});
 
-		jsonLoginFilter.setAuthenticationFailureHandler((request, response, exception) -> response.setStatus(401));
+		jsonLoginFilter.setAuthenticationFailureHandler((request, response, exception) -> {
+			if (exception instanceof LoginThrottledException throttled) {
+				response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+				response.setHeader(HttpHeaders.RETRY_AFTER,
+						String.valueOf(Math.max(1, (throttled.retryAfter().toMillis() + 999) / 1000)));
+				return;
+			}
+			response.setStatus(401);
+		});
 
-		return http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
+		http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
 				.csrf(csrf -> csrf.csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse()).spa())
 				.sessionManagement(session -> session
 
@@ -72,6 +98,8 @@ public class SecurityConfig {
 
 						.requestMatchers("/api/auth/login", "/api/auth/csrf").permitAll()
 
+						.requestMatchers(HttpMethod.POST, BearerTokenAuthenticationFilter.REFRESH_PATH).permitAll()
+
 						.requestMatchers("/api/**").authenticated()
 
 						.anyRequest().authenticated())
@@ -87,7 +115,52 @@ public class SecurityConfig {
 
 				.addFilterBefore(dataViewFromSessionFilter, UsernamePasswordAuthenticationFilter.class)
 
-				.addFilterAt(jsonLoginFilter, UsernamePasswordAuthenticationFilter.class).build();
+				.addFilterAt(jsonLoginFilter, UsernamePasswordAuthenticationFilter.class);
+
+		SignedTokenService tokens = signedTokenService.getIfAvailable();
+		if (tokens == null) {
+			http.addFilterAfter(new AccessEpochFilter(accessEpochs, customUserDetailsService),
+					UsernamePasswordAuthenticationFilter.class);
+		} else {
+			useSignedTokens(http, jsonLoginFilter, tokens, currentSessionDataViewProvider, objectMapper);
+		}
+		return http.build();
+	}
+
+	/**
+	 * Stateless mode: login answers with a signed token instead of creating a
+	 * session, and requests authenticate from their bearer token, so neither
+	 * reads nor writes the session store. Tokens are not sent automatically
+	 * by browsers, hence no CSRF protection.
+	 */
+	private static void useSignedTokens(HttpSecurity http, JsonUsernamePasswordAuthenticationFilter jsonLoginFilter,
+			SignedTokenService tokens, CurrentSessionDataViewProvider dataViews, ObjectMapper objectMapper) {
+		SecurityContextRepository requestScoped = new RequestAttributeSecurityContextRepository();
+		jsonLoginFilter.setSecurityContextRepository(requestScoped);
+		jsonLoginFilter.setAuthenticationSuccessHandler((request, response, authentication) -> {
+			Object rawDataSource = request.getAttribute(JsonUsernamePasswordAuthenticationFilter.REQ_ATTR_DATA_SOURCE);
+			String dataView = dataViews.normalize(rawDataSource == null ? null : rawDataSource.toString());
+			SignedTokenService.IssuedToken token = tokens.issue((CustomUserDetails) authentication.getPrincipal(),
+					dataView);
+
+			response.setStatus(200);
+			response.setContentType("application/json");
+			objectMapper.writeValue(response.getWriter(), TokenResponse.of(authentication.getName(), token));
+		});
+
+		http.csrf(AbstractHttpConfigurer::disable)
+				.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+				.securityContext(securityContext -> securityContext.securityContextRepository(requestScoped))
+				.logout(logout -> logout.addLogoutHandler((request, response, auth) -> revoke(request, tokens)));
+
+		// Registered after the data view filter at the same position, so the token's view wins.
+		http.addFilterBefore(new BearerTokenAuthenticationFilter(tokens), UsernamePasswordAuthenticationFilter.class);
+	}
+
+	// An expired token can still be refreshed, so logging out with one must revoke it too.
+	private static void revoke(HttpServletRequest request, SignedTokenService tokens) {
+		BearerTokenAuthenticationFilter.bearerToken(request).flatMap(tokens::verifyForRefresh)
+				.ifPresent(tokens::revoke);
 	}
 
 	@Bean
@@ -116,8 +189,8 @@ public class SecurityConfig {
 	}
 
 	@Bean
-	public PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor) {
+		return new OffloadedPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingExecutor);
 	}
 
 	@Bean
@@ -1,45 +1,91 @@
 package com.dossantosh.springfirstmodulith.security.api;
 
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletRequest;
 import com.dossantosh.springfirstmodulith.security.AuthorizationService;
 import com.dossantosh.springfirstmodulith.security.login.CustomUserDetails;
 import com.dossantosh.springfirstmodulith.security.session.CurrentDataViewQuery;
 import com.dossantosh.springfirstmodulith.users.api.ports.navigation.NavigationCatalogQuery;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
+	private static final int MAX_CACHED_RESPONSES = 4096;
+	private static final long RESPONSE_TTL_NANOS = Duration.ofMinutes(10).toNanos();
+	// Hashed into every ETag: bump it when the body built from the same key changes shape.
+	private static final byte RESPONSE_FORMAT = 1;
+
 	private final CurrentDataViewQuery currentDataViewQuery;
 	private final AuthorizationService authorizationService;
 	private final NavigationCatalogQuery navigationCatalogQuery;
+	private final ObjectMapper objectMapper;
+	// Keys carry everything the body depends on, so changed access or a new
+	// catalog version simply misses; stale entries age out. A concurrent map
+	// keeps this hot path free of a shared lock.
+	private final ConcurrentHashMap<ResponseKey, CachedResponse> responses = new ConcurrentHashMap<>();
 
 	public AuthController(CurrentDataViewQuery currentDataViewQuery, AuthorizationService authorizationService,
-			NavigationCatalogQuery navigationCatalogQuery) {
+			NavigationCatalogQuery navigationCatalogQuery, ObjectMapper objectMapper) {
 		this.currentDataViewQuery = currentDataViewQuery;
 		this.authorizationService = authorizationService;
 		this.navigationCatalogQuery = navigationCatalogQuery;
+		this.objectMapper = objectMapper;
 	}
 
+	/**
+	 * Returns the serialized session description with a strong {@code ETag}
+	 * derived from everything the body depends on, so a matching
+	 * {@code If-None-Match} gets {@code 304} without building or looking up
+	 * the body, even on a node that never served it. Only an existing session
+	 * is read, so token requests stay sessionless.
+	 */
 	@PreAuthorize("isAuthenticated()")
 	@GetMapping("/me")
-	public ResponseEntity<?> me(Authentication authentication, HttpSession session) {
+	public ResponseEntity<?> me(Authentication authentication, HttpServletRequest request,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 		if (authentication == null || !authentication.isAuthenticated()) {
 			return ResponseEntity.status(401).build();
 		}
 
-		String dataSource = currentDataViewQuery.getCurrentDataView(session);
+		String dataSource = currentDataViewQuery.getCurrentDataView(request.getSession(false));
+		List<String> scopes = authorizationService.effectiveScopes(authentication);
+		ResponseKey key = new ResponseKey(userId(authentication), authentication.getName(), dataSource,
+				authorizationService.roles(authentication), scopes, navigationCatalogQuery.catalogVersion());
+		String etag = etag(key);
+
+		if (matches(ifNoneMatch, etag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+					.cacheControl(CacheControl.noCache().cachePrivate()).build();
+		}
 
-		return ResponseEntity.ok(sessionResponse(authentication, dataSource));
+		long now = System.nanoTime();
+		CachedResponse cached = responses.get(key);
+		if (cached == null || cached.isExpired(now)) {
+			cached = new CachedResponse(serialize(sessionResponse(key)), now);
+			remember(key, cached, now);
+		}
+		return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+				.contentType(MediaType.APPLICATION_JSON).body(cached.body());
 	}
 
 	@GetMapping("/csrf")
@@ -47,12 +93,59 @@ public class AuthController {
 		return token;
 	}
 
-	private AuthSessionResponse sessionResponse(Authentication authentication, String dataSource) {
-		List<String> scopes = authorizationService.effectiveScopes(authentication);
+	private AuthSessionResponse sessionResponse(ResponseKey key) {
+		return new AuthSessionResponse(key.userId(), key.username(), key.dataSource(), key.roles(), key.scopes(),
+				AuthNavigationMapper.fromCatalog(navigationCatalogQuery.findVisibleNavigation(key.scopes())));
+	}
+
+	private byte[] serialize(AuthSessionResponse response) {
+		try {
+			return objectMapper.writeValueAsBytes(response);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize session response", e);
+		}
+	}
+
+	private String etag(ResponseKey key) {
+		try {
+			byte[] identity = objectMapper.writeValueAsBytes(key);
+			byte[] versioned = new byte[identity.length + 1];
+			versioned[0] = RESPONSE_FORMAT;
+			System.arraycopy(identity, 0, versioned, 1, identity.length);
+			return "\"" + DigestUtils.md5DigestAsHex(versioned) + "\"";
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize session response key", e);
+		}
+	}
+
+	// Past the bound, expired entries go first, then arbitrary ones: no LRU order, so no shared lock.
+	private void remember(ResponseKey key, CachedResponse response, long now) {
+		responses.put(key, response);
+		if (responses.size() > MAX_CACHED_RESPONSES) {
+			responses.values().removeIf(cached -> cached.isExpired(now));
+			Iterator<ResponseKey> keys = responses.keySet().iterator();
+			while (responses.size() > MAX_CACHED_RESPONSES && keys.hasNext()) {
+				keys.next();
+				keys.remove();
+			}
+		}
+	}
 
-		return new AuthSessionResponse(userId(authentication), authentication.getName(), dataSource,
-				authorizationService.roles(authentication), scopes,
-				AuthNavigationMapper.fromCatalog(navigationCatalogQuery.findVisibleNavigation(scopes)));
+	// Weak comparison, as If-None-Match allows.
+	private static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if (tag.equals("*") || tag.equals(etag)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	private Long userId(Authentication authentication) {
@@ -61,4 +154,15 @@ public class AuthController {
 		}
 		return null;
 	}
+
+	private record ResponseKey(Long userId, String username, String dataSource, List<String> roles,
+			List<String> scopes, long catalogVersion) {
+	}
+
+	private record CachedResponse(byte[] body, long builtAt) {
+
+		private boolean isExpired(long now) {
+			return now - builtAt >= RESPONSE_TTL_NANOS;
+		}
+	}
 }
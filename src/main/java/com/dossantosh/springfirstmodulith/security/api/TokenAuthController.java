@@ -0,0 +1,63 @@
+package com.dossantosh.springfirstmodulith.security.api;
+
+import com.dossantosh.springfirstmodulith.core.datasource.runtime.DataViewContext;
+import com.dossantosh.springfirstmodulith.security.login.CustomUserDetails;
+import com.dossantosh.springfirstmodulith.security.login.CustomUserDetailsService;
+import com.dossantosh.springfirstmodulith.security.token.BearerTokenAuthenticationFilter;
+import com.dossantosh.springfirstmodulith.security.token.SignedTokenService;
+import com.dossantosh.springfirstmodulith.security.token.TokenClaims;
+import com.dossantosh.springfirstmodulith.security.token.TokenResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Token refresh for the stateless mode. The presented token is revoked first,
+ * so it can be refreshed only once, then the user is reloaded so role and
+ * scope changes take effect.
+ */
+@RestController
+@RequestMapping("/api/auth")
+@ConditionalOnProperty(name = "app.security.token.enabled", havingValue = "true")
+public class TokenAuthController {
+
+	private final SignedTokenService tokens;
+	private final CustomUserDetailsService userDetailsService;
+
+	public TokenAuthController(SignedTokenService tokens, CustomUserDetailsService userDetailsService) {
+		this.tokens = tokens;
+		this.userDetailsService = userDetailsService;
+	}
+
+	@PostMapping("/refresh")
+	public ResponseEntity<TokenResponse> refresh(HttpServletRequest request) {
+		Optional<TokenClaims> claims = BearerTokenAuthenticationFilter.bearerToken(request)
+				.flatMap(tokens::verifyForRefresh);
+		if (claims.isEmpty() || !tokens.revoke(claims.get())) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+
+		DataViewContext.set(claims.get().dataView());
+		UserDetails reloaded;
+		try {
+			reloaded = userDetailsService.loadUserByUsername(claims.get().username());
+		} catch (UsernameNotFoundException e) {
+			reloaded = null;
+		}
+		if (!(reloaded instanceof CustomUserDetails user) || !user.isEnabled()
+				|| !Objects.equals(user.getId(), claims.get().userId())) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+
+		return ResponseEntity.ok(TokenResponse.of(user.getUsername(), tokens.issue(user, claims.get().dataView())));
+	}
+}
@@ -0,0 +1,36 @@
+package com.dossantosh.springfirstmodulith.security.hashing;
+
+import com.dossantosh.springfirstmodulith.core.hashing.PasswordHashingExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Objects;
+
+/**
+ * Runs the expensive operations of {@code delegate} on the
+ * {@link PasswordHashingExecutor}.
+ */
+public class OffloadedPasswordEncoder implements PasswordEncoder {
+
+	private final PasswordEncoder delegate;
+	private final PasswordHashingExecutor executor;
+
+	public OffloadedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+		this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+		this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return executor.call(() -> delegate.encode(rawPassword));
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return executor.call(() -> delegate.matches(rawPassword, encodedPassword));
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+}
@@ -0,0 +1,172 @@
+package com.dossantosh.springfirstmodulith.security.login;
+
+import com.dossantosh.springfirstmodulith.authorization.ScopeSet;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The roles and scopes of a principal. Most users share one of a handful of
+ * combinations, so instances are interned: every principal (including ones
+ * read back from a session) with the same roles and scopes points at the same
+ * lists and authorities. Unreferenced combinations are dropped by the GC.
+ */
+public final class AccessProfile implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	// Lock-free lookups: principals are rebuilt on every session read. Entries
+	// whose profile was collected are removed on the next intern.
+	private static final ConcurrentHashMap<Key, ProfileRef> INTERNED = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<AccessProfile> COLLECTED = new ReferenceQueue<>();
+	private static final LongAdder deduplicated = new LongAdder();
+	private static final LongAdder deduplicatedBytes = new LongAdder();
+	private static final long SCOPE_SET_BYTES = 40;
+
+	private final List<String> roles;
+	private final ScopeSet scopes;
+	private final transient List<GrantedAuthority> authorities;
+
+	private AccessProfile(List<String> roles, ScopeSet scopes) {
+		this.roles = roles;
+		this.scopes = scopes;
+		this.authorities = scopes.names().stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+	}
+
+	public static AccessProfile of(List<String> roles, List<String> scopes) {
+		return intern(roles == null ? List.of() : List.copyOf(roles), ScopeSet.of(scopes), true);
+	}
+
+	public static AccessProfile of(List<String> roles, ScopeSet scopes) {
+		return intern(roles == null ? List.of() : List.copyOf(roles), scopes == null ? ScopeSet.empty() : scopes,
+				true);
+	}
+
+	/**
+	 * Returns the live profile for {@code roles} and {@code scopes}, creating
+	 * it if there is none. {@code counted} reports the reuse in
+	 * {@link #footprint()}; session reads do not, since the copy they replace
+	 * was already counted when the principal was first built.
+	 */
+	private static AccessProfile intern(List<String> roles, ScopeSet scopes, boolean counted) {
+		expungeCollected();
+		Key key = new Key(roles, scopes);
+		while (true) {
+			ProfileRef ref = INTERNED.get(key);
+			AccessProfile existing = ref == null ? null : ref.get();
+			if (existing != null) {
+				if (counted) {
+					deduplicated.increment();
+					deduplicatedBytes.add(existing.estimatedBytes());
+				}
+				return existing;
+			}
+
+			AccessProfile created = new AccessProfile(roles, scopes);
+			ProfileRef fresh = new ProfileRef(created, key);
+			boolean published = ref == null ? INTERNED.putIfAbsent(key, fresh) == null
+					: INTERNED.replace(key, ref, fresh);
+			if (published) {
+				return created;
+			}
+		}
+	}
+
+	private static void expungeCollected() {
+		for (Reference<? extends AccessProfile> ref = COLLECTED.poll(); ref != null; ref = COLLECTED.poll()) {
+			INTERNED.remove(((ProfileRef) ref).key, ref);
+		}
+	}
+
+	public List<String> roles() {
+		return roles;
+	}
+
+	public ScopeSet scopes() {
+		return scopes;
+	}
+
+	public List<GrantedAuthority> authorities() {
+		return authorities;
+	}
+
+	/**
+	 * Live distinct combinations and how many copies interning avoided since
+	 * startup. Byte figures are shallow-size estimates, not measurements.
+	 */
+	public static FootprintReport footprint() {
+		long retained = 0;
+		int distinct = 0;
+		for (ProfileRef ref : INTERNED.values()) {
+			AccessProfile profile = ref.get();
+			if (profile != null) {
+				distinct++;
+				retained += profile.estimatedBytes();
+			}
+		}
+		return new FootprintReport(distinct, retained, deduplicated.sum(), deduplicatedBytes.sum());
+	}
+
+	// Rough 64-bit compressed-oops layout: headers, fields and Latin-1 strings.
+	long estimatedBytes() {
+		List<String> scopeNames = scopes.names();
+		long bytes = 24 + listBytes(roles.size()) + SCOPE_SET_BYTES + listBytes(scopeNames.size())
+				+ listBytes(authorities.size()) + 16L * authorities.size();
+		for (String role : roles) {
+			bytes += stringBytes(role);
+		}
+		for (String scope : scopeNames) {
+			bytes += stringBytes(scope);
+		}
+		return bytes;
+	}
+
+	private static long listBytes(int size) {
+		return 16 + 16 + 4L * size;
+	}
+
+	private static long stringBytes(String value) {
+		return 24 + 16 + value.length();
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof AccessProfile that && roles.equals(that.roles) && scopes.equals(that.scopes);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * roles.hashCode() + scopes.hashCode();
+	}
+
+	@Serial
+	private Object readResolve() {
+		return intern(List.copyOf(roles), scopes, false);
+	}
+
+	private record Key(List<String> roles, ScopeSet scopes) {
+	}
+
+	private static final class ProfileRef extends WeakReference<AccessProfile> {
+
+		private final Key key;
+
+		private ProfileRef(AccessProfile profile, Key key) {
+			super(profile, COLLECTED);
+			this.key = key;
+		}
+	}
+
+	public record FootprintReport(int distinctProfiles, long retainedBytes, long deduplicatedCopies,
+			long deduplicatedBytes) {
+	}
+}
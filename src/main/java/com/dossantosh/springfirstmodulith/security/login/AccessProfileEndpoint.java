@@ -0,0 +1,15 @@
+package com.dossantosh.springfirstmodulith.security.login;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "accessprofiles")
+class AccessProfileEndpoint {
+
+	@ReadOperation
+	public AccessProfile.FootprintReport footprint() {
+		return AccessProfile.footprint();
+	}
+}
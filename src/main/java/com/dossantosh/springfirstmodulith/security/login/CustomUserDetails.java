@@ -1,7 +1,7 @@
 package com.dossantosh.springfirstmodulith.security.login;
 
+import com.dossantosh.springfirstmodulith.authorization.ScopeSet;
 import com.dossantosh.springfirstmodulith.users.api.ports.login.UserAuthView;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -17,32 +17,52 @@ public class CustomUserDetails implements UserDetails {
 	private final String password;
 	private final boolean enabled;
 	private final boolean isAdmin;
-	private final List<String> roles;
-	private final List<String> scopes;
-
-	private final List<GrantedAuthority> authorities;
+	private final AccessProfile access;
+	private final long accessEpoch;
 
 	private CustomUserDetails(Long id, String username, String email, String password, boolean enabled, boolean isAdmin,
-			List<String> roles, List<String> scopes, List<? extends GrantedAuthority> authorities) {
+			AccessProfile access, long accessEpoch) {
 		this.id = id;
 		this.username = Objects.requireNonNull(username, "username cannot be null");
 		this.email = email;
 		this.password = Objects.requireNonNull(password, "password cannot be null");
 		this.enabled = enabled;
 		this.isAdmin = isAdmin;
-		this.roles = roles == null ? List.of() : List.copyOf(roles);
-		this.scopes = scopes == null ? List.of() : List.copyOf(scopes);
-		this.authorities = authorities == null ? List.of() : List.copyOf(authorities);
+		this.access = Objects.requireNonNull(access, "access cannot be null");
+		this.accessEpoch = accessEpoch;
 	}
 
 	public static CustomUserDetails from(UserAuthView user) {
-		Objects.requireNonNull(user, "user cannot be null");
+		return from(user, 0);
+	}
 
-		List<String> scopes = user.scopes() == null ? List.of() : List.copyOf(user.scopes());
-		List<SimpleGrantedAuthority> authorities = scopes.stream().map(SimpleGrantedAuthority::new).toList();
+	/**
+	 * @param accessEpoch the user's access epoch read before {@code user} was loaded
+	 */
+	public static CustomUserDetails from(UserAuthView user, long accessEpoch) {
+		Objects.requireNonNull(user, "user cannot be null");
 
 		return new CustomUserDetails(user.id(), user.username(), user.email(), user.password(), user.enabled(),
-				user.isAdmin(), user.roles(), scopes, authorities);
+				user.isAdmin(), AccessProfile.of(user.roles(), user.scopes()), accessEpoch);
+	}
+
+	/**
+	 * A principal rebuilt from a signed token, which carries neither the
+	 * email nor the password hash.
+	 */
+	public static CustomUserDetails fromToken(Long id, String username, boolean isAdmin, List<String> roles,
+			ScopeSet scopes) {
+		return new CustomUserDetails(id, username, null, "", true, isAdmin, AccessProfile.of(roles, scopes), 0);
+	}
+
+	/**
+	 * A principal read back by a session attribute serializer, exactly as it
+	 * was stored.
+	 */
+	public static CustomUserDetails restore(Long id, String username, String email, String password, boolean enabled,
+			boolean isAdmin, List<String> roles, ScopeSet scopes, long accessEpoch) {
+		return new CustomUserDetails(id, username, email, password, enabled, isAdmin, AccessProfile.of(roles, scopes),
+				accessEpoch);
 	}
 
 	public Long getId() {
@@ -72,16 +92,36 @@ public class CustomUserDetails implements UserDetails {
 	}
 
 	public List<String> getRoles() {
-		return roles;
+		return access.roles();
 	}
 
 	public List<String> getScopes() {
-		return scopes;
+		return access.scopes().names();
+	}
+
+	public ScopeSet getScopeSet() {
+		return access.scopes();
+	}
+
+	public boolean hasScope(String scope) {
+		return access.scopes().contains(scope);
+	}
+
+	public boolean hasScope(int scopeIndex) {
+		return access.scopes().contains(scopeIndex);
+	}
+
+	public long getAccessEpoch() {
+		return accessEpoch;
+	}
+
+	AccessProfile getAccessProfile() {
+		return access;
 	}
 
 	@Override
 	public Collection<? extends GrantedAuthority> getAuthorities() {
-		return authorities;
+		return access.authorities();
 	}
 
 	@Override
@@ -1,6 +1,8 @@
 package com.dossantosh.springfirstmodulith.security.login;
 
+import com.dossantosh.springfirstmodulith.security.session.AccessEpochs;
 import com.dossantosh.springfirstmodulith.users.api.ports.login.UserAuthQuery;
+import com.dossantosh.springfirstmodulith.users.api.ports.login.UserAuthView;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -10,15 +12,26 @@ import org.springframework.stereotype.Component;
 public class CustomUserDetailsService implements UserDetailsService {
 
 	private final UserAuthQuery userAuthQuery;
+	private final AccessEpochs accessEpochs;
 
-	CustomUserDetailsService(UserAuthQuery userAuthQuery) {
+	CustomUserDetailsService(UserAuthQuery userAuthQuery, AccessEpochs accessEpochs) {
 		this.userAuthQuery = userAuthQuery;
+		this.accessEpochs = accessEpochs;
 	}
 
+	/**
+	 * The access epoch is read between two lookups: the first finds the user's
+	 * id, the second (normally served from the login cache) returns data at
+	 * least as new as that epoch, because the cache is cleared before epochs
+	 * move.
+	 */
 	@Override
 	public UserDetails loadUserByUsername(String username) {
-		return userAuthQuery.findByUsername(username)
-				.map(CustomUserDetails::from)
+		UserAuthView found = userAuthQuery.findByUsername(username)
 				.orElseThrow(() -> new UsernameNotFoundException(username));
+		long epoch = accessEpochs.current(found.id());
+		UserAuthView user = userAuthQuery.findByUsername(username)
+				.orElseThrow(() -> new UsernameNotFoundException(username));
+		return CustomUserDetails.from(user, epoch);
 	}
 }
@@ -1,54 +1,200 @@
 package com.dossantosh.springfirstmodulith.security.login;
 
+import com.dossantosh.springfirstmodulith.core.datasource.runtime.DataViewContext;
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.ServiceBusyException;
+import com.dossantosh.springfirstmodulith.core.hashing.PasswordHashingExecutor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Objects;
-
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * JSON login. When the container allows it, the credential check runs on a
+ * virtual thread while the request is suspended, and the outcome is handled on
+ * the async dispatch that follows, so request threads are not held during the
+ * user lookup or hashing. Only the password encoder's own work goes to the
+ * {@link PasswordHashingExecutor}, whose threads stay free for hashing while
+ * lookups wait on the database. At most {@link #MAX_LOGINS_IN_FLIGHT} checks
+ * run at once; beyond that, or once the hashing queue is full, the login is
+ * answered with 503.
+ */
 public class JsonUsernamePasswordAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
 	public static final String REQ_ATTR_DATA_SOURCE = "REQ_DATA_SOURCE";
 
+	private static final String REQ_ATTR_OUTCOME = JsonUsernamePasswordAuthenticationFilter.class.getName()
+			+ ".OUTCOME";
+
 	private static final String DEFAULT_DATA_SOURCE = "prod";
 
+	static final int MAX_LOGINS_IN_FLIGHT = 256;
+
 	private final ObjectMapper objectMapper;
+	private final LoginThrottle loginThrottle;
+	private final Executor loginExecutor;
+	private final Semaphore inFlight = new Semaphore(MAX_LOGINS_IN_FLIGHT);
 
-	public JsonUsernamePasswordAuthenticationFilter(ObjectMapper objectMapper) {
+	public JsonUsernamePasswordAuthenticationFilter(ObjectMapper objectMapper, LoginThrottle loginThrottle) {
+		this(objectMapper, loginThrottle, virtualThreads());
+	}
+
+	JsonUsernamePasswordAuthenticationFilter(ObjectMapper objectMapper, LoginThrottle loginThrottle,
+			Executor loginExecutor) {
 
 		this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper cannot be null");
+		this.loginThrottle = Objects.requireNonNull(loginThrottle, "loginThrottle cannot be null");
+		this.loginExecutor = Objects.requireNonNull(loginExecutor, "loginExecutor cannot be null");
 
 		setFilterProcessesUrl("/api/auth/login");
 	}
 
+	private static Executor virtualThreads() {
+		ThreadFactory threads = Thread.ofVirtual().name("login-", 0).factory();
+		return task -> threads.newThread(task).start();
+	}
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+			throws IOException, ServletException {
+		HttpServletRequest httpRequest = (HttpServletRequest) request;
+		HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+		try {
+			if (!requiresAuthentication(httpRequest, httpResponse) || !isJson(httpRequest)
+					|| httpRequest.getDispatcherType() == DispatcherType.ASYNC || !httpRequest.isAsyncSupported()) {
+				super.doFilter(request, response, chain);
+				return;
+			}
+
+			UsernamePasswordAuthenticationToken authRequest = readAuthenticationRequest(httpRequest);
+			String address = httpRequest.getRemoteAddr();
+			try {
+				checkThrottle(authRequest, address);
+			} catch (LoginThrottledException e) {
+				unsuccessfulAuthentication(httpRequest, httpResponse, e);
+				return;
+			}
+
+			if (!inFlight.tryAcquire()) {
+				rejectBusy(httpResponse, busy());
+				return;
+			}
+			String view = DataViewContext.get();
+			AsyncContext async;
+			try {
+				async = httpRequest.startAsync();
+			} catch (RuntimeException e) {
+				inFlight.release();
+				throw e;
+			}
+			loginExecutor.execute(() -> {
+				DataViewContext.set(view);
+				try {
+					httpRequest.setAttribute(REQ_ATTR_OUTCOME, authenticate(authRequest, address));
+				} finally {
+					DataViewContext.clear();
+					inFlight.release();
+					async.dispatch();
+				}
+			});
+		} catch (ServiceBusyException e) {
+			rejectBusy(httpResponse, e);
+		}
+	}
+
 	@Override
 	public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response)
 			throws AuthenticationException {
 
-		String contentType = request.getContentType();
-		if (contentType == null || !contentType.startsWith(MediaType.APPLICATION_JSON_VALUE)) {
+		Object outcome = request.getAttribute(REQ_ATTR_OUTCOME);
+		if (outcome != null) {
+			request.removeAttribute(REQ_ATTR_OUTCOME);
+			return authenticationOf(outcome);
+		}
+
+		if (!isJson(request)) {
 			return super.attemptAuthentication(request, response);
 		}
+		UsernamePasswordAuthenticationToken authRequest = readAuthenticationRequest(request);
+		checkThrottle(authRequest, request.getRemoteAddr());
+		return authenticationOf(authenticate(authRequest, request.getRemoteAddr()));
+	}
+
+	// A refused hash is rethrown as is, so doFilter answers 503 instead of a failed login.
+	private static Authentication authenticationOf(Object outcome) {
+		if (outcome instanceof RuntimeException failure) {
+			throw failure;
+		}
+		return (Authentication) outcome;
+	}
+
+	// Runs before the AuthenticationManager so throttled attempts never reach password hashing.
+	private void checkThrottle(UsernamePasswordAuthenticationToken authRequest, String address) {
+		Duration retryAfter = loginThrottle.check(authRequest.getName(), address);
+		if (!retryAfter.isZero()) {
+			throw new LoginThrottledException(retryAfter);
+		}
+	}
+
+	private Object authenticate(UsernamePasswordAuthenticationToken authRequest, String address) {
+		try {
+			return this.getAuthenticationManager().authenticate(authRequest);
+		} catch (AuthenticationException e) {
+			loginThrottle.recordFailure(authRequest.getName(), address);
+			return e;
+		} catch (ServiceBusyException e) {
+			return e;
+		} catch (RuntimeException e) {
+			return new InternalAuthenticationServiceException(e.getMessage(), e);
+		}
+	}
 
+	private UsernamePasswordAuthenticationToken readAuthenticationRequest(HttpServletRequest request) {
+		UsernamePasswordAuthenticationToken authRequest;
 		try {
 			LoginRequest body = objectMapper.readValue(request.getInputStream(), LoginRequest.class);
 			request.setAttribute(REQ_ATTR_DATA_SOURCE, body.resolvedDataSource());
-
-			UsernamePasswordAuthenticationToken authRequest = new UsernamePasswordAuthenticationToken(
-					body.resolvedUsername(), body.resolvedPassword());
-			setDetails(request, authRequest);
-			return this.getAuthenticationManager().authenticate(authRequest);
+			authRequest = new UsernamePasswordAuthenticationToken(body.resolvedUsername(), body.resolvedPassword());
 		} catch (IOException e) {
-			UsernamePasswordAuthenticationToken authRequest = new UsernamePasswordAuthenticationToken("", "");
-			setDetails(request, authRequest);
-			return this.getAuthenticationManager().authenticate(authRequest);
+			authRequest = new UsernamePasswordAuthenticationToken("", "");
 		}
+		setDetails(request, authRequest);
+		return authRequest;
+	}
+
+	private static boolean isJson(HttpServletRequest request) {
+		String contentType = request.getContentType();
+		return contentType != null && contentType.startsWith(MediaType.APPLICATION_JSON_VALUE);
+	}
+
+	private static ServiceBusyException busy() {
+		return new ServiceBusyException("Too many logins in progress, retry shortly",
+				PasswordHashingExecutor.RETRY_AFTER);
+	}
+
+	private static void rejectBusy(HttpServletResponse response, ServiceBusyException e) {
+		response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.retryAfter().toSeconds()));
 	}
 
 	private record LoginRequest(String username, String password, String dataSource, String view) {
@@ -0,0 +1,215 @@
+package com.dossantosh.springfirstmodulith.security.login;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts failed logins per username and client address, and per address
+ * alone, over a sliding window, so over-limit attempts are turned away before
+ * any password is hashed. Counting is lock-free and approximate: a failure
+ * racing with a bucket rollover may be dropped.
+ * <p>
+ * At most {@code maxKeys} keys are tracked. When a failure needs a new key
+ * and the map is full, keys without failures in the window are dropped and,
+ * if that is not enough, the keys whose last failure is oldest. Keys are never
+ * shared, so filling the map with sprayed usernames cannot get anyone else
+ * throttled; at worst it makes the oldest counts be forgotten early.
+ */
+@Component
+public class LoginThrottle {
+
+	static final int BUCKETS = 6;
+	// Share of maxKeys evicted at once, so a spray does not rescan the map for every new key.
+	private static final int EVICTION_DIVISOR = 8;
+
+	private final int maxFailuresPerUser;
+	private final int maxFailuresPerAddress;
+	private final int maxKeys;
+	private final long bucketMillis;
+	private final LongSupplier clock;
+	private final ConcurrentHashMap<String, SlidingWindow> windows = new ConcurrentHashMap<>();
+	private final Object evictionLock = new Object();
+	private final Counter throttledUser;
+	private final Counter throttledAddress;
+	private final Counter failures;
+
+	@Autowired
+	public LoginThrottle(@Value("${app.security.login-throttle.max-failures-per-user:10}") int maxFailuresPerUser,
+			@Value("${app.security.login-throttle.max-failures-per-address:100}") int maxFailuresPerAddress,
+			@Value("${app.security.login-throttle.window:5m}") Duration window,
+			@Value("${app.security.login-throttle.max-keys:20000}") int maxKeys, MeterRegistry meterRegistry) {
+		this(maxFailuresPerUser, maxFailuresPerAddress, window, maxKeys, meterRegistry, System::currentTimeMillis);
+	}
+
+	LoginThrottle(int maxFailuresPerUser, int maxFailuresPerAddress, Duration window, int maxKeys,
+			MeterRegistry meterRegistry, LongSupplier clock) {
+		if (window.toMillis() < BUCKETS) {
+			throw new IllegalArgumentException("window must be at least " + BUCKETS + "ms");
+		}
+		this.maxFailuresPerUser = maxFailuresPerUser;
+		this.maxFailuresPerAddress = maxFailuresPerAddress;
+		this.maxKeys = maxKeys;
+		this.bucketMillis = window.toMillis() / BUCKETS;
+		this.clock = clock;
+		this.throttledUser = Counter.builder("security.login.throttled").tag("key", "user").register(meterRegistry);
+		this.throttledAddress = Counter.builder("security.login.throttled").tag("key", "address")
+				.register(meterRegistry);
+		this.failures = Counter.builder("security.login.failures").register(meterRegistry);
+		Gauge.builder("security.login.throttle.keys", windows, ConcurrentHashMap::size).register(meterRegistry);
+	}
+
+	/**
+	 * Returns how long the caller should wait, or {@link Duration#ZERO} if the
+	 * attempt may go ahead.
+	 */
+	public Duration check(String username, String address) {
+		long slot = currentSlot();
+		SlidingWindow byAddress = window(addressKey(address), false);
+		if (byAddress.count(slot) >= maxFailuresPerAddress) {
+			throttledAddress.increment();
+			return retryAfter(byAddress, slot, maxFailuresPerAddress);
+		}
+		SlidingWindow byUser = window(userKey(username, address), false);
+		if (byUser.count(slot) >= maxFailuresPerUser) {
+			throttledUser.increment();
+			return retryAfter(byUser, slot, maxFailuresPerUser);
+		}
+		return Duration.ZERO;
+	}
+
+	public void recordFailure(String username, String address) {
+		long slot = currentSlot();
+		failures.increment();
+		window(addressKey(address), true).record(slot);
+		window(userKey(username, address), true).record(slot);
+	}
+
+	int trackedKeys() {
+		return windows.size();
+	}
+
+	private SlidingWindow window(String key, boolean create) {
+		SlidingWindow window = windows.get(key);
+		if (window != null) {
+			return window;
+		}
+		if (!create) {
+			return SlidingWindow.EMPTY;
+		}
+		if (windows.size() >= maxKeys) {
+			makeRoom();
+		}
+		return windows.computeIfAbsent(key, k -> new SlidingWindow());
+	}
+
+	private void makeRoom() {
+		synchronized (evictionLock) {
+			if (windows.size() < maxKeys) {
+				return;
+			}
+			long slot = currentSlot();
+			windows.values().removeIf(window -> window.count(slot) == 0);
+			int excess = windows.size() - maxKeys + Math.max(1, maxKeys / EVICTION_DIVISOR);
+			if (excess > 0) {
+				// Last slots are read once up front: they may move while sorting.
+				windows.entrySet().stream()
+						.map(entry -> Map.entry(entry.getKey(), entry.getValue().lastSlot()))
+						.sorted(Map.Entry.comparingByValue())
+						.limit(excess)
+						.map(Map.Entry::getKey)
+						.toList()
+						.forEach(windows::remove);
+			}
+		}
+	}
+
+	private long currentSlot() {
+		return clock.getAsLong() / bucketMillis;
+	}
+
+	// Until enough of the oldest buckets have left the window to bring the count under the limit.
+	private Duration retryAfter(SlidingWindow window, long slot, int limit) {
+		long releaseSlot = window.releaseSlot(slot, limit);
+		return Duration.ofMillis(releaseSlot * bucketMillis - clock.getAsLong());
+	}
+
+	private static String addressKey(String address) {
+		return "a|" + address;
+	}
+
+	private static String userKey(String username, String address) {
+		String normalized = username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+		return "u|" + address + "|" + normalized;
+	}
+
+	static final class SlidingWindow {
+
+		private static final SlidingWindow EMPTY = new SlidingWindow();
+
+		private final LongAdder[] buckets = new LongAdder[BUCKETS];
+		private final AtomicLongArray slots = new AtomicLongArray(BUCKETS);
+
+		SlidingWindow() {
+			for (int i = 0; i < BUCKETS; i++) {
+				buckets[i] = new LongAdder();
+			}
+		}
+
+		void record(long slot) {
+			int i = (int) Math.floorMod(slot, BUCKETS);
+			long seen = slots.get(i);
+			if (seen != slot && slots.compareAndSet(i, seen, slot)) {
+				buckets[i].reset();
+			}
+			buckets[i].increment();
+		}
+
+		/**
+		 * First slot at which the failures counted at {@code slot} drop below
+		 * {@code limit}, as the oldest buckets leave the window one by one.
+		 */
+		long releaseSlot(long slot, long limit) {
+			long remaining = count(slot);
+			for (long oldest = slot - BUCKETS + 1; oldest <= slot; oldest++) {
+				int i = (int) Math.floorMod(oldest, BUCKETS);
+				if (slots.get(i) == oldest) {
+					remaining -= buckets[i].sum();
+				}
+				if (remaining < limit) {
+					return oldest + BUCKETS;
+				}
+			}
+			return slot + BUCKETS;
+		}
+
+		long lastSlot() {
+			long last = Long.MIN_VALUE;
+			for (int i = 0; i < BUCKETS; i++) {
+				last = Math.max(last, slots.get(i));
+			}
+			return last;
+		}
+
+		long count(long slot) {
+			long total = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				if (slot - slots.get(i) < BUCKETS) {
+					total += buckets[i].sum();
+				}
+			}
+			return total;
+		}
+	}
+}
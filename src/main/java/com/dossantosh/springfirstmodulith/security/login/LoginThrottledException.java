@@ -0,0 +1,19 @@
+package com.dossantosh.springfirstmodulith.security.login;
+
+import org.springframework.security.core.AuthenticationException;
+
+import java.time.Duration;
+
+public class LoginThrottledException extends AuthenticationException {
+
+	private final Duration retryAfter;
+
+	public LoginThrottledException(Duration retryAfter) {
+		super("Too many failed login attempts");
+		this.retryAfter = retryAfter;
+	}
+
+	public Duration retryAfter() {
+		return retryAfter;
+	}
+}
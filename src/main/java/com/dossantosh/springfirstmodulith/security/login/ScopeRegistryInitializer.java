@@ -0,0 +1,27 @@
+package com.dossantosh.springfirstmodulith.security.login;
+
+import com.dossantosh.springfirstmodulith.authorization.ScopeRegistry;
+import com.dossantosh.springfirstmodulith.users.api.ports.login.ScopeCatalogQuery;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Numbers the scopes from the {@code scopes} table up front so principals
+ * built later find their bits already assigned. Scopes added afterwards are
+ * numbered on first login.
+ */
+@Component
+class ScopeRegistryInitializer {
+
+	private final ScopeCatalogQuery scopeCatalogQuery;
+
+	ScopeRegistryInitializer(ScopeCatalogQuery scopeCatalogQuery) {
+		this.scopeCatalogQuery = scopeCatalogQuery;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	void registerScopes() {
+		ScopeRegistry.registerAll(scopeCatalogQuery.findAllScopeNames());
+	}
+}
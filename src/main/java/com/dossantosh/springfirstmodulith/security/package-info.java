@@ -1,4 +1,6 @@
-@ApplicationModule(allowedDependencies = {"authorization", "users::apiLogin", "users::apiNavigation", "core::runtime"})
+@ApplicationModule(allowedDependencies = {"authorization", "users::apiLogin", "users::apiNavigation",
+		"users::apiEvents", "core::runtime", "core::exceptionsCustom",
+		"core::invalidation", "core::hashing"})
 package com.dossantosh.springfirstmodulith.security;
 
 import org.springframework.modulith.ApplicationModule;
@@ -0,0 +1,77 @@
+package com.dossantosh.springfirstmodulith.security.session;
+
+import com.dossantosh.springfirstmodulith.security.login.CustomUserDetails;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Reloads the session principal when its access epoch is behind, so role and
+ * scope changes apply to existing sessions. Up-to-date principals cost one
+ * array read; only stale ones go back to the {@link UserDetailsService}. A
+ * user who is no longer found (deleted or renamed) or was disabled is logged
+ * out.
+ */
+public class AccessEpochFilter extends OncePerRequestFilter {
+
+	private final AccessEpochs accessEpochs;
+	private final UserDetailsService userDetailsService;
+	private final SecurityContextRepository securityContextRepository = new HttpSessionSecurityContextRepository();
+
+	public AccessEpochFilter(AccessEpochs accessEpochs, UserDetailsService userDetailsService) {
+		this.accessEpochs = accessEpochs;
+		this.userDetailsService = userDetailsService;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user
+				&& user.getId() != null && accessEpochs.isStale(user.getId(), user.getAccessEpoch())) {
+			refresh(authentication, user.getUsername(), request, response);
+		}
+		filterChain.doFilter(request, response);
+	}
+
+	private void refresh(Authentication current, String username, HttpServletRequest request,
+			HttpServletResponse response) {
+		UserDetails reloaded;
+		try {
+			reloaded = userDetailsService.loadUserByUsername(username);
+		} catch (UsernameNotFoundException e) {
+			reloaded = null;
+		}
+
+		if (reloaded == null || !reloaded.isEnabled()) {
+			SecurityContextHolder.clearContext();
+			HttpSession session = request.getSession(false);
+			if (session != null) {
+				session.invalidate();
+			}
+			return;
+		}
+
+		UsernamePasswordAuthenticationToken refreshed = UsernamePasswordAuthenticationToken.authenticated(reloaded,
+				null, reloaded.getAuthorities());
+		refreshed.setDetails(current.getDetails());
+		SecurityContext context = SecurityContextHolder.createEmptyContext();
+		context.setAuthentication(refreshed);
+		SecurityContextHolder.setContext(context);
+		securityContextRepository.saveContext(context, request, response);
+	}
+}
@@ -0,0 +1,95 @@
+package com.dossantosh.springfirstmodulith.security.session;
+
+import com.dossantosh.springfirstmodulith.core.invalidation.CacheInvalidation;
+import com.dossantosh.springfirstmodulith.core.invalidation.InvalidationHandler;
+import com.dossantosh.springfirstmodulith.users.api.events.RoleScopesChangedEvent;
+import com.dossantosh.springfirstmodulith.users.api.events.UserCacheRegions;
+import com.dossantosh.springfirstmodulith.users.api.events.UserChangedEvent;
+import com.dossantosh.springfirstmodulith.users.api.events.UserDeletedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user access epochs. A principal remembers the epoch it was loaded at;
+ * once a change to the user or to role scopes commits, the epoch moves and
+ * {@link AccessEpochFilter} reloads the principal on its next request.
+ * <p>
+ * Users share a fixed number of stripes, so a bump may also refresh the other
+ * users of that stripe, which is harmless. The epoch starts from the boot
+ * time, so principals stored in sessions by an earlier process are reloaded
+ * once. Epochs are local to this instance; changes committed by other
+ * instances arrive through the invalidation bus.
+ */
+@Component
+public class AccessEpochs implements InvalidationHandler {
+
+	private static final int STRIPES = 4096;
+
+	private final AtomicLongArray stripes = new AtomicLongArray(STRIPES);
+	private final AtomicLong global = new AtomicLong(System.currentTimeMillis());
+
+	public long current(long userId) {
+		return global.get() + stripes.get(stripe(userId));
+	}
+
+	public boolean isStale(long userId, long epoch) {
+		return current(userId) != epoch;
+	}
+
+	public void bump(long userId) {
+		stripes.incrementAndGet(stripe(userId));
+	}
+
+	public void bumpAll() {
+		global.incrementAndGet();
+	}
+
+	// Ordered last so the login cache has dropped the user before anyone reloads.
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(UserChangedEvent event) {
+		bump(event.userId());
+	}
+
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(UserDeletedEvent event) {
+		bump(event.userId());
+	}
+
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(RoleScopesChangedEvent event) {
+		bumpAll();
+	}
+
+	@Override
+	public void invalidate(CacheInvalidation invalidation) {
+		switch (invalidation.region()) {
+			case UserCacheRegions.USERS -> {
+				if (invalidation.isRegionWide()) {
+					bumpAll();
+				} else {
+					bump(Long.parseLong(invalidation.key()));
+				}
+			}
+			case UserCacheRegions.ROLE_SCOPES -> bumpAll();
+			default -> {
+			}
+		}
+	}
+
+	@Override
+	public void invalidateAll() {
+		bumpAll();
+	}
+
+	private static int stripe(long userId) {
+		return (int) (userId ^ (userId >>> 32)) & (STRIPES - 1);
+	}
+}
@@ -1,5 +1,6 @@
 package com.dossantosh.springfirstmodulith.security.session;
 
+import com.dossantosh.springfirstmodulith.core.datasource.runtime.DataViewContext;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.stereotype.Component;
 
@@ -12,19 +13,16 @@ public class CurrentSessionDataViewProvider implements CurrentDataViewQuery {
 
 	@Override
 	public String getCurrentDataView(HttpSession session) {
-		if (session == null) {
-			return PROD;
-		}
-
-		Object raw = session.getAttribute(SESSION_KEY);
-		return normalize(raw == null ? null : raw.toString());
+		Object raw = session == null ? null : session.getAttribute(SESSION_KEY);
+		// Stateless requests, and sessions that never stored one, use the view already on the request.
+		return normalize(raw == null ? DataViewContext.get() : raw.toString());
 	}
 
 	public void storeCurrentDataView(HttpSession session, String dataView) {
 		session.setAttribute(SESSION_KEY, normalize(dataView));
 	}
 
-	private String normalize(String dataView) {
+	public String normalize(String dataView) {
 		return HISTORIC.equals(dataView) ? HISTORIC : PROD;
 	}
 }
@@ -0,0 +1,25 @@
+package com.dossantosh.springfirstmodulith.security.session;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+
+@Configuration
+public class SessionAttributeSerializationConfig {
+
+	/**
+	 * Picked up by Spring Session JDBC by name to convert attributes to and
+	 * from {@code attribute_bytes}.
+	 */
+	@Bean("springSessionConversionService")
+	public ConversionService springSessionConversionService(
+			@Value("${app.security.session-attributes.compact:true}") boolean compact) {
+		SessionAttributeSerializer serializer = new SessionAttributeSerializer(compact);
+		GenericConversionService conversionService = new GenericConversionService();
+		conversionService.addConverter(Object.class, byte[].class, serializer::serialize);
+		conversionService.addConverter(byte[].class, Object.class, serializer::deserialize);
+		return conversionService;
+	}
+}
@@ -0,0 +1,365 @@
+package com.dossantosh.springfirstmodulith.security.session;
+
+import com.dossantosh.springfirstmodulith.authorization.ScopeSet;
+import com.dossantosh.springfirstmodulith.security.login.CustomUserDetails;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Turns session attributes into the bytes Spring Session JDBC stores, and
+ * back. The security context of a {@link CustomUserDetails} login and plain
+ * strings (such as the data view) are written in a compact versioned binary
+ * form; anything else is JDK-serialized as before. Values over the
+ * compression threshold ({@link #COMPRESSION_THRESHOLD} bytes by default) are
+ * deflated when that makes them smaller.
+ * <p>
+ * Reading accepts both forms, so attributes JDK-serialized by earlier
+ * versions move to the compact form the next time they are saved. A JDK
+ * stream naming a class that is gone or has changed incompatibly since it was
+ * written, such as a {@link CustomUserDetails} from before the principal kept
+ * an access profile, reads as an absent attribute, and so does a context
+ * holding scope bits only a newer version declares (a session written by an
+ * upgraded node during a rolling deploy): the user signs in again instead of
+ * every request on that session failing. With {@code compact} off
+ * only JDK serialization is written, for instances that must stay readable by
+ * older versions during a rollout.
+ */
+final class SessionAttributeSerializer {
+
+	static final int COMPRESSION_THRESHOLD = 512;
+
+	// JDK serialization streams always start with 0xACED.
+	private static final byte MAGIC_0 = (byte) 0xC5;
+	private static final byte MAGIC_1 = 0x53;
+	private static final byte VERSION = 1;
+	private static final int HEADER_LENGTH = 5;
+
+	private static final byte KIND_STRING = 1;
+	private static final byte KIND_SECURITY_CONTEXT = 2;
+	private static final byte KIND_JDK = 3;
+	private static final byte FLAG_DEFLATED = 1;
+
+	private static final byte AUTHORITIES_OF_PRINCIPAL = 0;
+	private static final byte AUTHORITIES_LISTED = 1;
+	private static final byte AUTHORITY_SIMPLE = 0;
+	private static final byte AUTHORITY_SERIALIZED = 1;
+	private static final byte NO_DETAILS = 0;
+	private static final byte WEB_DETAILS = 1;
+
+	private final boolean compact;
+	private final int compressionThreshold;
+	private final SerializingConverter jdkSerializer = new SerializingConverter();
+	private final DeserializingConverter jdkDeserializer = new DeserializingConverter(
+			SessionAttributeSerializer.class.getClassLoader());
+
+	SessionAttributeSerializer(boolean compact) {
+		this(compact, COMPRESSION_THRESHOLD);
+	}
+
+	SessionAttributeSerializer(boolean compact, int compressionThreshold) {
+		this.compact = compact;
+		this.compressionThreshold = compressionThreshold;
+	}
+
+	byte[] serialize(Object value) {
+		if (!compact) {
+			return jdkSerializer.convert(value);
+		}
+		try {
+			if (value instanceof String string) {
+				return envelope(KIND_STRING, encodeString(string));
+			}
+			if (value instanceof SecurityContext context && isCompactable(context)) {
+				return envelope(KIND_SECURITY_CONTEXT, encodeContext(context.getAuthentication()));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		byte[] jdk = jdkSerializer.convert(value);
+		return jdk.length > compressionThreshold ? envelope(KIND_JDK, jdk) : jdk;
+	}
+
+	Object deserialize(byte[] bytes) {
+		try {
+			return read(bytes);
+		} catch (SerializationFailedException e) {
+			if (isIncompatibleClass(e)) {
+				return null;
+			}
+			throw e;
+		}
+	}
+
+	private Object read(byte[] bytes) {
+		if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1) {
+			return jdkDeserializer.convert(bytes);
+		}
+		if (bytes[2] != VERSION) {
+			throw new IllegalStateException("Unsupported session attribute format version " + bytes[2]);
+		}
+
+		byte[] body = (bytes[4] & FLAG_DEFLATED) != 0
+				? inflate(bytes)
+				: Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+		try {
+			return switch (bytes[3]) {
+				case KIND_STRING -> readString(new DataInputStream(new ByteArrayInputStream(body)));
+				case KIND_SECURITY_CONTEXT -> decodeContext(new DataInputStream(new ByteArrayInputStream(body)));
+				case KIND_JDK -> jdkDeserializer.convert(body);
+				default -> throw new IllegalStateException("Unknown session attribute kind " + bytes[3]);
+			};
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// Missing classes, changed serialVersionUIDs, fields whose type changed and values only a newer version
+	// accepts (such as scope bits it declares); not corrupt streams.
+	private static boolean isIncompatibleClass(Throwable failure) {
+		for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+			if (cause instanceof InvalidClassException || cause instanceof InvalidObjectException
+					|| cause instanceof ClassNotFoundException || cause instanceof ClassCastException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Only the shapes produced by our own login and reload filters; others keep JDK serialization.
+	private static boolean isCompactable(SecurityContext context) {
+		Authentication authentication = context.getAuthentication();
+		return context.getClass() == SecurityContextImpl.class && authentication != null
+				&& authentication.getClass() == UsernamePasswordAuthenticationToken.class
+				&& authentication.isAuthenticated() && authentication.getCredentials() == null
+				&& authentication.getPrincipal() != null
+				&& authentication.getPrincipal().getClass() == CustomUserDetails.class
+				&& (authentication.getDetails() == null
+						|| authentication.getDetails().getClass() == WebAuthenticationDetails.class);
+	}
+
+	private static byte[] encodeString(String value) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(value.length() + 4);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			writeString(out, value);
+		}
+		return bytes.toByteArray();
+	}
+
+	private byte[] encodeContext(Authentication authentication) throws IOException {
+		CustomUserDetails principal = (CustomUserDetails) authentication.getPrincipal();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeBoolean(principal.getId() != null);
+			if (principal.getId() != null) {
+				out.writeLong(principal.getId());
+			}
+			writeString(out, principal.getUsername());
+			writeString(out, principal.getEmail());
+			writeString(out, principal.getPassword());
+			out.writeBoolean(principal.isEnabled());
+			out.writeBoolean(Boolean.TRUE.equals(principal.getIsAdmin()));
+			out.writeLong(principal.getAccessEpoch());
+			writeStrings(out, principal.getRoles());
+			ScopeSet scopes = principal.getScopeSet();
+			out.writeLong(scopes.declaredBits());
+			writeStrings(out, scopes.undeclaredNames());
+
+			writeAuthorities(out, authentication.getAuthorities(), principal.getAuthorities());
+
+			if (authentication.getDetails() instanceof WebAuthenticationDetails details) {
+				out.writeByte(WEB_DETAILS);
+				writeString(out, details.getRemoteAddress());
+				writeString(out, details.getSessionId());
+			} else {
+				out.writeByte(NO_DETAILS);
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	private Object decodeContext(DataInputStream in) throws IOException {
+		Long id = in.readBoolean() ? in.readLong() : null;
+		String username = readString(in);
+		String email = readString(in);
+		String password = readString(in);
+		boolean enabled = in.readBoolean();
+		boolean isAdmin = in.readBoolean();
+		long accessEpoch = in.readLong();
+		List<String> roles = readStrings(in);
+		long declaredScopes = in.readLong();
+		List<String> undeclaredScopes = readStrings(in);
+		if (!ScopeSet.isKnownDeclaredBits(declaredScopes)) {
+			// Written by a newer node declaring more scopes, like a class changed since it was serialized.
+			return null;
+		}
+		ScopeSet scopes = ScopeSet.of(declaredScopes, undeclaredScopes);
+		CustomUserDetails principal = CustomUserDetails.restore(id, username, email, password, enabled, isAdmin,
+				roles, scopes, accessEpoch);
+
+		Collection<? extends GrantedAuthority> authorities = readAuthorities(in, principal);
+		UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken
+				.authenticated(principal, null, authorities);
+		if (in.readByte() == WEB_DETAILS) {
+			authentication.setDetails(new WebAuthenticationDetails(readString(in), readString(in)));
+		}
+		return new SecurityContextImpl(authentication);
+	}
+
+	private void writeAuthorities(DataOutputStream out, Collection<? extends GrantedAuthority> authorities,
+			Collection<? extends GrantedAuthority> principalAuthorities) throws IOException {
+		if (List.copyOf(authorities).equals(List.copyOf(principalAuthorities))) {
+			out.writeByte(AUTHORITIES_OF_PRINCIPAL);
+			return;
+		}
+		out.writeByte(AUTHORITIES_LISTED);
+		out.writeInt(authorities.size());
+		for (GrantedAuthority authority : authorities) {
+			if (authority.getClass() == SimpleGrantedAuthority.class) {
+				out.writeByte(AUTHORITY_SIMPLE);
+				writeString(out, authority.getAuthority());
+			} else {
+				byte[] serialized = jdkSerializer.convert(authority);
+				out.writeByte(AUTHORITY_SERIALIZED);
+				out.writeInt(serialized.length);
+				out.write(serialized);
+			}
+		}
+	}
+
+	private Collection<? extends GrantedAuthority> readAuthorities(DataInputStream in, CustomUserDetails principal)
+			throws IOException {
+		if (in.readByte() == AUTHORITIES_OF_PRINCIPAL) {
+			return principal.getAuthorities();
+		}
+		int size = in.readInt();
+		List<GrantedAuthority> authorities = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			if (in.readByte() == AUTHORITY_SIMPLE) {
+				authorities.add(new SimpleGrantedAuthority(readString(in)));
+			} else {
+				byte[] serialized = new byte[in.readInt()];
+				in.readFully(serialized);
+				authorities.add((GrantedAuthority) jdkDeserializer.convert(serialized));
+			}
+		}
+		return authorities;
+	}
+
+	private byte[] envelope(byte kind, byte[] body) {
+		byte flags = 0;
+		if (body.length > compressionThreshold) {
+			byte[] deflated = deflate(body);
+			if (deflated.length < body.length) {
+				body = deflated;
+				flags = FLAG_DEFLATED;
+			}
+		}
+		byte[] bytes = new byte[HEADER_LENGTH + body.length];
+		bytes[0] = MAGIC_0;
+		bytes[1] = MAGIC_1;
+		bytes[2] = VERSION;
+		bytes[3] = kind;
+		bytes[4] = flags;
+		System.arraycopy(body, 0, bytes, HEADER_LENGTH, body.length);
+		return bytes;
+	}
+
+	private static byte[] deflate(byte[] body) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(body);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+			byte[] buffer = new byte[1024];
+			while (!deflater.finished()) {
+				out.write(buffer, 0, deflater.deflate(buffer));
+			}
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static byte[] inflate(byte[] bytes) {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+			ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+			byte[] buffer = new byte[1024];
+			while (!inflater.finished()) {
+				int inflated = inflater.inflate(buffer);
+				if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IllegalStateException("Truncated session attribute");
+				}
+				out.write(buffer, 0, inflated);
+			}
+			return out.toByteArray();
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("Corrupt session attribute", e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(utf8.length);
+		out.write(utf8);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] utf8 = new byte[length];
+		in.readFully(utf8);
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+
+	private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+		out.writeInt(values.size());
+		for (String value : values) {
+			writeString(out, value);
+		}
+	}
+
+	private static List<String> readStrings(DataInputStream in) throws IOException {
+		int size = in.readInt();
+		List<String> values = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			values.add(readString(in));
+		}
+		return values;
+	}
+}
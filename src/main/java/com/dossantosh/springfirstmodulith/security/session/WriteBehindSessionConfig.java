@@ -0,0 +1,39 @@
+package com.dossantosh.springfirstmodulith.security.session;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.config.annotation.SpringSessionDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts {@link WriteBehindSessionRepository} in front of the JDBC session
+ * repository, which keeps its own lifecycle and expired-session cleanup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.security.session-touch.write-behind", havingValue = "true")
+public class WriteBehindSessionConfig {
+
+	@Bean
+	@Primary
+	@SuppressWarnings("unchecked")
+	WriteBehindSessionRepository writeBehindSessionRepository(JdbcIndexedSessionRepository sessionRepository,
+			@SpringSessionDataSource DataSource sessionDataSource,
+			@Value("${app.security.session-touch.max-staleness:60s}") Duration maxStaleness,
+			@Value("${app.security.session-touch.flush-interval:5s}") Duration flushInterval,
+			@Value("${server.servlet.session.timeout:30m}") Duration sessionTimeout, MeterRegistry meterRegistry) {
+		FindByIndexNameSessionRepository<Session> jdbcSessions = (FindByIndexNameSessionRepository<Session>)
+				(FindByIndexNameSessionRepository<?>) sessionRepository;
+		return new WriteBehindSessionRepository(jdbcSessions, new JdbcTemplate(sessionDataSource), maxStaleness,
+				flushInterval, sessionTimeout, meterRegistry);
+	}
+}
@@ -0,0 +1,293 @@
+package com.dossantosh.springfirstmodulith.security.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps last-access updates of existing sessions out of the request path.
+ * A request that only touches its session no longer rewrites the session row:
+ * the touch is remembered here once the stored access time lags more than
+ * {@code maxStaleness} behind, and queued touches are written every
+ * {@code flushInterval} in batched {@code UPDATE ... FROM (VALUES ...)}
+ * statements, and once more on shutdown. Other changes (attributes, id,
+ * timeout) are still saved right away by the JDBC repository.
+ * <p>
+ * The stored access time may therefore trail the real one by up to
+ * {@code maxStaleness + flushInterval}, so a session can expire that much
+ * earlier than its timeout; both are validated to stay well inside it.
+ */
+class WriteBehindSessionRepository implements FindByIndexNameSessionRepository<Session>, SmartLifecycle {
+
+	static final int MAX_ROWS_PER_STATEMENT = 500;
+
+	private static final Logger log = LoggerFactory.getLogger(WriteBehindSessionRepository.class);
+
+	private final FindByIndexNameSessionRepository<Session> delegate;
+	private final JdbcTemplate jdbcTemplate;
+	private final long maxStalenessMillis;
+	private final Duration flushInterval;
+	private final ConcurrentHashMap<String, Long> pending = new ConcurrentHashMap<>();
+	private final Counter queued;
+	private final Counter coalesced;
+	private final Timer flushes;
+	private final Object flushLock = new Object();
+	private ScheduledExecutorService scheduler;
+
+	WriteBehindSessionRepository(FindByIndexNameSessionRepository<Session> delegate, JdbcTemplate jdbcTemplate,
+			Duration maxStaleness, Duration flushInterval, Duration sessionTimeout, MeterRegistry meterRegistry) {
+		if (maxStaleness.isNegative() || flushInterval.isNegative() || flushInterval.isZero()) {
+			throw new IllegalArgumentException("Session touch staleness and flush interval must be positive");
+		}
+		if (maxStaleness.plus(flushInterval).compareTo(sessionTimeout.dividedBy(4)) > 0) {
+			throw new IllegalArgumentException("Session touches may lag " + maxStaleness.plus(flushInterval)
+					+ ", more than a quarter of the " + sessionTimeout + " session timeout");
+		}
+		this.delegate = delegate;
+		this.jdbcTemplate = jdbcTemplate;
+		this.maxStalenessMillis = maxStaleness.toMillis();
+		this.flushInterval = flushInterval;
+		this.queued = meterRegistry.counter("session.touches", "result", "queued");
+		this.coalesced = meterRegistry.counter("session.touches", "result", "coalesced");
+		this.flushes = meterRegistry.timer("session.touches.flush");
+		meterRegistry.gaugeMapSize("session.touches.pending", List.of(), pending);
+	}
+
+	@Override
+	public Session createSession() {
+		return new TouchDeferringSession(delegate.createSession(), true);
+	}
+
+	@Override
+	public void save(Session session) {
+		if (!(session instanceof TouchDeferringSession deferring)) {
+			delegate.save(session);
+			return;
+		}
+
+		deferring.saveWith(delegate);
+		long lag = deferring.touchLag();
+		if (lag > 0 && lag >= maxStalenessMillis) {
+			long lastAccess = deferring.getLastAccessedTime().toEpochMilli();
+			if (pending.putIfAbsent(deferring.getId(), lastAccess) == null) {
+				queued.increment();
+			} else {
+				pending.merge(deferring.getId(), lastAccess, Math::max);
+				coalesced.increment();
+			}
+		}
+	}
+
+	@Override
+	public Session findById(String id) {
+		Session session = delegate.findById(id);
+		return session == null ? null : new TouchDeferringSession(session, false);
+	}
+
+	@Override
+	public void deleteById(String id) {
+		pending.remove(id);
+		delegate.deleteById(id);
+	}
+
+	@Override
+	public Map<String, Session> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+		Map<String, Session> sessions = new LinkedHashMap<>();
+		delegate.findByIndexNameAndIndexValue(indexName, indexValue)
+				.forEach((id, session) -> sessions.put(id, new TouchDeferringSession(session, false)));
+		return sessions;
+	}
+
+	/**
+	 * Writes every queued touch; a failed batch is logged and queued again.
+	 */
+	void flush() {
+		synchronized (flushLock) {
+			List<Object[]> rows = new ArrayList<>();
+			for (String id : pending.keySet()) {
+				Long lastAccess = pending.remove(id);
+				if (lastAccess != null) {
+					rows.add(new Object[] {id, lastAccess});
+				}
+			}
+			if (rows.isEmpty()) {
+				return;
+			}
+
+			flushes.record(() -> {
+				for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+					List<Object[]> batch = rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT));
+					try {
+						jdbcTemplate.update(updateSql(batch.size()), batch.stream().flatMap(Arrays::stream).toArray());
+					} catch (RuntimeException e) {
+						// Any failure, not only DataAccessException: one escaping would cancel the scheduled flushes.
+						log.warn("Failed to write {} session touches; retrying on the next flush", batch.size(), e);
+						batch.forEach(row -> pending.merge((String) row[0], (Long) row[1], Math::max));
+					}
+				}
+			});
+		}
+	}
+
+	@Override
+	public void start() {
+		scheduler = Executors.newSingleThreadScheduledExecutor(
+				Thread.ofPlatform().name("session-touch-flush").daemon(true).factory());
+		scheduler.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(),
+				TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void stop() {
+		ScheduledExecutorService current = scheduler;
+		if (current != null) {
+			current.shutdown();
+			try {
+				current.awaitTermination(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			scheduler = null;
+		}
+		flush();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return scheduler != null;
+	}
+
+	// Stops after the web server, so touches of the last requests are flushed too.
+	@Override
+	public int getPhase() {
+		return SmartLifecycle.DEFAULT_PHASE - 4096;
+	}
+
+	// Rows only move forward: a slower node must not rewind a newer access time.
+	private static String updateSql(int rows) {
+		StringJoiner values = new StringJoiner(", ");
+		values.add("(?::char(36), ?::bigint)");
+		for (int i = 1; i < rows; i++) {
+			values.add("(?, ?)");
+		}
+		return """
+				update spring_session s
+				set last_access_time = v.last_access_time,
+				    expiry_time = case when s.max_inactive_interval < 0 then s.expiry_time
+				                       else v.last_access_time + s.max_inactive_interval * 1000::bigint end
+				from (values %s) as v(session_id, last_access_time)
+				where s.session_id = v.session_id and s.last_access_time < v.last_access_time
+				""".formatted(values);
+	}
+
+	/**
+	 * Keeps the access time of a loaded session to itself, so the JDBC session
+	 * underneath only counts as changed when something else changed.
+	 */
+	private static final class TouchDeferringSession implements Session {
+
+		private final Session session;
+		private final boolean isNew;
+		private final Instant storedLastAccess;
+		private Instant lastAccessed;
+
+		private TouchDeferringSession(Session session, boolean isNew) {
+			this.session = session;
+			this.isNew = isNew;
+			this.storedLastAccess = session.getLastAccessedTime();
+			this.lastAccessed = storedLastAccess;
+		}
+
+		private void saveWith(FindByIndexNameSessionRepository<Session> repository) {
+			if (isNew) {
+				session.setLastAccessedTime(lastAccessed);
+			}
+			repository.save(session);
+		}
+
+		private long touchLag() {
+			return isNew ? 0 : lastAccessed.toEpochMilli() - storedLastAccess.toEpochMilli();
+		}
+
+		@Override
+		public String getId() {
+			return session.getId();
+		}
+
+		@Override
+		public String changeSessionId() {
+			return session.changeSessionId();
+		}
+
+		@Override
+		public <T> T getAttribute(String attributeName) {
+			return session.getAttribute(attributeName);
+		}
+
+		@Override
+		public Set<String> getAttributeNames() {
+			return session.getAttributeNames();
+		}
+
+		@Override
+		public void setAttribute(String attributeName, Object attributeValue) {
+			session.setAttribute(attributeName, attributeValue);
+		}
+
+		@Override
+		public void removeAttribute(String attributeName) {
+			session.removeAttribute(attributeName);
+		}
+
+		@Override
+		public Instant getCreationTime() {
+			return session.getCreationTime();
+		}
+
+		@Override
+		public void setLastAccessedTime(Instant lastAccessedTime) {
+			this.lastAccessed = lastAccessedTime;
+		}
+
+		@Override
+		public Instant getLastAccessedTime() {
+			return lastAccessed;
+		}
+
+		@Override
+		public void setMaxInactiveInterval(Duration interval) {
+			session.setMaxInactiveInterval(interval);
+		}
+
+		@Override
+		public Duration getMaxInactiveInterval() {
+			return session.getMaxInactiveInterval();
+		}
+
+		@Override
+		public boolean isExpired() {
+			Duration interval = getMaxInactiveInterval();
+			return !interval.isNegative() && Instant.now().minus(interval).compareTo(lastAccessed) >= 0;
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.dossantosh.springfirstmodulith.security.token;
+
+import com.dossantosh.springfirstmodulith.core.datasource.runtime.DataViewContext;
+import com.dossantosh.springfirstmodulith.security.login.CustomUserDetails;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <token>} from
+ * the token alone and applies its data view. Invalid or expired tokens get
+ * 401; the refresh endpoint validates its token itself.
+ */
+public class BearerTokenAuthenticationFilter extends OncePerRequestFilter {
+
+	public static final String REFRESH_PATH = "/api/auth/refresh";
+
+	private static final String BEARER_PREFIX = "Bearer ";
+
+	private final SignedTokenService tokens;
+
+	public BearerTokenAuthenticationFilter(SignedTokenService tokens) {
+		this.tokens = tokens;
+	}
+
+	public static Optional<String> bearerToken(HttpServletRequest request) {
+		String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+			return Optional.empty();
+		}
+		return Optional.of(header.substring(BEARER_PREFIX.length()).trim());
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return REFRESH_PATH.equals(request.getServletPath());
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		Optional<String> token = bearerToken(request);
+		if (token.isEmpty()) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		Optional<TokenClaims> claims = token.flatMap(tokens::verify);
+		if (claims.isEmpty()) {
+			response.setStatus(HttpStatus.UNAUTHORIZED.value());
+			response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+			return;
+		}
+
+		CustomUserDetails principal = tokens.principal(claims.get());
+		SecurityContext context = SecurityContextHolder.createEmptyContext();
+		context.setAuthentication(
+				UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+		SecurityContextHolder.setContext(context);
+		DataViewContext.set(claims.get().dataView());
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+}
@@ -0,0 +1,256 @@
+package com.dossantosh.springfirstmodulith.security.token;
+
+import com.dossantosh.springfirstmodulith.authorization.ScopeSet;
+import com.dossantosh.springfirstmodulith.core.invalidation.CacheInvalidation;
+import com.dossantosh.springfirstmodulith.core.invalidation.InvalidationBus;
+import com.dossantosh.springfirstmodulith.core.invalidation.InvalidationHandler;
+import com.dossantosh.springfirstmodulith.security.login.CustomUserDetails;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Issues and verifies the HMAC-SHA256 signed tokens of the stateless mode
+ * ({@code app.security.token.enabled}). A token is
+ * {@code base64url(payload) "." base64url(mac)}, where the payload is a small
+ * binary record of the user id, name, roles, scope bitset and data view, so
+ * requests are authenticated without touching the session store.
+ * <p>
+ * Tokens are short-lived; role and scope changes apply on the next refresh.
+ * Revoked tokens (logged out or refreshed) are kept on a deny-list until
+ * their refresh window ends, and revocations are sent to the other nodes
+ * through the {@link InvalidationBus}. NOTIFY is not durable: a node that
+ * misses one keeps accepting the token until it expires, and keeps refreshing
+ * it until the refresh window ends, i.e. for up to {@code ttl + refresh-window}
+ * (35 minutes by default).
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.token.enabled", havingValue = "true")
+public class SignedTokenService implements InvalidationHandler {
+
+	public static final String REVOKED_TOKENS_REGION = "revoked-tokens";
+
+	private static final String ALGORITHM = "HmacSHA256";
+	private static final byte VERSION = 1;
+	private static final int MIN_SECRET_BYTES = 32;
+
+	private final Mac prototype;
+	private final Duration ttl;
+	private final Duration refreshWindow;
+	private final Clock clock;
+	private final SecureRandom random = new SecureRandom();
+	private final ConcurrentHashMap<Long, Instant> denied = new ConcurrentHashMap<>();
+	private final Consumer<CacheInvalidation> publisher;
+
+	@Autowired
+	public SignedTokenService(@Value("${app.security.token.secret}") String secret,
+			@Value("${app.security.token.ttl:5m}") Duration ttl,
+			@Value("${app.security.token.refresh-window:30m}") Duration refreshWindow,
+			ObjectProvider<InvalidationBus> bus) {
+		this(Base64.getDecoder().decode(secret), ttl, refreshWindow, Clock.systemUTC(),
+				invalidation -> bus.ifAvailable(available -> available.publish(invalidation)));
+	}
+
+	SignedTokenService(byte[] secret, Duration ttl, Duration refreshWindow, Clock clock) {
+		this(secret, ttl, refreshWindow, clock, invalidation -> {
+		});
+	}
+
+	SignedTokenService(byte[] secret, Duration ttl, Duration refreshWindow, Clock clock,
+			Consumer<CacheInvalidation> publisher) {
+		if (secret.length < MIN_SECRET_BYTES) {
+			throw new IllegalArgumentException("app.security.token.secret must be at least " + MIN_SECRET_BYTES
+					+ " bytes (base64)");
+		}
+		try {
+			this.prototype = Mac.getInstance(ALGORITHM);
+			this.prototype.init(new SecretKeySpec(secret, ALGORITHM));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Cannot initialise token signing", e);
+		}
+		this.ttl = ttl;
+		this.refreshWindow = refreshWindow;
+		this.clock = clock;
+		this.publisher = publisher;
+	}
+
+	public IssuedToken issue(CustomUserDetails user, String dataView) {
+		Instant now = clock.instant();
+		Instant expiresAt = now.plus(ttl);
+		byte[] payload = encode(new TokenClaims(random.nextLong(), user.getId(), user.getUsername(),
+				Boolean.TRUE.equals(user.getIsAdmin()), user.getRoles(), user.getScopeSet(), dataView, now, expiresAt));
+		Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+		return new IssuedToken(base64.encodeToString(payload) + "." + base64.encodeToString(sign(payload)), expiresAt);
+	}
+
+	/**
+	 * Returns the claims of a well-signed, unexpired and not revoked token.
+	 */
+	public Optional<TokenClaims> verify(String token) {
+		return decode(token).filter(claims -> clock.instant().isBefore(claims.expiresAt()))
+				.filter(claims -> !isRevoked(claims));
+	}
+
+	/**
+	 * Like {@link #verify} but also accepts tokens that expired less than the
+	 * refresh window ago.
+	 */
+	public Optional<TokenClaims> verifyForRefresh(String token) {
+		return decode(token).filter(claims -> clock.instant().isBefore(claims.expiresAt().plus(refreshWindow)))
+				.filter(claims -> !isRevoked(claims));
+	}
+
+	/**
+	 * Puts the token on the deny-list and tells the other nodes. Returns
+	 * {@code false} if it was already revoked or is past its refresh window,
+	 * so of two concurrent refreshes of one token only one goes ahead.
+	 */
+	public boolean revoke(TokenClaims claims) {
+		Instant keepUntil = claims.expiresAt().plus(refreshWindow);
+		boolean revoked = deny(claims.tokenId(), keepUntil);
+		if (revoked) {
+			publisher.accept(CacheInvalidation.of(REVOKED_TOKENS_REGION,
+					claims.tokenId() + ":" + keepUntil.getEpochSecond()));
+		}
+		return revoked;
+	}
+
+	@Override
+	public void invalidate(CacheInvalidation invalidation) {
+		if (!REVOKED_TOKENS_REGION.equals(invalidation.region()) || invalidation.isRegionWide()) {
+			return;
+		}
+		String key = invalidation.key();
+		int colon = key.indexOf(':');
+		deny(Long.parseLong(key.substring(0, colon)), Instant.ofEpochSecond(Long.parseLong(key.substring(colon + 1))));
+	}
+
+	// Missed revocations cannot be recovered; the deny-list itself stays valid.
+	@Override
+	public void invalidateAll() {
+	}
+
+	public CustomUserDetails principal(TokenClaims claims) {
+		return CustomUserDetails.fromToken(claims.userId(), claims.username(), claims.isAdmin(), claims.roles(),
+				claims.scopes());
+	}
+
+	private boolean deny(long tokenId, Instant keepUntil) {
+		Instant now = clock.instant();
+		denied.values().removeIf(until -> !now.isBefore(until));
+		return now.isBefore(keepUntil) && denied.putIfAbsent(tokenId, keepUntil) == null;
+	}
+
+	private boolean isRevoked(TokenClaims claims) {
+		return denied.containsKey(claims.tokenId());
+	}
+
+	private Optional<TokenClaims> decode(String token) {
+		if (token == null) {
+			return Optional.empty();
+		}
+		int dot = token.indexOf('.');
+		if (dot <= 0 || dot != token.lastIndexOf('.')) {
+			return Optional.empty();
+		}
+		try {
+			Base64.Decoder base64 = Base64.getUrlDecoder();
+			byte[] payload = base64.decode(token.substring(0, dot));
+			byte[] signature = base64.decode(token.substring(dot + 1));
+			if (!MessageDigest.isEqual(sign(payload), signature)) {
+				return Optional.empty();
+			}
+			return Optional.of(read(payload));
+		} catch (IllegalArgumentException | IOException e) {
+			return Optional.empty();
+		}
+	}
+
+	private byte[] sign(byte[] payload) {
+		try {
+			return ((Mac) prototype.clone()).doFinal(payload);
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException("HMAC provider cannot be cloned", e);
+		}
+	}
+
+	private static byte[] encode(TokenClaims claims) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(VERSION);
+			out.writeLong(claims.tokenId());
+			out.writeLong(claims.userId());
+			out.writeLong(claims.issuedAt().getEpochSecond());
+			out.writeLong(claims.expiresAt().getEpochSecond());
+			out.writeBoolean(claims.isAdmin());
+			out.writeUTF(claims.username());
+			out.writeUTF(claims.dataView());
+			writeStrings(out, claims.roles());
+			out.writeLong(claims.scopes().declaredBits());
+			writeStrings(out, claims.scopes().undeclaredNames());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static TokenClaims read(byte[] payload) throws IOException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+			if (in.readByte() != VERSION) {
+				throw new IOException("Unsupported token version");
+			}
+			long tokenId = in.readLong();
+			long userId = in.readLong();
+			Instant issuedAt = Instant.ofEpochSecond(in.readLong());
+			Instant expiresAt = Instant.ofEpochSecond(in.readLong());
+			boolean isAdmin = in.readBoolean();
+			String username = in.readUTF();
+			String dataView = in.readUTF();
+			List<String> roles = readStrings(in);
+			ScopeSet scopes = ScopeSet.of(in.readLong(), readStrings(in));
+			return new TokenClaims(tokenId, userId, username, isAdmin, roles, scopes, dataView, issuedAt, expiresAt);
+		}
+	}
+
+	private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+		out.writeShort(values.size());
+		for (String value : values) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static List<String> readStrings(DataInputStream in) throws IOException {
+		int size = in.readUnsignedShort();
+		List<String> values = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			values.add(in.readUTF());
+		}
+		return values;
+	}
+
+	public record IssuedToken(String value, Instant expiresAt) {
+	}
+}
@@ -0,0 +1,10 @@
+package com.dossantosh.springfirstmodulith.security.token;
+
+import com.dossantosh.springfirstmodulith.authorization.ScopeSet;
+
+import java.time.Instant;
+import java.util.List;
+
+public record TokenClaims(long tokenId, long userId, String username, boolean isAdmin, List<String> roles,
+		ScopeSet scopes, String dataView, Instant issuedAt, Instant expiresAt) {
+}
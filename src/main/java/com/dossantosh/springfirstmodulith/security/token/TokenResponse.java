@@ -0,0 +1,11 @@
+package com.dossantosh.springfirstmodulith.security.token;
+
+/**
+ * @param expiresAt expiry in epoch seconds
+ */
+public record TokenResponse(String username, String token, long expiresAt) {
+
+	public static TokenResponse of(String username, SignedTokenService.IssuedToken token) {
+		return new TokenResponse(username, token.value(), token.expiresAt().getEpochSecond());
+	}
+}
@@ -1,6 +1,7 @@
 package com.dossantosh.springfirstmodulith.users.api.controllers;
 
 import com.dossantosh.springfirstmodulith.authorization.AuthorizationScopes;
+import com.dossantosh.springfirstmodulith.authorization.RequireScope;
 import com.dossantosh.springfirstmodulith.core.page.Direction;
 import com.dossantosh.springfirstmodulith.core.page.KeysetPage;
 import com.dossantosh.springfirstmodulith.users.api.requests.CreateUserRequest;
@@ -8,67 +9,137 @@ import com.dossantosh.springfirstmodulith.users.api.requests.UpdateUserRequest;
 import com.dossantosh.springfirstmodulith.users.api.requests.UserAccessRequest;
 import com.dossantosh.springfirstmodulith.users.application.services.UserAccessResolverService;
 import com.dossantosh.springfirstmodulith.users.application.services.UserCommandService;
+import com.dossantosh.springfirstmodulith.users.application.services.UserCountService;
+import com.dossantosh.springfirstmodulith.users.application.services.UserPagePrefetchService;
 import com.dossantosh.springfirstmodulith.users.application.services.UserQueryService;
+import com.dossantosh.springfirstmodulith.users.application.services.UserSearchMode;
+import com.dossantosh.springfirstmodulith.users.application.services.UserSort;
 import com.dossantosh.springfirstmodulith.users.application.views.UserDetailsView;
 import com.dossantosh.springfirstmodulith.users.application.views.UserSummaryView;
 import com.dossantosh.springfirstmodulith.users.domain.User;
 import com.dossantosh.springfirstmodulith.users.domain.UserAccess;
 import com.dossantosh.springfirstmodulith.users.domain.UserChanges;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
+	// Shorter terms produce no full trigram, so the GIN index cannot narrow them.
+	private static final int MIN_SEARCH_TERM_LENGTH = 3;
+
 	private final UserCommandService userCommandService;
 	private final UserAccessResolverService userAccessResolverService;
 	private final UserQueryService userQueryService;
+	private final UserCountService userCountService;
+	private final UserPagePrefetchService userPagePrefetchService;
 
 	public UserController(UserCommandService userCommandService, UserAccessResolverService userAccessResolverService,
-			UserQueryService userQueryService) {
+			UserQueryService userQueryService, UserCountService userCountService,
+			UserPagePrefetchService userPagePrefetchService) {
 		this.userCommandService = userCommandService;
 		this.userAccessResolverService = userAccessResolverService;
 		this.userQueryService = userQueryService;
+		this.userCountService = userCountService;
+		this.userPagePrefetchService = userPagePrefetchService;
 	}
 
-	@PreAuthorize("@permissions.hasScope(authentication, '" + AuthorizationScopes.SYSTEMS_READ + "')")
+	@RequireScope(AuthorizationScopes.SYSTEMS_READ)
 	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
 	public ResponseEntity<KeysetPage<UserSummaryView>> getUsers(@RequestParam(required = false) Long id,
 			@RequestParam(required = false) String username, @RequestParam(required = false) String email,
 			@RequestParam(required = false) Long lastId, @RequestParam(defaultValue = "25") int limit,
-			@RequestParam(defaultValue = "NEXT") String direction) {
+			@RequestParam(defaultValue = "NEXT") String direction, @RequestParam(required = false) String sort,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) String total,
+			HttpServletRequest request) {
 
 		Direction dir;
+		UserSort userSort;
 		try {
 			dir = Direction.valueOf(direction.toUpperCase());
+			userSort = sort != null ? UserSort.valueOf(sort.toUpperCase()) : UserSort.ID;
 		} catch (IllegalArgumentException e) {
 			return ResponseEntity.badRequest().build();
 		}
+		// lastId only positions id-ordered pages; other orders page with the cursor.
+		boolean byLastId = cursor == null && userSort == UserSort.ID && (sort == null || lastId != null);
+		if (lastId != null && !byLastId) {
+			return ResponseEntity.badRequest().build();
+		}
+		boolean exactTotal = "exact".equalsIgnoreCase(total);
+		if (total != null && !exactTotal && !"estimate".equalsIgnoreCase(total)) {
+			return ResponseEntity.badRequest().build();
+		}
 
-		KeysetPage<UserSummaryView> users = userQueryService.findUsersKeyset(id,
-				username != null ? username.toLowerCase() : null, email != null ? email.toLowerCase() : null, lastId,
-				limit, dir);
+		String usernamePrefix = username != null ? username.toLowerCase() : null;
+		String emailPrefix = email != null ? email.toLowerCase() : null;
+		KeysetPage<UserSummaryView> users;
+		if (byLastId) {
+			String sessionId = prefetchSessionId(request);
+			users = userPagePrefetchService.prefetched(sessionId, id, usernamePrefix, emailPrefix, lastId, limit, dir);
+			if (users == null) {
+				users = userQueryService.findUsersKeyset(id, usernamePrefix, emailPrefix, lastId, limit, dir);
+			}
+			userPagePrefetchService.prefetchNext(sessionId, id, usernamePrefix, emailPrefix, limit, users);
+		} else {
+			users = userQueryService.findUsersSorted(id, usernamePrefix, emailPrefix, userSort, cursor, limit, dir);
+		}
 
 		if (users == null) {
 			return ResponseEntity.status(500).body(null);
 		}
+		if (total != null) {
+			users = userCountService.withTotal(users, id, usernamePrefix, emailPrefix, exactTotal);
+		}
 
 		return ResponseEntity.ok(users);
 	}
 
-	@PreAuthorize("@permissions.hasScope(authentication, '" + AuthorizationScopes.SYSTEMS_READ + "')")
+	@RequireScope(AuthorizationScopes.SYSTEMS_READ)
+	@GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<KeysetPage<UserSummaryView>> searchUsers(@RequestParam String q,
+			@RequestParam(defaultValue = "CONTAINS") String mode, @RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "25") int limit, @RequestParam(defaultValue = "NEXT") String direction) {
+
+		if (q.isBlank() || q.trim().length() < MIN_SEARCH_TERM_LENGTH) {
+			return ResponseEntity.badRequest().build();
+		}
+
+		UserSearchMode searchMode;
+		Direction dir;
+		try {
+			searchMode = UserSearchMode.valueOf(mode.toUpperCase());
+			dir = Direction.valueOf(direction.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().build();
+		}
+
+		return ResponseEntity.ok(userQueryService.findUsersByTerm(q, searchMode, cursor, limit, dir));
+	}
+
+	@RequireScope(AuthorizationScopes.SYSTEMS_READ)
+	@GetMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<Map<Long, UserDetailsView>> getUsersByIds(@RequestParam List<Long> ids) {
+
+		return ResponseEntity.ok(userQueryService.getUserDetailsByIds(ids));
+	}
+
+	@RequireScope(AuthorizationScopes.SYSTEMS_READ)
 	@GetMapping("/{id}")
 	public ResponseEntity<UserDetailsView> getUserDetails(@PathVariable Long id) {
 
 		return ResponseEntity.ok(userQueryService.getUserDetails(id));
 	}
 
-	@PreAuthorize("@permissions.hasScope(authentication, '" + AuthorizationScopes.SYSTEMS_WRITE
-			+ "') && @permissions.canApplyUserAccessChange(authentication, #request.access())")
+	@RequireScope(AuthorizationScopes.SYSTEMS_WRITE)
 	@PostMapping
 	public ResponseEntity<UserDetailsView> createUser(@Valid @RequestBody CreateUserRequest request) {
 		User user = new User(request.username(), request.email(), request.password(), request.isAdmin());
@@ -81,8 +152,7 @@ public class UserController {
 		return ResponseEntity.status(201).body(userQueryService.getUserDetails(created.id()));
 	}
 
-	@PreAuthorize("@permissions.hasScope(authentication, '" + AuthorizationScopes.SYSTEMS_WRITE
-			+ "') && @permissions.canApplyUserAccessChange(authentication, #request.access())")
+	@RequireScope(AuthorizationScopes.SYSTEMS_WRITE)
 	@PutMapping("/{id}")
 	public ResponseEntity<UserDetailsView> updateUser(@PathVariable Long id,
 			@Valid @RequestBody UpdateUserRequest request) {
@@ -94,13 +164,22 @@ public class UserController {
 		return ResponseEntity.ok(userQueryService.getUserDetails(updated.id()));
 	}
 
-	@PreAuthorize("@permissions.hasScope(authentication, '" + AuthorizationScopes.SYSTEMS_WRITE + "')")
+	@RequireScope(AuthorizationScopes.SYSTEMS_WRITE)
 	@DeleteMapping("/{id}")
 	public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
 		userCommandService.deleteById(id);
 		return ResponseEntity.noContent().build();
 	}
 
+	// Prefetched pages belong to an existing session; none is created for them.
+	private String prefetchSessionId(HttpServletRequest request) {
+		if (!userPagePrefetchService.isEnabled() || request == null) {
+			return null;
+		}
+		HttpSession session = request.getSession(false);
+		return session != null ? session.getId() : null;
+	}
+
 	private UserAccess toUserAccessOrNull(UserAccessRequest request) {
 		if (request == null) {
 			return null;
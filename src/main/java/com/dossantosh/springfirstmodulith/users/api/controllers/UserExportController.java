@@ -0,0 +1,134 @@
+package com.dossantosh.springfirstmodulith.users.api.controllers;
+
+import com.dossantosh.springfirstmodulith.authorization.AuthorizationScopes;
+import com.dossantosh.springfirstmodulith.authorization.RequireScope;
+import com.dossantosh.springfirstmodulith.core.datasource.runtime.DataViewContext;
+import com.dossantosh.springfirstmodulith.users.application.services.UserExportService;
+import com.dossantosh.springfirstmodulith.users.application.views.UserSummaryView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/users/export")
+public class UserExportController {
+
+	private static final int GZIP_BUFFER_SIZE = 8192;
+	private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+	private final UserExportService userExportService;
+	private final ObjectWriter rowWriter;
+
+	public UserExportController(UserExportService userExportService, ObjectMapper objectMapper) {
+		this.userExportService = userExportService;
+		this.rowWriter = objectMapper.writerFor(UserSummaryView.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	@RequireScope(AuthorizationScopes.SYSTEMS_READ)
+	@GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+	public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(required = false) Long id,
+			@RequestParam(required = false) String username, @RequestParam(required = false) String email,
+			@RequestParam(defaultValue = "ndjson") String format,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+		boolean csv = "csv".equalsIgnoreCase(format);
+		if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+			return ResponseEntity.badRequest().build();
+		}
+
+		String usernamePrefix = username != null ? username.toLowerCase() : null;
+		String emailPrefix = email != null ? email.toLowerCase() : null;
+		boolean gzip = acceptsGzip(acceptEncoding);
+		// The body is written on an async thread: carry the data view resolved for this request.
+		String view = DataViewContext.get();
+
+		StreamingResponseBody body = out -> {
+			DataViewContext.set(view);
+			try (OutputStream target = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : out) {
+				if (csv) {
+					// Bytes come straight from COPY ... TO STDOUT: no per-row objects.
+					userExportService.exportUsersCsv(id, usernamePrefix, emailPrefix, target);
+				} else {
+					writeNdjson(target, id, usernamePrefix, emailPrefix);
+				}
+			} finally {
+				DataViewContext.clear();
+			}
+		};
+
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+						.filename(csv ? "users.csv" : "users.ndjson").build().toString())
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (gzip) {
+			response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		return response.body(body);
+	}
+
+	private void writeNdjson(OutputStream out, Long id, String username, String email) throws IOException {
+		try (JsonGenerator generator = rowWriter.createGenerator(out)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			// One object per line: drop Jackson's default space between root values.
+			generator.setRootValueSeparator(null);
+			userExportService.exportUsers(id, username, email, view -> {
+				try {
+					rowWriter.writeValue(generator, view);
+					generator.writeRaw('\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			// Usually the client went away; surface the original I/O failure.
+			throw e.getCause();
+		}
+	}
+
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.trim().split(";");
+			if (parts[0].trim().equalsIgnoreCase("gzip")) {
+				return qValue(parts) > 0;
+			}
+		}
+		return false;
+	}
+
+	// A malformed weight counts as a refusal: the plain body is always acceptable.
+	private static double qValue(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			String[] param = parts[i].split("=", 2);
+			if (param.length == 2 && param[0].trim().equalsIgnoreCase("q")) {
+				try {
+					return Double.parseDouble(param[1].trim());
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+}
@@ -0,0 +1,57 @@
+package com.dossantosh.springfirstmodulith.users.api.controllers;
+
+import com.dossantosh.springfirstmodulith.authorization.AuthorizationScopes;
+import com.dossantosh.springfirstmodulith.authorization.RequireScope;
+import com.dossantosh.springfirstmodulith.users.application.services.UserImportFormat;
+import com.dossantosh.springfirstmodulith.users.application.services.UserImportService;
+import com.dossantosh.springfirstmodulith.users.application.views.UserImportStatus;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/users/import")
+public class UserImportController {
+
+	private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+	private final UserImportService userImportService;
+
+	public UserImportController(UserImportService userImportService) {
+		this.userImportService = userImportService;
+	}
+
+	@RequireScope(AuthorizationScopes.SYSTEMS_WRITE)
+	@PostMapping(consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE}, produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<UserImportStatus> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+			InputStream body) throws IOException {
+
+		UserImportFormat format = TEXT_CSV.isCompatibleWith(MediaType.parseMediaType(contentType))
+				? UserImportFormat.CSV
+				: UserImportFormat.NDJSON;
+
+		UserImportStatus status = userImportService.startImport(body, format);
+		URI location = ServletUriComponentsBuilder.fromCurrentRequestUri().path("/{id}").buildAndExpand(status.id())
+				.toUri();
+		return ResponseEntity.accepted().location(location).body(status);
+	}
+
+	@RequireScope(AuthorizationScopes.SYSTEMS_WRITE)
+	@GetMapping(path = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<UserImportStatus> importStatus(@PathVariable UUID id) {
+
+		return ResponseEntity.ok(userImportService.status(id));
+	}
+}
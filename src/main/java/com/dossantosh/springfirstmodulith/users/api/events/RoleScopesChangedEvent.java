@@ -0,0 +1,8 @@
+package com.dossantosh.springfirstmodulith.users.api.events;
+
+/**
+ * Published when the scopes granted to a role change, which affects every
+ * user holding that role.
+ */
+public record RoleScopesChangedEvent(Long roleId) {
+}
@@ -0,0 +1,17 @@
+package com.dossantosh.springfirstmodulith.users.api.events;
+
+/**
+ * Cache regions announced to other nodes when users module data changes.
+ * {@link #USERS} entries are keyed by user id; the other regions are always
+ * invalidated whole.
+ */
+public final class UserCacheRegions {
+
+	public static final String USERS = "users";
+	public static final String ROLE_SCOPES = "role-scopes";
+	// Also sent by the catalog triggers in V10__navigation_catalog_notify.sql.
+	public static final String NAVIGATION = "navigation";
+
+	private UserCacheRegions() {
+	}
+}
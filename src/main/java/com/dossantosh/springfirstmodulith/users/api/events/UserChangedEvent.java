@@ -0,0 +1,7 @@
+package com.dossantosh.springfirstmodulith.users.api.events;
+
+/**
+ * Published when a user's account data, credentials or roles were modified.
+ */
+public record UserChangedEvent(Long userId) {
+}
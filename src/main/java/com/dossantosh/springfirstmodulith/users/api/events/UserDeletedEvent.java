@@ -0,0 +1,4 @@
+package com.dossantosh.springfirstmodulith.users.api.events;
+
+public record UserDeletedEvent(Long userId) {
+}
@@ -0,0 +1,5 @@
+@NamedInterface("apiEvents")
+
+package com.dossantosh.springfirstmodulith.users.api.events;
+
+import org.springframework.modulith.NamedInterface;
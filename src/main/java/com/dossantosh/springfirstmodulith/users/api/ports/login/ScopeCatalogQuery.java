@@ -0,0 +1,11 @@
+package com.dossantosh.springfirstmodulith.users.api.ports.login;
+
+import java.util.List;
+
+public interface ScopeCatalogQuery {
+
+	/**
+	 * All scope names, oldest first.
+	 */
+	List<String> findAllScopeNames();
+}
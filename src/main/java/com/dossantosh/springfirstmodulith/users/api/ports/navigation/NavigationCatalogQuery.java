@@ -6,4 +6,13 @@ import java.util.List;
 public interface NavigationCatalogQuery {
 
 	List<NavigationModuleView> findVisibleNavigation(Collection<String> scopes);
+
+	/**
+	 * Changes whenever the catalog behind {@link #findVisibleNavigation} does,
+	 * so callers can cache what they derive from it. Catalogs that never change
+	 * may keep the default.
+	 */
+	default long catalogVersion() {
+		return 0;
+	}
 }
@@ -0,0 +1,23 @@
+package com.dossantosh.springfirstmodulith.users.application.ports.out;
+
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserQueryPort.UserSummaryRow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+public interface UserExportPort {
+
+	/**
+	 * Pushes every user matching the listing filters to {@code sink} in id order
+	 * without materializing the result. Must run inside a transaction so the
+	 * driver can page through a server-side cursor.
+	 */
+	void streamUsers(Long id, String username, String email, Consumer<UserSummaryRow> sink);
+
+	/**
+	 * Writes users and their role memberships (one line per membership) as CSV
+	 * produced by the database itself, without mapping rows to objects.
+	 */
+	void copyUsersCsv(Long id, String username, String email, OutputStream out) throws IOException;
+}
@@ -0,0 +1,34 @@
+package com.dossantosh.springfirstmodulith.users.application.ports.out;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based bulk load of users whose passwords are already hashed.
+ */
+public interface UserImportPort {
+
+	/**
+	 * In one short transaction: copies {@code users} into a staging table,
+	 * drops every row whose username or email already exists or appears on an
+	 * earlier line, and inserts the rest with {@code roleIds}.
+	 */
+	LoadResult load(List<StagedUser> users, Collection<Long> roleIds);
+
+	record StagedUser(long line, String username, String email, String passwordHash) {
+	}
+
+	/**
+	 * One entry per dropped line; a line with several conflicts lists them all
+	 * in {@code reason}.
+	 */
+	record RejectedRow(long line, String reason) {
+	}
+
+	record LoadResult(int imported, List<RejectedRow> rejected) {
+
+		public LoadResult {
+			rejected = rejected == null ? List.of() : List.copyOf(rejected);
+		}
+	}
+}
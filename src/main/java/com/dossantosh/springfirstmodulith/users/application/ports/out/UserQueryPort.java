@@ -1,7 +1,9 @@
 package com.dossantosh.springfirstmodulith.users.application.ports.out;
 
+import com.dossantosh.springfirstmodulith.core.page.KeysetCursor;
 import com.dossantosh.springfirstmodulith.users.domain.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,8 +12,30 @@ public interface UserQueryPort {
 	List<UserSummaryRow> findUsersKeyset(Long id, String username, String email, Long lastId, int limit,
 			String direction);
 
+	List<UserSummaryRow> findUsersSorted(Long id, String username, String email, String sort, KeysetCursor cursor,
+			int limit, String direction);
+
+	long estimateUsers(Long id, String username, String email);
+
+	long countUsers(Long id, String username, String email);
+
+	List<UserSearchRow> findUsersByTerm(String term, String mode, KeysetCursor cursor, int limit,
+			String direction);
+
 	Optional<User> findFullUserById(Long id);
 
+	List<UserDetailsRow> findUserDetailsByIds(Collection<Long> ids);
+
 	record UserSummaryRow(Long id, String username, String email, Boolean enabled, Boolean isAdmin) {
 	}
+
+	record UserSearchRow(UserSummaryRow user, float score) {
+	}
+
+	/**
+	 * Role ids and names are parallel lists ordered by role id.
+	 */
+	record UserDetailsRow(Long id, String username, String email, Boolean enabled, Boolean isAdmin,
+			List<Long> roleIds, List<String> roleNames) {
+	}
 }
@@ -1,10 +1,13 @@
 package com.dossantosh.springfirstmodulith.users.application.services;
 
+import com.dossantosh.springfirstmodulith.users.api.events.UserChangedEvent;
+import com.dossantosh.springfirstmodulith.users.api.events.UserDeletedEvent;
 import com.dossantosh.springfirstmodulith.users.application.ports.out.UserCommandPort;
 import com.dossantosh.springfirstmodulith.users.domain.User;
 import com.dossantosh.springfirstmodulith.users.domain.UserChanges;
 import com.dossantosh.springfirstmodulith.users.domain.ports.UserUniquenessPolicy;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,14 +19,16 @@ public class UserCommandService {
 	private final DefaultUserAccessPolicyService defaultUserAccessPolicyService;
 	private final UserUniquenessPolicy userUniquenessPolicy;
 	private final PasswordEncoder passwordEncoder;
+	private final ApplicationEventPublisher events;
 
 	public UserCommandService(UserCommandPort userCommandPort,
 			DefaultUserAccessPolicyService defaultUserAccessPolicyService, UserUniquenessPolicy userUniquenessPolicy,
-			PasswordEncoder passwordEncoder) {
+			PasswordEncoder passwordEncoder, ApplicationEventPublisher events) {
 		this.userCommandPort = userCommandPort;
 		this.defaultUserAccessPolicyService = defaultUserAccessPolicyService;
 		this.userUniquenessPolicy = userUniquenessPolicy;
 		this.passwordEncoder = passwordEncoder;
+		this.events = events;
 	}
 
 	@Transactional
@@ -32,6 +37,7 @@ public class UserCommandService {
 			throw new EntityNotFoundException("User with ID " + id + " not found");
 		}
 		userCommandPort.deleteById(id);
+		events.publishEvent(new UserDeletedEvent(id));
 	}
 
 	@Transactional
@@ -46,7 +52,9 @@ public class UserCommandService {
 		}
 
 		existingUser.applyChangesFrom(normalizedChanges, userUniquenessPolicy);
-		return save(existingUser);
+		User saved = save(existingUser);
+		events.publishEvent(new UserChangedEvent(userId));
+		return saved;
 	}
 
 	@Transactional
@@ -0,0 +1,109 @@
+package com.dossantosh.springfirstmodulith.users.application.services;
+
+import com.dossantosh.springfirstmodulith.core.cache.ExpiringCache;
+import com.dossantosh.springfirstmodulith.core.datasource.runtime.DataViewContext;
+import com.dossantosh.springfirstmodulith.core.page.KeysetPage;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserQueryPort;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Attaches totals to user listings. Estimates come from the planner and cost a
+ * catalog read or an {@code EXPLAIN}; exact counts are only computed when asked
+ * for, off the request thread, and served from cache once available.
+ */
+@Service
+public class UserCountService {
+
+	private static final int MAX_CACHED_COUNTS = 256;
+	private static final Duration EXACT_COUNT_TTL = Duration.ofMinutes(1);
+	private static final int MAX_COUNTS_IN_FLIGHT = 8;
+
+	private final UserQueryPort userQueryPort;
+	private final ExpiringCache<CountKey, Long> exactCounts = new ExpiringCache<>(MAX_CACHED_COUNTS, EXACT_COUNT_TTL);
+	private final Map<CountKey, CompletableFuture<Long>> inFlight = new ConcurrentHashMap<>();
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	public UserCountService(UserQueryPort userQueryPort) {
+		this.userQueryPort = userQueryPort;
+	}
+
+	/**
+	 * Returns {@code page} with its total set. When {@code exact} is requested
+	 * and the count is not cached yet, the count is started in the background
+	 * and this response falls back to the estimate.
+	 */
+	public <T extends Serializable> KeysetPage<T> withTotal(KeysetPage<T> page, Long id, String username,
+			String email, boolean exact) {
+		if (exact) {
+			CompletableFuture<Long> count = exactCount(id, username, email);
+			if (count.isDone() && !count.isCompletedExceptionally() && count.join() != null) {
+				return page.withTotal(count.join(), true);
+			}
+		}
+
+		return page.withTotal(userQueryPort.estimateUsers(id, username, email), false);
+	}
+
+	CompletableFuture<Long> exactCount(Long id, String username, String email) {
+		String view = DataViewContext.get();
+		CountKey key = new CountKey(view, id, username, email);
+
+		Long cached = exactCounts.get(key);
+		if (cached != null) {
+			return CompletableFuture.completedFuture(cached);
+		}
+
+		CompletableFuture<Long> pending = inFlight.get(key);
+		if (pending != null) {
+			return pending;
+		}
+		if (inFlight.size() >= MAX_COUNTS_IN_FLIGHT) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		CompletableFuture<Long> created = new CompletableFuture<>();
+		pending = inFlight.putIfAbsent(key, created);
+		if (pending != null) {
+			return pending;
+		}
+
+		try {
+			executor.execute(() -> {
+				DataViewContext.set(view);
+				try {
+					long count = userQueryPort.countUsers(id, username, email);
+					exactCounts.put(key, count);
+					created.complete(count);
+				} catch (RuntimeException e) {
+					created.completeExceptionally(e);
+				} finally {
+					inFlight.remove(key, created);
+					DataViewContext.clear();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			inFlight.remove(key, created);
+			created.completeExceptionally(e);
+		}
+		return created;
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	// Keyed by data view too: prod and historic hold different users.
+	private record CountKey(String view, Long id, String username, String email) {
+	}
+}
@@ -0,0 +1,31 @@
+package com.dossantosh.springfirstmodulith.users.application.services;
+
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserExportPort;
+import com.dossantosh.springfirstmodulith.users.application.views.UserSummaryView;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+@Service
+public class UserExportService {
+
+	private final UserExportPort userExportPort;
+
+	public UserExportService(UserExportPort userExportPort) {
+		this.userExportPort = userExportPort;
+	}
+
+	@Transactional(readOnly = true)
+	public void exportUsers(Long id, String username, String email, Consumer<UserSummaryView> sink) {
+		userExportPort.streamUsers(id, username, email, row -> sink.accept(new UserSummaryView(row.id(),
+				row.username(), row.email(), row.enabled(), row.isAdmin())));
+	}
+
+	@Transactional(readOnly = true)
+	public void exportUsersCsv(Long id, String username, String email, OutputStream out) throws IOException {
+		userExportPort.copyUsersCsv(id, username, email, out);
+	}
+}
@@ -0,0 +1,165 @@
+package com.dossantosh.springfirstmodulith.users.application.services;
+
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.BusinessException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads import rows one at a time so the input is never held in memory.
+ * Malformed rows are returned with an {@code error} instead of failing the
+ * whole import; only an unusable CSV header is fatal.
+ */
+final class UserImportRowReader implements Closeable {
+
+	record ImportRow(long line, String username, String email, String password, String error) {
+
+		static ImportRow invalid(long line, String error) {
+			return new ImportRow(line, null, null, null, error);
+		}
+	}
+
+	private final BufferedReader reader;
+	private final UserImportFormat format;
+	private final ObjectMapper objectMapper;
+	private long lineNumber;
+	private int usernameColumn = -1;
+	private int emailColumn = -1;
+	private int passwordColumn = -1;
+
+	UserImportRowReader(InputStream in, UserImportFormat format, ObjectMapper objectMapper) throws IOException {
+		this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		this.format = format;
+		this.objectMapper = objectMapper;
+		if (format == UserImportFormat.CSV) {
+			readCsvHeader();
+		}
+	}
+
+	/**
+	 * @return the next row, or {@code null} at the end of the input
+	 */
+	ImportRow next() throws IOException {
+		String line;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			if (!line.isBlank()) {
+				return format == UserImportFormat.CSV ? csvRow(line) : ndjsonRow(line);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	private void readCsvHeader() throws IOException {
+		String header = reader.readLine();
+		lineNumber++;
+		if (header == null) {
+			throw new BusinessException("CSV import is empty");
+		}
+
+		List<String> columns = splitCsv(header.replace("\uFEFF", ""));
+		for (int i = 0; columns != null && i < columns.size(); i++) {
+			switch (columns.get(i).trim().toLowerCase(Locale.ROOT)) {
+				case "username" -> usernameColumn = i;
+				case "email" -> emailColumn = i;
+				case "password" -> passwordColumn = i;
+				default -> {
+					// extra columns are ignored
+				}
+			}
+		}
+		if (usernameColumn < 0 || emailColumn < 0 || passwordColumn < 0) {
+			throw new BusinessException("CSV header must contain username, email and password columns");
+		}
+	}
+
+	private ImportRow csvRow(String firstLine) throws IOException {
+		long startLine = lineNumber;
+		StringBuilder record = new StringBuilder(firstLine);
+		List<String> fields;
+		// A quoted field may span several physical lines.
+		while ((fields = splitCsv(record.toString())) == null) {
+			String continuation = reader.readLine();
+			if (continuation == null) {
+				return ImportRow.invalid(startLine, "unterminated quoted field");
+			}
+			lineNumber++;
+			record.append('\n').append(continuation);
+		}
+
+		return new ImportRow(startLine, field(fields, usernameColumn), field(fields, emailColumn),
+				field(fields, passwordColumn), null);
+	}
+
+	private ImportRow ndjsonRow(String line) {
+		JsonNode node;
+		try {
+			node = objectMapper.readTree(line);
+		} catch (JsonProcessingException e) {
+			return ImportRow.invalid(lineNumber, "invalid JSON");
+		}
+		if (node == null || !node.isObject()) {
+			return ImportRow.invalid(lineNumber, "expected a JSON object");
+		}
+		return new ImportRow(lineNumber, text(node, "username"), text(node, "email"), text(node, "password"), null);
+	}
+
+	private static String text(JsonNode node, String field) {
+		JsonNode value = node.get(field);
+		return value == null || value.isNull() ? null : value.asText();
+	}
+
+	private static String field(List<String> fields, int index) {
+		return index < fields.size() ? fields.get(index) : null;
+	}
+
+	/**
+	 * RFC 4180 field splitting. Returns {@code null} while a quoted field is
+	 * still open so the caller can append the next physical line.
+	 */
+	private static List<String> splitCsv(String record) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < record.length(); i++) {
+			char c = record.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+					current.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					current.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(current.toString());
+				current.setLength(0);
+			} else {
+				current.append(c);
+			}
+		}
+		if (quoted) {
+			return null;
+		}
+		fields.add(current.toString());
+		return fields;
+	}
+}
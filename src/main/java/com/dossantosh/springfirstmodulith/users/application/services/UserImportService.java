@@ -0,0 +1,320 @@
+package com.dossantosh.springfirstmodulith.users.application.services;
+
+import com.dossantosh.springfirstmodulith.core.cache.ExpiringCache;
+import com.dossantosh.springfirstmodulith.core.datasource.runtime.DataViewContext;
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.BusinessException;
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.ServiceBusyException;
+import com.dossantosh.springfirstmodulith.core.hashing.PasswordHashingExecutor;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserImportPort;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserImportPort.LoadResult;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserImportPort.RejectedRow;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserImportPort.StagedUser;
+import com.dossantosh.springfirstmodulith.users.application.services.UserImportRowReader.ImportRow;
+import com.dossantosh.springfirstmodulith.users.application.views.UserImportReport;
+import com.dossantosh.springfirstmodulith.users.application.views.UserImportReport.RowError;
+import com.dossantosh.springfirstmodulith.users.application.views.UserImportStatus;
+import com.dossantosh.springfirstmodulith.users.application.views.UserImportStatus.State;
+import com.dossantosh.springfirstmodulith.users.domain.Roles;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk counterpart of {@link UserCommandService#createUser}: rows are read and
+ * validated as a stream within the request, then a background job hashes the
+ * passwords on the {@link PasswordHashingExecutor} shared with logins and
+ * checks uniqueness for the whole file at once against a staging table
+ * instead of two queries per user. Imported users get the default access for
+ * new users. Callers poll {@link #status} for the outcome.
+ * <p>
+ * The job never holds more than a quarter of the hashing threads, and waits
+ * instead of failing when logins have saturated the executor. Hashing happens
+ * before any connection is taken; only the set-based load runs in a
+ * transaction. One import runs at a time.
+ */
+@Service
+public class UserImportService {
+
+	static final int MAX_ROWS = 100_000;
+	static final int MAX_REPORTED_ERRORS = 1_000;
+	static final int HASHING_SHARE = 4;
+	static final Duration IMPORT_RUNNING_RETRY_AFTER = Duration.ofSeconds(30);
+	private static final int MAX_TRACKED_IMPORTS = 64;
+	private static final Duration IMPORT_RETENTION = Duration.ofHours(24);
+
+	private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+$");
+
+	private final UserImportPort userImportPort;
+	private final DefaultUserAccessPolicyService defaultUserAccessPolicyService;
+	private final PasswordEncoder passwordEncoder;
+	private final PasswordHashingExecutor hashingExecutor;
+	private final ObjectMapper objectMapper;
+	private final ExpiringCache<UUID, ImportJob> imports = new ExpiringCache<>(MAX_TRACKED_IMPORTS,
+			IMPORT_RETENTION);
+	private final AtomicBoolean importing = new AtomicBoolean();
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	public UserImportService(UserImportPort userImportPort,
+			DefaultUserAccessPolicyService defaultUserAccessPolicyService, PasswordEncoder passwordEncoder,
+			PasswordHashingExecutor hashingExecutor, ObjectMapper objectMapper) {
+		this.userImportPort = userImportPort;
+		this.defaultUserAccessPolicyService = defaultUserAccessPolicyService;
+		this.passwordEncoder = passwordEncoder;
+		this.hashingExecutor = hashingExecutor;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Reads and validates the upload, then hands hashing and loading to a
+	 * background job and returns its initial status.
+	 */
+	public UserImportStatus startImport(InputStream in, UserImportFormat format) throws IOException {
+		if (!importing.compareAndSet(false, true)) {
+			throw new ServiceBusyException("Another user import is still running", IMPORT_RUNNING_RETRY_AFTER);
+		}
+
+		ImportJob job;
+		try {
+			job = read(in, format);
+		} catch (IOException | RuntimeException e) {
+			importing.set(false);
+			throw e;
+		}
+
+		imports.put(job.id, job);
+		String view = DataViewContext.get();
+		try {
+			executor.execute(() -> {
+				DataViewContext.set(view);
+				try {
+					run(job);
+				} finally {
+					// Restarts the retention period from the end of the import.
+					imports.put(job.id, job);
+					importing.set(false);
+					DataViewContext.clear();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			imports.invalidate(job.id);
+			importing.set(false);
+			throw e;
+		}
+		return job.status();
+	}
+
+	public UserImportStatus status(UUID id) {
+		ImportJob job = imports.get(id);
+		if (job == null) {
+			throw new EntityNotFoundException("User import with ID " + id + " not found");
+		}
+		return job.status();
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private ImportJob read(InputStream in, UserImportFormat format) throws IOException {
+		List<Long> roleIds = defaultUserAccessPolicyService.defaultAccessForNewUser().roles().stream()
+				.map(Roles::id).toList();
+
+		Rejections rejections = new Rejections();
+		Deque<ImportRow> rows = new ArrayDeque<>();
+		long received = 0;
+		try (UserImportRowReader reader = new UserImportRowReader(in, format, objectMapper)) {
+			for (ImportRow row = reader.next(); row != null; row = reader.next()) {
+				if (++received > MAX_ROWS) {
+					throw new BusinessException("At most " + MAX_ROWS + " users can be imported at once");
+				}
+
+				ImportRow normalized = normalize(row);
+				if (normalized.error() != null) {
+					rejections.add(normalized.line(), normalized.error());
+				} else {
+					rows.addLast(normalized);
+				}
+			}
+		}
+		return new ImportJob(received, roleIds, rejections, rows);
+	}
+
+	private void run(ImportJob job) {
+		try {
+			List<StagedUser> staged = hash(job);
+			LoadResult result = userImportPort.load(staged, job.roleIds);
+			for (RejectedRow conflict : result.rejected()) {
+				job.rejections.add(conflict.line(), conflict.reason());
+			}
+			job.complete(job.rejections.report(job.received, result.imported()));
+		} catch (RuntimeException e) {
+			job.rows.clear();
+			job.fail(Objects.requireNonNullElse(e.getMessage(), e.getClass().getSimpleName()));
+		}
+	}
+
+	private List<StagedUser> hash(ImportJob job) {
+		// Keeping at most a quarter of the hashing threads busy leaves the
+		// rest of the pool, and the whole queue, to logins. Plaintext rows are
+		// dropped as they are hashed. The encoder runs inline there.
+		int window = Math.max(1, hashingExecutor.parallelism() / HASHING_SHARE);
+		Deque<PendingHash> pending = new ArrayDeque<>(window);
+		List<StagedUser> staged = new ArrayList<>(job.toHash);
+		for (ImportRow row = job.rows.pollFirst(); row != null; row = job.rows.pollFirst()) {
+			if (pending.size() == window) {
+				staged.add(pending.removeFirst().staged());
+				job.hashed = staged.size();
+			}
+			pending.addLast(new PendingHash(row, submit(row.password())));
+		}
+		while (!pending.isEmpty()) {
+			staged.add(pending.removeFirst().staged());
+			job.hashed = staged.size();
+		}
+		return staged;
+	}
+
+	// Logins come first: a saturated executor pauses the import, not fails it.
+	private Future<String> submit(String password) {
+		while (true) {
+			try {
+				return hashingExecutor.submit(() -> passwordEncoder.encode(password));
+			} catch (ServiceBusyException e) {
+				pause(e.retryAfter());
+			}
+		}
+	}
+
+	private static void pause(Duration duration) {
+		try {
+			Thread.sleep(duration.toMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+		}
+	}
+
+	/**
+	 * Applies the normalization of {@code User} and the limits of
+	 * {@code CreateUserRequest} to one row.
+	 */
+	private static ImportRow normalize(ImportRow row) {
+		if (row.error() != null) {
+			return row;
+		}
+
+		String username = trimToNull(row.username());
+		String email = trimToNull(row.email());
+		String password = trimToNull(row.password());
+		String error = null;
+		if (username == null) {
+			error = "username is required";
+		} else if (username.length() > 40) {
+			error = "username length must be <= 40";
+		} else if (email == null) {
+			error = "email is required";
+		} else if (email.length() > 100 || !EMAIL.matcher(email).matches()) {
+			error = email.length() > 100 ? "email length must be <= 100" : "email format is invalid";
+		} else if (password == null) {
+			error = "password is required";
+		} else if (password.length() < 8 || password.length() > 100) {
+			error = "password length must be between 8 and 100";
+		}
+
+		return error != null
+				? ImportRow.invalid(row.line(), error)
+				: new ImportRow(row.line(), username, email.toLowerCase(Locale.ROOT), password, null);
+	}
+
+	private static String trimToNull(String value) {
+		if (value == null) {
+			return null;
+		}
+		String trimmed = value.trim();
+		return trimmed.isEmpty() ? null : trimmed;
+	}
+
+	private static final class Rejections {
+
+		private final List<RowError> errors = new ArrayList<>();
+		private long count;
+
+		void add(long line, String reason) {
+			count++;
+			if (errors.size() < MAX_REPORTED_ERRORS) {
+				errors.add(new RowError(line, reason));
+			}
+		}
+
+		UserImportReport report(long received, int imported) {
+			errors.sort(Comparator.comparingLong(RowError::line));
+			return new UserImportReport(received, imported, count, errors, count > errors.size());
+		}
+	}
+
+	private record PendingHash(ImportRow row, Future<String> hash) {
+
+		StagedUser staged() {
+			return new StagedUser(row.line(), row.username(), row.email(), PasswordHashingExecutor.await(hash));
+		}
+	}
+
+	private static final class ImportJob {
+
+		private final UUID id = UUID.randomUUID();
+		private final long received;
+		private final List<Long> roleIds;
+		private final Rejections rejections;
+		private final Deque<ImportRow> rows;
+		private final int toHash;
+		private volatile long hashed;
+		private volatile UserImportReport report;
+		private volatile String failure;
+		// Written last, so a finished state always comes with its outcome.
+		private volatile State state = State.RUNNING;
+
+		ImportJob(long received, List<Long> roleIds, Rejections rejections, Deque<ImportRow> rows) {
+			this.received = received;
+			this.roleIds = roleIds;
+			this.rejections = rejections;
+			this.rows = rows;
+			this.toHash = rows.size();
+		}
+
+		void complete(UserImportReport report) {
+			this.report = report;
+			this.state = State.COMPLETED;
+		}
+
+		void fail(String failure) {
+			this.failure = failure;
+			this.state = State.FAILED;
+		}
+
+		UserImportStatus status() {
+			State current = state;
+			return new UserImportStatus(id, current, received, toHash, hashed, report, failure);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package com.dossantosh.springfirstmodulith.users.application.services;
+
+import com.dossantosh.springfirstmodulith.core.cache.ExpiringCache;
+import com.dossantosh.springfirstmodulith.core.datasource.runtime.DataViewContext;
+import com.dossantosh.springfirstmodulith.core.page.Direction;
+import com.dossantosh.springfirstmodulith.core.page.KeysetPage;
+import com.dossantosh.springfirstmodulith.users.application.views.UserSummaryView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Speculatively loads the page after the one just served, so that clicking
+ * "next" in the users list is answered from memory. Only id-ordered forward
+ * paging is prefetched; each session keeps at most one page, for a few
+ * seconds, so edits made meanwhile show up on the next uncached click.
+ * Disabled unless {@code app.users.page-prefetch.enabled} is set.
+ */
+@Service
+public class UserPagePrefetchService {
+
+	private static final int MAX_PREFETCHED_PAGES = 512;
+	private static final Duration PREFETCH_TTL = Duration.ofSeconds(15);
+	private static final int MAX_PREFETCHES_IN_FLIGHT = 16;
+
+	private final UserQueryService userQueryService;
+	private final boolean enabled;
+	private final ExpiringCache<PageKey, CompletableFuture<KeysetPage<UserSummaryView>>> pages = new ExpiringCache<>(
+			MAX_PREFETCHED_PAGES, PREFETCH_TTL);
+	private final Semaphore inFlight = new Semaphore(MAX_PREFETCHES_IN_FLIGHT);
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter skipped;
+
+	public UserPagePrefetchService(UserQueryService userQueryService, MeterRegistry meterRegistry,
+			@Value("${app.users.page-prefetch.enabled:false}") boolean enabled) {
+		this.userQueryService = userQueryService;
+		this.enabled = enabled;
+		this.hits = meterRegistry.counter("users.page.prefetch", "result", "hit");
+		this.misses = meterRegistry.counter("users.page.prefetch", "result", "miss");
+		this.skipped = meterRegistry.counter("users.page.prefetch", "result", "skipped");
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Returns the page prefetched for this session and position, waiting for it
+	 * if the load is still running, or {@code null} when nothing usable was
+	 * prefetched and the caller has to query.
+	 */
+	public KeysetPage<UserSummaryView> prefetched(String sessionId, Long id, String username, String email,
+			Long lastId, int limit, Direction direction) {
+		if (!enabled || sessionId == null || lastId == null || direction != Direction.NEXT) {
+			return null;
+		}
+
+		PageKey key = new PageKey(sessionId, DataViewContext.get(), id, username, email, lastId, limit);
+		CompletableFuture<KeysetPage<UserSummaryView>> pending = pages.get(key);
+		pages.invalidate(key);
+		if (pending != null) {
+			try {
+				KeysetPage<UserSummaryView> page = pending.join();
+				if (page != null) {
+					hits.increment();
+					return page;
+				}
+			} catch (CompletionException e) {
+				// the background load failed; the caller queries again
+			}
+		}
+
+		misses.increment();
+		return null;
+	}
+
+	/**
+	 * Starts loading the page that follows {@code served} in the background,
+	 * replacing whatever this session had prefetched before.
+	 */
+	public void prefetchNext(String sessionId, Long id, String username, String email, int limit,
+			KeysetPage<UserSummaryView> served) {
+		if (!enabled || sessionId == null || served == null || !served.hasNext() || served.nextId() == null) {
+			return;
+		}
+
+		String view = DataViewContext.get();
+		Long nextId = served.nextId();
+		PageKey key = new PageKey(sessionId, view, id, username, email, nextId, limit);
+		pages.invalidateIf(cached -> cached.sessionId().equals(sessionId));
+
+		if (!inFlight.tryAcquire()) {
+			skipped.increment();
+			return;
+		}
+
+		CompletableFuture<KeysetPage<UserSummaryView>> created = new CompletableFuture<>();
+		pages.put(key, created);
+		try {
+			executor.execute(() -> {
+				DataViewContext.set(view);
+				try {
+					created.complete(
+							userQueryService.findUsersKeyset(id, username, email, nextId, limit, Direction.NEXT));
+				} catch (RuntimeException e) {
+					created.completeExceptionally(e);
+				} finally {
+					inFlight.release();
+					DataViewContext.clear();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			inFlight.release();
+			pages.invalidate(key);
+			created.completeExceptionally(e);
+		}
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private record PageKey(String sessionId, String view, Long id, String username, String email, Long lastId,
+			int limit) {
+	}
+}
@@ -1,6 +1,8 @@
 package com.dossantosh.springfirstmodulith.users.application.services;
 
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.BusinessException;
 import com.dossantosh.springfirstmodulith.core.page.Direction;
+import com.dossantosh.springfirstmodulith.core.page.KeysetCursor;
 import com.dossantosh.springfirstmodulith.core.page.KeysetPage;
 import com.dossantosh.springfirstmodulith.users.application.ports.out.UserQueryPort;
 import com.dossantosh.springfirstmodulith.users.application.views.*;
@@ -8,11 +10,19 @@ import com.dossantosh.springfirstmodulith.users.domain.Roles;
 import com.dossantosh.springfirstmodulith.users.domain.User;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 
 @Service
 public class UserQueryService {
 
+	public static final int MAX_BATCH_SIZE = 100;
+
+	static final String SEARCH_CURSOR_KEY = "score";
+
 	private final UserQueryPort userQueryPort;
 
 	public UserQueryService(UserQueryPort userQueryPort) {
@@ -26,10 +36,79 @@ public class UserQueryService {
 		return KeysetPage.fromSlice(rows, limit, direction, lastId, this::toUserSummaryView, UserSummaryView::id);
 	}
 
+	public KeysetPage<UserSummaryView> findUsersSorted(Long id, String username, String email, UserSort sort,
+			String cursor, int limit, Direction direction) {
+		KeysetCursor position = KeysetCursor.decode(cursor);
+		var rows = userQueryPort.findUsersSorted(id, username, email, sort.key(), position, limit + 1,
+				direction.name());
+
+		return KeysetPage.fromSlice(rows, limit, direction, position, this::toUserSummaryView, sort::cursorOf);
+	}
+
+	/**
+	 * Search results are ranked, so their cursors carry the score of the edge
+	 * row next to its id.
+	 */
+	public KeysetPage<UserSummaryView> findUsersByTerm(String term, UserSearchMode mode, String cursor, int limit,
+			Direction direction) {
+		KeysetCursor position = searchCursor(KeysetCursor.decode(cursor));
+		var rows = userQueryPort.findUsersByTerm(term, mode.name(), position, limit + 1, direction.name());
+
+		Map<Long, Float> scores = new HashMap<>();
+		rows.forEach(row -> scores.put(row.user().id(), row.score()));
+		return KeysetPage.fromSlice(rows, limit, direction, position, row -> toUserSummaryView(row.user()),
+				view -> KeysetCursor.of(SEARCH_CURSOR_KEY, Float.toString(scores.get(view.id())), view.id()));
+	}
+
 	public UserDetailsView getUserDetails(Long id) {
 		return userQueryPort.findFullUserById(id).map(this::toUserDetailsView).orElse(null);
 	}
 
+	/**
+	 * Resolves up to {@value #MAX_BATCH_SIZE} users, roles included, in one
+	 * query. The map follows the order of {@code ids}; unknown ids are absent.
+	 */
+	public Map<Long, UserDetailsView> getUserDetailsByIds(Collection<Long> ids) {
+		LinkedHashSet<Long> distinctIds = new LinkedHashSet<>();
+		for (Long id : ids) {
+			if (id != null) {
+				distinctIds.add(id);
+			}
+		}
+		if (distinctIds.size() > MAX_BATCH_SIZE) {
+			throw new BusinessException("At most " + MAX_BATCH_SIZE + " user ids can be resolved at once");
+		}
+
+		Map<Long, UserDetailsView> found = new HashMap<>();
+		for (UserQueryPort.UserDetailsRow row : userQueryPort.findUserDetailsByIds(distinctIds)) {
+			found.put(row.id(), toUserDetailsView(row));
+		}
+
+		Map<Long, UserDetailsView> result = new LinkedHashMap<>();
+		for (Long id : distinctIds) {
+			UserDetailsView view = found.get(id);
+			if (view != null) {
+				result.put(id, view);
+			}
+		}
+		return result;
+	}
+
+	private static KeysetCursor searchCursor(KeysetCursor cursor) {
+		if (cursor == null) {
+			return null;
+		}
+		if (!SEARCH_CURSOR_KEY.equals(cursor.sortKey()) || cursor.sortValue() == null) {
+			throw new BusinessException("Invalid cursor");
+		}
+		try {
+			Float.parseFloat(cursor.sortValue());
+		} catch (NumberFormatException e) {
+			throw new BusinessException("Invalid cursor");
+		}
+		return cursor;
+	}
+
 	private UserSummaryView toUserSummaryView(UserQueryPort.UserSummaryRow userRow) {
 		if (userRow == null) {
 			return null;
@@ -39,6 +118,15 @@ public class UserQueryService {
 				userRow.isAdmin());
 	}
 
+	private UserDetailsView toUserDetailsView(UserQueryPort.UserDetailsRow row) {
+		LinkedHashSet<RoleView> roleViews = new LinkedHashSet<>();
+		for (int i = 0; i < row.roleIds().size(); i++) {
+			roleViews.add(new RoleView(row.roleIds().get(i), row.roleNames().get(i)));
+		}
+
+		return new UserDetailsView(row.id(), row.username(), row.email(), row.enabled(), row.isAdmin(), roleViews);
+	}
+
 	private UserDetailsView toUserDetailsView(User user) {
 		if (user == null) {
 			return null;
@@ -0,0 +1,5 @@
+package com.dossantosh.springfirstmodulith.users.application.services;
+
+public enum UserSearchMode {
+	CONTAINS, FUZZY
+}
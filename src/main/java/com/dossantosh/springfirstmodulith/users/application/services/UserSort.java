@@ -0,0 +1,26 @@
+package com.dossantosh.springfirstmodulith.users.application.services;
+
+import com.dossantosh.springfirstmodulith.core.page.KeysetCursor;
+import com.dossantosh.springfirstmodulith.users.application.views.UserSummaryView;
+
+import java.util.function.Function;
+
+public enum UserSort {
+	ID("id", view -> null), USERNAME("username", UserSummaryView::username), EMAIL("email", UserSummaryView::email);
+
+	private final String key;
+	private final Function<UserSummaryView, String> value;
+
+	UserSort(String key, Function<UserSummaryView, String> value) {
+		this.key = key;
+		this.value = value;
+	}
+
+	public String key() {
+		return key;
+	}
+
+	KeysetCursor cursorOf(UserSummaryView view) {
+		return KeysetCursor.of(key, value.apply(view), view.id());
+	}
+}
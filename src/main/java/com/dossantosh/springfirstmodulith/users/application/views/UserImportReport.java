@@ -0,0 +1,19 @@
+package com.dossantosh.springfirstmodulith.users.application.views;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} is capped and ordered by line
+ * number; {@code rejected} is always the full count of rejected lines.
+ */
+public record UserImportReport(long received, long imported, long rejected, List<RowError> errors,
+		boolean errorsTruncated) implements Serializable {
+
+	public UserImportReport {
+		errors = errors == null ? List.of() : List.copyOf(errors);
+	}
+
+	public record RowError(long line, String reason) implements Serializable {
+	}
+}
@@ -0,0 +1,17 @@
+package com.dossantosh.springfirstmodulith.users.application.views;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Progress of a bulk import running in the background. {@code report} is set
+ * once the import has {@code COMPLETED}; {@code failure} once it has
+ * {@code FAILED}, in which case no user was imported.
+ */
+public record UserImportStatus(UUID id, State state, long received, long toHash, long hashed,
+		UserImportReport report, String failure) implements Serializable {
+
+	public enum State {
+		RUNNING, COMPLETED, FAILED
+	}
+}
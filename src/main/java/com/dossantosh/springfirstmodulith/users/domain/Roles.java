@@ -13,7 +13,8 @@ import java.util.Set;
 public class Roles {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "roles_id_role_seq")
+	@SequenceGenerator(name = "roles_id_role_seq", sequenceName = "roles_id_role_seq", allocationSize = 50)
 	@Column(name = "id_role")
 	private Long id;
 
@@ -10,7 +10,8 @@ import java.util.Objects;
 public class Scopes {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scopes_id_scope_seq")
+	@SequenceGenerator(name = "scopes_id_scope_seq", sequenceName = "scopes_id_scope_seq", allocationSize = 50)
 	@Column(name = "id_scope")
 	private Long id;
 
@@ -14,7 +14,8 @@ import java.util.Set;
 public class User {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_user_seq")
+	@SequenceGenerator(name = "users_id_user_seq", sequenceName = "users_id_user_seq", allocationSize = 50)
 	@Column(name = "id_user")
 	private Long id;
 
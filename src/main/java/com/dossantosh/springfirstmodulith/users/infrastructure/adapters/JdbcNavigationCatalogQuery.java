@@ -1,45 +1,78 @@
 package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
 
+import com.dossantosh.springfirstmodulith.authorization.ScopeSet;
+import com.dossantosh.springfirstmodulith.core.cache.SingleFlight;
+import com.dossantosh.springfirstmodulith.core.datasource.runtime.DataViewContext;
+import com.dossantosh.springfirstmodulith.core.invalidation.CacheInvalidation;
+import com.dossantosh.springfirstmodulith.core.invalidation.InvalidationHandler;
+import com.dossantosh.springfirstmodulith.users.api.events.UserCacheRegions;
 import com.dossantosh.springfirstmodulith.users.api.ports.navigation.NavigationCatalogQuery;
-import com.dossantosh.springfirstmodulith.users.api.ports.navigation.NavigationItemView;
 import com.dossantosh.springfirstmodulith.users.api.ports.navigation.NavigationModuleView;
-import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Answers navigation lookups from an in-memory {@link NavigationCatalogSnapshot},
+ * one per data view. The catalog tables rarely change, so instead of joining
+ * them on every request this reads the version stamp maintained by triggers
+ * (at most every {@link #STAMP_CHECK_INTERVAL}) and swaps in a freshly loaded
+ * snapshot only when the stamp has moved. A catalog notification from the
+ * invalidation bus makes the next request check the stamp right away.
+ */
 @Component
-class JdbcNavigationCatalogQuery implements NavigationCatalogQuery {
+class JdbcNavigationCatalogQuery implements NavigationCatalogQuery, InvalidationHandler {
+
+	static final Duration STAMP_CHECK_INTERVAL = Duration.ofSeconds(5);
+
+	private static final String VERSION_SQL = "select version from navigation_catalog_version where id = 1";
 
-	private static final String SQL = """
-			select distinct
-			       coalesce(m.navigation_key, lower(m.name)) as module_key,
+	private static final String CATALOG_SQL = """
+			select coalesce(m.navigation_key, lower(m.name)) as module_key,
 			       coalesce(m.label, m.name) as module_label,
 			       coalesce(m.icon, 'dashboard') as module_icon,
-			       m.sort_order as module_sort_order,
+			       sm.id_submodule,
 			       coalesce(sm.navigation_key, lower(sm.name)) as item_key,
 			       coalesce(sm.label, sm.name) as item_label,
 			       coalesce(sm.icon, 'radio_button_unchecked') as item_icon,
 			       sm.route as item_route,
 			       sm.disabled as item_disabled,
 			       sm.hint as item_hint,
-			       sm.sort_order as item_sort_order
+			       sc.name as scope_name
 			from modules m
 			join submodules sm on sm.id_module = m.id_module
 			join submodule_required_scopes srs on srs.id_submodule = sm.id_submodule
 			join scopes sc on sc.id_scope = srs.id_scope
-			where sc.name in (:scopes)
-			order by module_sort_order, module_label, item_sort_order, item_label
+			order by m.sort_order, module_label, m.id_module, sm.sort_order, item_label, sm.id_submodule
 			""";
 
+	// The routing data source treats "no view" as the default one.
+	private static final String DEFAULT_VIEW = "";
+
 	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final LongSupplier clock;
+	private final long stampCheckNanos = STAMP_CHECK_INTERVAL.toNanos();
+	private final ConcurrentHashMap<String, CheckedSnapshot> snapshots = new ConcurrentHashMap<>();
+	private final SingleFlight<String, CheckedSnapshot> refreshes = new SingleFlight<>(Duration.ZERO);
 
+	@Autowired
 	JdbcNavigationCatalogQuery(NamedParameterJdbcTemplate jdbcTemplate) {
+		this(jdbcTemplate, System::nanoTime);
+	}
+
+	JdbcNavigationCatalogQuery(NamedParameterJdbcTemplate jdbcTemplate, LongSupplier clock) {
 		this.jdbcTemplate = jdbcTemplate;
+		this.clock = clock;
 	}
 
 	@Override
@@ -47,46 +80,65 @@ class JdbcNavigationCatalogQuery implements NavigationCatalogQuery {
 		if (scopes == null || scopes.isEmpty()) {
 			return List.of();
 		}
+		return snapshot().visibleTo(ScopeSet.of(scopes));
+	}
 
-		MapSqlParameterSource params = new MapSqlParameterSource("scopes", scopes);
-		List<NavigationRow> rows = jdbcTemplate.query(SQL, params, (rs, rowNum) -> new NavigationRow(
-				rs.getString("module_key"), rs.getString("module_label"), rs.getString("module_icon"),
-				rs.getString("item_key"), rs.getString("item_label"), rs.getString("item_icon"),
-				rs.getString("item_route"), rs.getBoolean("item_disabled"), rs.getString("item_hint")));
+	@Override
+	public long catalogVersion() {
+		return snapshot().version();
+	}
 
-		LinkedHashMap<String, ModuleBuilder> modules = new LinkedHashMap<>();
-		for (NavigationRow row : rows) {
-			modules.computeIfAbsent(row.moduleKey(),
-					key -> new ModuleBuilder(key, row.moduleLabel(), row.moduleIcon())).addItem(row);
+	@Override
+	public void invalidate(CacheInvalidation invalidation) {
+		if (UserCacheRegions.NAVIGATION.equals(invalidation.region())) {
+			invalidateAll();
 		}
+	}
 
-		return modules.values().stream().map(ModuleBuilder::build).toList();
+	// Snapshots are kept; only the stamp is read again before the next use.
+	@Override
+	public void invalidateAll() {
+		snapshots.replaceAll((view, checked) -> new CheckedSnapshot(checked.snapshot(),
+				checked.checkedAt() - stampCheckNanos));
 	}
 
-	private record NavigationRow(String moduleKey, String moduleLabel, String moduleIcon, String itemKey,
-			String itemLabel, String itemIcon, String itemRoute, boolean itemDisabled, String itemHint) {
+	@EventListener(ApplicationReadyEvent.class)
+	void preload() {
+		snapshot();
 	}
 
-	private static final class ModuleBuilder {
+	private NavigationCatalogSnapshot snapshot() {
+		String view = Objects.requireNonNullElse(DataViewContext.get(), DEFAULT_VIEW);
+		CheckedSnapshot current = snapshots.get(view);
+		if (current != null && clock.getAsLong() - current.checkedAt() < stampCheckNanos) {
+			return current.snapshot();
+		}
+		return refreshes.execute(view, () -> refresh(view)).snapshot();
+	}
 
-		private final String key;
-		private final String label;
-		private final String icon;
-		private final List<NavigationItemView> items = new ArrayList<>();
+	private CheckedSnapshot refresh(String view) {
+		long version = Objects.requireNonNull(jdbcTemplate.queryForObject(VERSION_SQL, Map.of(), Long.class));
+		CheckedSnapshot previous = snapshots.get(view);
+		NavigationCatalogSnapshot snapshot = previous != null && previous.snapshot().version() == version
+				? previous.snapshot()
+				: load(version);
 
-		private ModuleBuilder(String key, String label, String icon) {
-			this.key = key;
-			this.label = label;
-			this.icon = icon;
-		}
+		CheckedSnapshot checked = new CheckedSnapshot(snapshot, clock.getAsLong());
+		snapshots.put(view, checked);
+		return checked;
+	}
 
-		private void addItem(NavigationRow row) {
-			items.add(new NavigationItemView(row.itemKey(), row.itemLabel(), row.itemIcon(), row.itemRoute(),
-					row.itemDisabled(), row.itemHint()));
-		}
+	// The stamp is read first, so a change committing in between only costs one extra reload.
+	private NavigationCatalogSnapshot load(long version) {
+		List<NavigationCatalogSnapshot.Row> rows = jdbcTemplate.query(CATALOG_SQL,
+				(rs, rowNum) -> new NavigationCatalogSnapshot.Row(rs.getString("module_key"),
+						rs.getString("module_label"), rs.getString("module_icon"), rs.getLong("id_submodule"),
+						rs.getString("item_key"), rs.getString("item_label"), rs.getString("item_icon"),
+						rs.getString("item_route"), rs.getBoolean("item_disabled"), rs.getString("item_hint"),
+						rs.getString("scope_name")));
+		return NavigationCatalogSnapshot.of(version, rows);
+	}
 
-		private NavigationModuleView build() {
-			return new NavigationModuleView(key, label, icon, List.copyOf(items));
-		}
+	private record CheckedSnapshot(NavigationCatalogSnapshot snapshot, long checkedAt) {
 	}
 }
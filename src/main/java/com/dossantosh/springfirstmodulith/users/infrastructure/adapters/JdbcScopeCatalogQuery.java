@@ -0,0 +1,24 @@
+package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
+
+import com.dossantosh.springfirstmodulith.users.api.ports.login.ScopeCatalogQuery;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+class JdbcScopeCatalogQuery implements ScopeCatalogQuery {
+
+	private static final String SQL = "select name from scopes order by id_scope";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	JdbcScopeCatalogQuery(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public List<String> findAllScopeNames() {
+		return jdbcTemplate.queryForList(SQL, String.class);
+	}
+}
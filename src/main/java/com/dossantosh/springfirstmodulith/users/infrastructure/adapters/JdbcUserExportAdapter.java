@@ -0,0 +1,107 @@
+package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
+
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserExportPort;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserQueryPort.UserSummaryRow;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Component
+class JdbcUserExportAdapter implements UserExportPort {
+
+	private static final String SET_FILTER_SQL = "SELECT set_config(?, ?, true)";
+
+	private static final String COPY_SELECT = """
+			COPY (
+			    SELECT u.id_user, u.username, u.email, u.enabled, u.is_admin, r.id_role, r.name AS role_name
+			    FROM users u
+			    LEFT JOIN users_roles ur ON ur.id_user = u.id_user
+			    LEFT JOIN roles r ON r.id_role = ur.id_role
+			""";
+
+	private static final String COPY_TAIL = """
+			    ORDER BY u.id_user, r.id_role
+			) TO STDOUT WITH (FORMAT csv, HEADER true)
+			""";
+
+	private final JdbcUserSearchQuery userSearchQuery;
+	private final JdbcTemplate jdbcTemplate;
+
+	JdbcUserExportAdapter(JdbcUserSearchQuery userSearchQuery, JdbcTemplate jdbcTemplate) {
+		this.userSearchQuery = userSearchQuery;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public void streamUsers(Long id, String username, String email, Consumer<UserSummaryRow> sink) {
+		userSearchQuery.streamUsers(id, username, email, sink);
+	}
+
+	/**
+	 * COPY cannot take bind parameters, so filter values are handed over as
+	 * transaction-local settings (bound through {@code set_config}) and read back
+	 * with {@code current_setting}; nothing user-supplied is spliced into the SQL.
+	 */
+	@Override
+	public void copyUsersCsv(Long id, String username, String email, OutputStream out) throws IOException {
+		Map<String, String> settings = new LinkedHashMap<>();
+		List<String> predicates = new ArrayList<>();
+		if (id != null) {
+			settings.put("users_export.id", id.toString());
+			predicates.add("u.id_user = current_setting('users_export.id')::bigint");
+		}
+		if (username != null && !username.isBlank()) {
+			settings.put("users_export.username_prefix", JdbcUserSearchQuery.likePrefix(username));
+			predicates.add("lower(u.username) LIKE current_setting('users_export.username_prefix')");
+		}
+		if (email != null && !email.isBlank()) {
+			settings.put("users_export.email_prefix", JdbcUserSearchQuery.likePrefix(email));
+			predicates.add("lower(u.email) LIKE current_setting('users_export.email_prefix')");
+		}
+
+		StringBuilder sql = new StringBuilder(COPY_SELECT);
+		if (!predicates.isEmpty()) {
+			sql.append("    WHERE ").append(String.join("\n      AND ", predicates)).append('\n');
+		}
+		sql.append(COPY_TAIL);
+
+		try {
+			jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+				applySettings(connection, settings);
+				try {
+					return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql.toString(), out);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static void applySettings(Connection connection, Map<String, String> settings) throws SQLException {
+		if (settings.isEmpty()) {
+			return;
+		}
+		try (PreparedStatement statement = connection.prepareStatement(SET_FILTER_SQL)) {
+			for (Map.Entry<String, String> setting : settings.entrySet()) {
+				statement.setString(1, setting.getKey());
+				statement.setString(2, setting.getValue());
+				statement.execute();
+			}
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
+
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserImportPort;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+@Component
+class JdbcUserImportAdapter implements UserImportPort {
+
+	// Rows per COPY, which bounds the CSV buffered at once.
+	private static final int COPY_CHUNK_SIZE = 1_000;
+
+	private static final String CREATE_STAGING = """
+			CREATE TEMPORARY TABLE user_import_staging (
+			    line     bigint PRIMARY KEY,
+			    username varchar(60) NOT NULL,
+			    email    varchar(100) NOT NULL,
+			    password varchar(100) NOT NULL
+			) ON COMMIT DROP
+			""";
+
+	private static final String COPY_STAGING = """
+			COPY user_import_staging (line, username, email, password) FROM STDIN WITH (FORMAT csv)
+			""";
+
+	/**
+	 * Temporary tables are never analyzed by autovacuum; without statistics the
+	 * planner assumes a tiny table and picks nested loops over the whole file.
+	 */
+	private static final String ANALYZE_STAGING = "ANALYZE user_import_staging";
+
+	private static final String REJECT_CONFLICTS = """
+			WITH conflicts AS (
+			    SELECT s.line, 1 AS kind, format('Username ''%s'' is already in use', s.username) AS reason
+			    FROM user_import_staging s
+			    WHERE EXISTS (SELECT 1 FROM users u WHERE u.username = s.username)
+			    UNION ALL
+			    SELECT s.line, 2, format('Email ''%s'' is already in use', s.email)
+			    FROM user_import_staging s
+			    WHERE EXISTS (SELECT 1 FROM users u WHERE u.email = s.email)
+			    UNION ALL
+			    SELECT d.line, 3, format('Username ''%s'' is repeated from line %s', d.username, d.first_line)
+			    FROM (SELECT line, username, min(line) OVER (PARTITION BY username) AS first_line
+			          FROM user_import_staging) d
+			    WHERE d.line <> d.first_line
+			    UNION ALL
+			    SELECT d.line, 4, format('Email ''%s'' is repeated from line %s', d.email, d.first_line)
+			    FROM (SELECT line, email, min(line) OVER (PARTITION BY email) AS first_line
+			          FROM user_import_staging) d
+			    WHERE d.line <> d.first_line
+			), dropped AS (
+			    DELETE FROM user_import_staging s
+			    WHERE s.line IN (SELECT line FROM conflicts)
+			)
+			SELECT line, string_agg(reason, '; ' ORDER BY kind) AS reason
+			FROM conflicts
+			GROUP BY line
+			ORDER BY line
+			""";
+
+	/**
+	 * Ids come in pooled blocks (V11): one nextval per block of ids rather than
+	 * per row, which would skip a whole block for every imported user.
+	 */
+	private static final String LOAD = """
+			WITH ids AS (
+			    SELECT id, row_number() OVER (ORDER BY id) AS rn
+			    FROM public.pooled_ids('public.users_id_user_seq', (SELECT count(*) FROM user_import_staging)) AS id
+			), staged AS (
+			    SELECT s.line, s.username, s.email, s.password, row_number() OVER (ORDER BY s.line) AS rn
+			    FROM user_import_staging s
+			), inserted AS (
+			    INSERT INTO users (id_user, username, email, password, enabled, is_admin)
+			    SELECT i.id, s.username, s.email, s.password, true, false
+			    FROM staged s
+			    JOIN ids i ON i.rn = s.rn
+			    ORDER BY s.line
+			    RETURNING id_user
+			), granted AS (
+			    INSERT INTO users_roles (id_user, id_role)
+			    SELECT i.id_user, r.id_role
+			    FROM inserted i
+			    CROSS JOIN unnest(:roleIds) AS r(id_role)
+			)
+			SELECT count(*) FROM inserted
+			""";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+	JdbcUserImportAdapter(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.namedJdbcTemplate = namedJdbcTemplate;
+	}
+
+	/**
+	 * The staging table is dropped on commit, so every step runs in this one
+	 * transaction.
+	 */
+	@Override
+	@Transactional
+	public LoadResult load(List<StagedUser> users, Collection<Long> roleIds) {
+		createStaging();
+		for (int from = 0; from < users.size(); from += COPY_CHUNK_SIZE) {
+			stage(users.subList(from, Math.min(users.size(), from + COPY_CHUNK_SIZE)));
+		}
+		List<RejectedRow> rejected = rejectConflicts();
+		return new LoadResult(insertStaged(roleIds), rejected);
+	}
+
+	void createStaging() {
+		jdbcTemplate.execute(CREATE_STAGING);
+	}
+
+	void stage(List<StagedUser> users) {
+		if (users.isEmpty()) {
+			return;
+		}
+
+		StringBuilder csv = new StringBuilder(users.size() * 128);
+		for (StagedUser user : users) {
+			csv.append(user.line()).append(',');
+			appendQuoted(csv, user.username()).append(',');
+			appendQuoted(csv, user.email()).append(',');
+			appendQuoted(csv, user.passwordHash()).append('\n');
+		}
+		byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+		jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+			try {
+				return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING,
+						new ByteArrayInputStream(bytes));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	List<RejectedRow> rejectConflicts() {
+		jdbcTemplate.execute(ANALYZE_STAGING);
+		return jdbcTemplate.query(REJECT_CONFLICTS,
+				(rs, rowNum) -> new RejectedRow(rs.getLong("line"), rs.getString("reason")));
+	}
+
+	int insertStaged(Collection<Long> roleIds) {
+		Long inserted = namedJdbcTemplate.queryForObject(LOAD,
+				new MapSqlParameterSource("roleIds", roleIds.toArray(Long[]::new)), Long.class);
+		return inserted == null ? 0 : inserted.intValue();
+	}
+
+	private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+		return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+	}
+}
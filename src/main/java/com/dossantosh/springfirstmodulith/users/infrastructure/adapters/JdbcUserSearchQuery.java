@@ -0,0 +1,325 @@
+package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
+
+import com.dossantosh.springfirstmodulith.core.page.Direction;
+import com.dossantosh.springfirstmodulith.core.page.KeysetCursor;
+import com.dossantosh.springfirstmodulith.core.page.KeysetSqlBuilder;
+import com.dossantosh.springfirstmodulith.core.page.KeysetSqlBuilder.KeysetClause;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserQueryPort.UserDetailsRow;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserQueryPort.UserSearchRow;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserQueryPort.UserSummaryRow;
+import com.dossantosh.springfirstmodulith.users.application.services.UserSearchMode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds one statement per filter shape (which filters are present, the sort,
+ * whether a cursor is set and the paging direction) so PostgreSQL can plan each
+ * shape against the matching index instead of a single catch-all query.
+ */
+@Component
+class JdbcUserSearchQuery {
+
+	private static final String SELECT_SUMMARY = """
+			SELECT u.id_user, u.username, u.email, u.enabled, u.is_admin
+			FROM users u
+			""";
+
+	static final String SORT_ID = "id";
+
+	private static final KeysetSqlBuilder KEYSET = KeysetSqlBuilder.tiebreaker(SORT_ID, "u.id_user")
+			.sortable("username", "u.username")
+			.sortable("email", "u.email");
+
+	private static final String RELTUPLES_SQL = """
+			SELECT reltuples::bigint FROM pg_class WHERE oid = 'public.users'::regclass
+			""";
+
+	private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*([0-9.eE+]+)");
+
+	private static final String NORMALIZED_TERM = "public.search_normalize(:term)";
+
+	private static final String CONTAINS_PATTERN = "('%' || public.search_normalize(:escapedTerm) || '%')";
+
+	private static final RowMapper<UserSummaryRow> SUMMARY_ROW_MAPPER = (rs, rowNum) -> new UserSummaryRow(
+			rs.getLong("id_user"), rs.getString("username"), rs.getString("email"),
+			(Boolean) rs.getObject("enabled"), (Boolean) rs.getObject("is_admin"));
+
+	private static final RowMapper<UserSearchRow> SEARCH_ROW_MAPPER = (rs, rowNum) -> new UserSearchRow(
+			SUMMARY_ROW_MAPPER.mapRow(rs, rowNum), rs.getFloat("score"));
+
+	/**
+	 * One row per user: roles are folded into arrays by a lateral subquery, so
+	 * a user with many roles neither multiplies rows nor needs a GROUP BY.
+	 */
+	private static final String SELECT_DETAILS_BY_IDS = """
+			SELECT u.id_user, u.username, u.email, u.enabled, u.is_admin, r.role_ids, r.role_names
+			FROM users u
+			LEFT JOIN LATERAL (
+			    SELECT array_agg(ro.id_role ORDER BY ro.id_role) AS role_ids,
+			           array_agg(ro.name ORDER BY ro.id_role) AS role_names
+			    FROM users_roles ur
+			    JOIN roles ro ON ro.id_role = ur.id_role
+			    WHERE ur.id_user = u.id_user
+			) r ON true
+			WHERE u.id_user = ANY(:ids)
+			""";
+
+	private static final RowMapper<UserDetailsRow> DETAILS_ROW_MAPPER = (rs, rowNum) -> new UserDetailsRow(
+			rs.getLong("id_user"), rs.getString("username"), rs.getString("email"),
+			(Boolean) rs.getObject("enabled"), (Boolean) rs.getObject("is_admin"),
+			arrayToList(rs.getArray("role_ids"), Long.class), arrayToList(rs.getArray("role_names"), String.class));
+
+	// Rows the driver buffers per round trip while streaming an export.
+	private static final int EXPORT_FETCH_SIZE = 1000;
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final NamedParameterJdbcTemplate streamingTemplate;
+	private final Map<SearchShape, String> statements = new ConcurrentHashMap<>();
+	private final Map<TermShape, String> termStatements = new ConcurrentHashMap<>();
+
+	JdbcUserSearchQuery(NamedParameterJdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+
+		JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+		streaming.setFetchSize(EXPORT_FETCH_SIZE);
+		this.streamingTemplate = new NamedParameterJdbcTemplate(streaming);
+	}
+
+	List<UserSummaryRow> findUsersKeyset(Long id, String username, String email, Long lastId, int limit,
+			Direction direction) {
+		KeysetCursor cursor = lastId == null ? null : KeysetCursor.of(SORT_ID, null, lastId);
+		return findUsersSorted(id, username, email, SORT_ID, cursor, limit, direction);
+	}
+
+	List<UserSummaryRow> findUsersSorted(Long id, String username, String email, String sort, KeysetCursor cursor,
+			int limit, Direction direction) {
+		KeysetClause keyset = KEYSET.build(sort, cursor, direction);
+		FilterShape filter = FilterShape.of(id, username, email);
+		SearchShape shape = new SearchShape(filter, keyset.sortKey(), keyset.predicate() != null, direction);
+
+		MapSqlParameterSource params = filter.bind(new MapSqlParameterSource("limit", Math.max(limit, 0)), id,
+				username, email);
+		params.addValues(keyset.parameters());
+
+		return jdbcTemplate.query(statements.computeIfAbsent(shape, s -> s.toSql(keyset)), params,
+				SUMMARY_ROW_MAPPER);
+	}
+
+	List<UserDetailsRow> findUserDetailsByIds(Collection<Long> ids) {
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		// Bound as a single bigint[] so the statement is identical for any number of ids.
+		return jdbcTemplate.query(SELECT_DETAILS_BY_IDS,
+				new MapSqlParameterSource("ids", ids.toArray(Long[]::new)), DETAILS_ROW_MAPPER);
+	}
+
+	/**
+	 * PostgreSQL only honours the fetch size (and so keeps memory flat) when
+	 * auto-commit is off: callers must hold a transaction.
+	 */
+	void streamUsers(Long id, String username, String email, Consumer<UserSummaryRow> sink) {
+		FilterShape filter = FilterShape.of(id, username, email);
+		String sql = filter.toSql(SELECT_SUMMARY) + "ORDER BY u.id_user";
+
+		streamingTemplate.query(sql, filter.bind(new MapSqlParameterSource(), id, username, email),
+				(RowCallbackHandler) rs -> sink.accept(SUMMARY_ROW_MAPPER.mapRow(rs, 0)));
+	}
+
+	/**
+	 * Planner estimate of the rows matching the listing filters: the table's
+	 * {@code reltuples} when unfiltered, otherwise the root {@code Plan Rows} of
+	 * an {@code EXPLAIN}. Never executes the query itself.
+	 */
+	long estimateUsers(Long id, String username, String email) {
+		FilterShape filter = FilterShape.of(id, username, email);
+		if (filter.isEmpty()) {
+			Long reltuples = jdbcTemplate.getJdbcTemplate().queryForObject(RELTUPLES_SQL, Long.class);
+			// -1 until the table has been vacuumed or analyzed; the planner still has a guess.
+			if (reltuples != null && reltuples >= 0) {
+				return reltuples;
+			}
+		}
+
+		String explain = "EXPLAIN (FORMAT JSON) " + filter.toSql("SELECT 1 FROM users u\n");
+		String plan = jdbcTemplate.queryForObject(explain, filter.bind(new MapSqlParameterSource(), id, username, email),
+				String.class);
+		Matcher rows = PLAN_ROWS.matcher(plan == null ? "" : plan);
+		return rows.find() ? Math.round(Double.parseDouble(rows.group(1))) : 0L;
+	}
+
+	long countUsers(Long id, String username, String email) {
+		FilterShape filter = FilterShape.of(id, username, email);
+		Long count = jdbcTemplate.queryForObject(filter.toSql("SELECT count(*) FROM users u\n"),
+				filter.bind(new MapSqlParameterSource(), id, username, email), Long.class);
+		return count == null ? 0L : count;
+	}
+
+	/**
+	 * The cursor carries the score of the last row ({@code sortValue}) along
+	 * with its id, so paging goes on even once that row stopped matching.
+	 */
+	List<UserSearchRow> findUsersByTerm(String term, UserSearchMode mode, KeysetCursor cursor, int limit,
+			Direction direction) {
+		TermShape shape = new TermShape(mode, cursor != null, direction);
+
+		MapSqlParameterSource params = new MapSqlParameterSource("limit", Math.max(limit, 0))
+				.addValue("term", term.trim()).addValue("escapedTerm", escapeLike(term.trim()));
+		if (shape.afterCursor()) {
+			params.addValue("lastScore", Float.parseFloat(cursor.sortValue())).addValue("lastId", cursor.id());
+		}
+
+		return jdbcTemplate.query(termStatements.computeIfAbsent(shape, TermShape::toSql), params,
+				SEARCH_ROW_MAPPER);
+	}
+
+	private static <T> List<T> arrayToList(Array array, Class<T> type) throws SQLException {
+		if (array == null) {
+			return List.of();
+		}
+		try {
+			List<T> values = new ArrayList<>();
+			for (Object value : (Object[]) array.getArray()) {
+				values.add(type.cast(value));
+			}
+			return values;
+		} finally {
+			array.free();
+		}
+	}
+
+	static String likePrefix(String value) {
+		return escapeLike(value.trim().toLowerCase(Locale.ROOT)) + "%";
+	}
+
+	private static String escapeLike(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+	private static boolean hasText(String value) {
+		return value != null && !value.isBlank();
+	}
+
+	private record FilterShape(boolean byId, boolean byUsername, boolean byEmail) {
+
+		private static FilterShape of(Long id, String username, String email) {
+			return new FilterShape(id != null, hasText(username), hasText(email));
+		}
+
+		private boolean isEmpty() {
+			return !byId && !byUsername && !byEmail;
+		}
+
+		private List<String> predicates() {
+			List<String> predicates = new ArrayList<>();
+			if (byId) {
+				predicates.add("u.id_user = :id");
+			}
+			if (byUsername) {
+				predicates.add("lower(u.username) LIKE :usernamePrefix");
+			}
+			if (byEmail) {
+				predicates.add("lower(u.email) LIKE :emailPrefix");
+			}
+			return predicates;
+		}
+
+		private MapSqlParameterSource bind(MapSqlParameterSource params, Long id, String username, String email) {
+			if (byId) {
+				params.addValue("id", id);
+			}
+			if (byUsername) {
+				params.addValue("usernamePrefix", likePrefix(username));
+			}
+			if (byEmail) {
+				params.addValue("emailPrefix", likePrefix(email));
+			}
+			return params;
+		}
+
+		private String toSql(String select) {
+			return appendWhere(new StringBuilder(select), predicates()).toString();
+		}
+	}
+
+	private static StringBuilder appendWhere(StringBuilder sql, List<String> predicates) {
+		if (!predicates.isEmpty()) {
+			sql.append("WHERE ").append(String.join("\n  AND ", predicates)).append('\n');
+		}
+		return sql;
+	}
+
+	/**
+	 * The keyset clause is fully determined by the sort key, cursor presence and
+	 * direction, so it is safe to render it once per shape.
+	 */
+	private record SearchShape(FilterShape filter, String sortKey, boolean afterCursor, Direction direction) {
+
+		private String toSql(KeysetClause keyset) {
+			List<String> predicates = filter.predicates();
+			if (keyset.predicate() != null) {
+				predicates.add(keyset.predicate());
+			}
+
+			StringBuilder sql = appendWhere(new StringBuilder(SELECT_SUMMARY), predicates);
+			sql.append("ORDER BY ").append(keyset.orderBy()).append('\n');
+			sql.append("LIMIT :limit");
+			return sql.toString();
+		}
+	}
+
+	/**
+	 * Term searches are ranked by trigram similarity and paged on
+	 * {@code (score DESC, id ASC)}. Scores are {@code real}, and the cursor value
+	 * is cast back to it so ties compare equal.
+	 */
+	private record TermShape(UserSearchMode mode, boolean afterCursor, Direction direction) {
+
+		private String toSql() {
+			String candidates = mode == UserSearchMode.FUZZY
+					? "public.search_normalize(u.username) % " + NORMALIZED_TERM
+							+ "\n       OR public.search_normalize(u.email) % " + NORMALIZED_TERM
+					: "public.search_normalize(u.username) LIKE " + CONTAINS_PATTERN
+							+ "\n       OR public.search_normalize(u.email) LIKE " + CONTAINS_PATTERN;
+			boolean next = direction == Direction.NEXT;
+
+			StringBuilder sql = new StringBuilder("WITH ranked AS (\n");
+			sql.append("    SELECT u.id_user, u.username, u.email, u.enabled, u.is_admin,\n");
+			sql.append("           GREATEST(similarity(public.search_normalize(u.username), ").append(NORMALIZED_TERM)
+					.append("),\n");
+			sql.append("                    similarity(public.search_normalize(u.email), ").append(NORMALIZED_TERM)
+					.append(")) AS score\n");
+			sql.append("    FROM users u\n");
+			sql.append("    WHERE ").append(candidates).append('\n');
+			sql.append(")\n");
+			sql.append("SELECT r.id_user, r.username, r.email, r.enabled, r.is_admin, r.score\n");
+			sql.append("FROM ranked r\n");
+			if (afterCursor) {
+				sql.append(next
+						? "WHERE r.score < CAST(:lastScore AS real)\n"
+								+ "   OR (r.score = CAST(:lastScore AS real) AND r.id_user > :lastId)\n"
+						: "WHERE r.score > CAST(:lastScore AS real)\n"
+								+ "   OR (r.score = CAST(:lastScore AS real) AND r.id_user < :lastId)\n");
+			}
+			sql.append(next ? "ORDER BY r.score DESC, r.id_user ASC\n" : "ORDER BY r.score ASC, r.id_user DESC\n");
+			sql.append("LIMIT :limit");
+			return sql.toString();
+		}
+	}
+}
@@ -1,13 +1,16 @@
 package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
 
+import com.dossantosh.springfirstmodulith.core.page.Direction;
+import com.dossantosh.springfirstmodulith.core.page.KeysetCursor;
 import com.dossantosh.springfirstmodulith.users.application.ports.out.UserCommandPort;
 import com.dossantosh.springfirstmodulith.users.application.ports.out.UserQueryPort;
+import com.dossantosh.springfirstmodulith.users.application.services.UserSearchMode;
 import com.dossantosh.springfirstmodulith.users.domain.User;
 import com.dossantosh.springfirstmodulith.users.domain.ports.UserUniquenessPolicy;
-import com.dossantosh.springfirstmodulith.users.infrastructure.projections.UserProjection;
 import com.dossantosh.springfirstmodulith.users.infrastructure.repos.UserRepository;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,9 +18,11 @@ import java.util.Optional;
 class JpaUserAdapter implements UserCommandPort, UserQueryPort, UserUniquenessPolicy {
 
 	private final UserRepository userRepository;
+	private final JdbcUserSearchQuery userSearchQuery;
 
-	JpaUserAdapter(UserRepository userRepository) {
+	JpaUserAdapter(UserRepository userRepository, JdbcUserSearchQuery userSearchQuery) {
 		this.userRepository = userRepository;
+		this.userSearchQuery = userSearchQuery;
 	}
 
 	@Override
@@ -43,8 +48,30 @@ class JpaUserAdapter implements UserCommandPort, UserQueryPort, UserUniquenessPo
 	@Override
 	public List<UserSummaryRow> findUsersKeyset(Long id, String username, String email, Long lastId, int limit,
 			String direction) {
-		return userRepository.findUsersKeyset(id, username, email, lastId, limit, direction).stream()
-				.map(JpaUserAdapter::toSummaryRow).toList();
+		return userSearchQuery.findUsersKeyset(id, username, email, lastId, limit, Direction.valueOf(direction));
+	}
+
+	@Override
+	public List<UserSummaryRow> findUsersSorted(Long id, String username, String email, String sort,
+			KeysetCursor cursor, int limit, String direction) {
+		return userSearchQuery.findUsersSorted(id, username, email, sort, cursor, limit, Direction.valueOf(direction));
+	}
+
+	@Override
+	public long estimateUsers(Long id, String username, String email) {
+		return userSearchQuery.estimateUsers(id, username, email);
+	}
+
+	@Override
+	public long countUsers(Long id, String username, String email) {
+		return userSearchQuery.countUsers(id, username, email);
+	}
+
+	@Override
+	public List<UserSearchRow> findUsersByTerm(String term, String mode, KeysetCursor cursor, int limit,
+			String direction) {
+		return userSearchQuery.findUsersByTerm(term, UserSearchMode.valueOf(mode), cursor, limit,
+				Direction.valueOf(direction));
 	}
 
 	@Override
@@ -52,6 +79,11 @@ class JpaUserAdapter implements UserCommandPort, UserQueryPort, UserUniquenessPo
 		return userRepository.findFullUserById(id);
 	}
 
+	@Override
+	public List<UserDetailsRow> findUserDetailsByIds(Collection<Long> ids) {
+		return userSearchQuery.findUserDetailsByIds(ids);
+	}
+
 	@Override
 	public boolean usernameExists(String username) {
 		return userRepository.existsByUsername(username);
@@ -61,9 +93,4 @@ class JpaUserAdapter implements UserCommandPort, UserQueryPort, UserUniquenessPo
 	public boolean emailExists(String email) {
 		return userRepository.existsByEmail(email);
 	}
-
-	private static UserSummaryRow toSummaryRow(UserProjection projection) {
-		return new UserSummaryRow(projection.getId(), projection.getUsername(), projection.getEmail(),
-				projection.getEnabled(), projection.getIsAdmin());
-	}
 }
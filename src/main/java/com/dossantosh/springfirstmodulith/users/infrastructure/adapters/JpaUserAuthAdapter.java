@@ -1,27 +1,139 @@
 package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
 
+import com.dossantosh.springfirstmodulith.core.cache.ExpiringCache;
+import com.dossantosh.springfirstmodulith.core.cache.SingleFlight;
+import com.dossantosh.springfirstmodulith.core.datasource.runtime.DataViewContext;
+import com.dossantosh.springfirstmodulith.core.invalidation.CacheInvalidation;
+import com.dossantosh.springfirstmodulith.core.invalidation.InvalidationHandler;
+import com.dossantosh.springfirstmodulith.users.api.events.RoleScopesChangedEvent;
+import com.dossantosh.springfirstmodulith.users.api.events.UserCacheRegions;
+import com.dossantosh.springfirstmodulith.users.api.events.UserChangedEvent;
+import com.dossantosh.springfirstmodulith.users.api.events.UserDeletedEvent;
 import com.dossantosh.springfirstmodulith.users.api.ports.login.UserAuthQuery;
 import com.dossantosh.springfirstmodulith.users.api.ports.login.UserAuthView;
 import com.dossantosh.springfirstmodulith.users.infrastructure.projections.UserAuthProjection;
 import com.dossantosh.springfirstmodulith.users.infrastructure.repos.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
+/**
+ * Resolves login identities. Found users are cached by username so repeated
+ * logins skip the database; entries are dropped once a change to
+ * the user or to role scopes commits, and expire anyway to cover edits made
+ * directly in the database. Concurrent misses for the same username share a
+ * single database call. Changes committed by other nodes arrive through the
+ * invalidation bus.
+ */
 @Component
-class JpaUserAuthAdapter implements UserAuthQuery {
+class JpaUserAuthAdapter implements UserAuthQuery, InvalidationHandler {
+
+	private static final int MAX_CACHED_USERS = 4096;
+	private static final Duration CACHE_TTL = Duration.ofMinutes(10);
+	private static final Duration LOOKUP_GRACE = Duration.ofMillis(100);
 
 	private final UserRepository userRepository;
+	private final ExpiringCache<AuthKey, UserAuthView> cache = new ExpiringCache<>(MAX_CACHED_USERS, CACHE_TTL);
+	private final SingleFlight<AuthKey, Optional<UserAuthView>> lookups = new SingleFlight<>(LOOKUP_GRACE);
+	private final Object invalidationLock = new Object();
+	private long generation;
 
-	JpaUserAuthAdapter(UserRepository userRepository) {
+	JpaUserAuthAdapter(UserRepository userRepository, MeterRegistry meterRegistry) {
 		this.userRepository = userRepository;
+		FunctionCounter.builder("users.auth.lookups", lookups, SingleFlight::executed).tag("result", "executed")
+				.register(meterRegistry);
+		FunctionCounter.builder("users.auth.lookups", lookups, SingleFlight::coalesced).tag("result", "coalesced")
+				.register(meterRegistry);
 	}
 
 	@Override
 	public Optional<UserAuthView> findByUsername(String username) {
-		return userRepository.findUserAuthByUsername(username).map(JpaUserAuthAdapter::toAuthView);
+		AuthKey key = new AuthKey(DataViewContext.get(), username);
+		UserAuthView cached = cache.get(key);
+		if (cached != null) {
+			return Optional.of(cached);
+		}
+
+		long seen = currentGeneration();
+		Optional<UserAuthView> loaded = lookups.execute(key,
+				() -> userRepository.findUserAuthByUsername(username).map(JpaUserAuthAdapter::toAuthView));
+		loaded.ifPresent(view -> {
+			// A lookup that raced with an invalidation may have read the old rows.
+			synchronized (invalidationLock) {
+				if (generation == seen) {
+					cache.put(key, view);
+				}
+			}
+		});
+		return loaded;
+	}
+
+	// Ahead of other listeners, which may reload the user right away.
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(UserChangedEvent event) {
+		invalidate(event.userId());
+	}
+
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(UserDeletedEvent event) {
+		invalidate(event.userId());
+	}
+
+	// Any number of users may hold the role, so everything is dropped.
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(RoleScopesChangedEvent event) {
+		invalidateAll();
+	}
+
+	@Override
+	public void invalidate(CacheInvalidation invalidation) {
+		switch (invalidation.region()) {
+			case UserCacheRegions.USERS -> {
+				if (invalidation.isRegionWide()) {
+					invalidateAll();
+				} else {
+					invalidate(Long.valueOf(invalidation.key()));
+				}
+			}
+			case UserCacheRegions.ROLE_SCOPES -> invalidateAll();
+			default -> {
+			}
+		}
+	}
+
+	@Override
+	public void invalidateAll() {
+		synchronized (invalidationLock) {
+			generation++;
+			cache.invalidateAll();
+			lookups.forget();
+		}
+	}
+
+	private void invalidate(Long userId) {
+		synchronized (invalidationLock) {
+			generation++;
+			cache.invalidateValuesIf(view -> Objects.equals(view.id(), userId));
+			lookups.forget();
+		}
+	}
+
+	private long currentGeneration() {
+		synchronized (invalidationLock) {
+			return generation;
+		}
 	}
 
 	private static UserAuthView toAuthView(UserAuthProjection projection) {
@@ -34,4 +146,7 @@ class JpaUserAuthAdapter implements UserAuthQuery {
 	private static List<String> emptyIfNull(List<String> values) {
 		return values == null ? Collections.emptyList() : values;
 	}
+
+	private record AuthKey(String view, String username) {
+	}
 }
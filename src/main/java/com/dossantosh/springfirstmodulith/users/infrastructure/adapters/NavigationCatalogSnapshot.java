@@ -0,0 +1,128 @@
+package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
+
+import com.dossantosh.springfirstmodulith.authorization.ScopeSet;
+import com.dossantosh.springfirstmodulith.users.api.ports.navigation.NavigationItemView;
+import com.dossantosh.springfirstmodulith.users.api.ports.navigation.NavigationModuleView;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable copy of the whole navigation catalog, already in display order.
+ * Each submodule keeps the scopes that reveal it as a {@link ScopeSet}, so
+ * filtering for a user is a walk over the items with one bit test each.
+ * Results are remembered per distinct scope set, which in practice means per
+ * role combination.
+ */
+final class NavigationCatalogSnapshot {
+
+	private static final int MAX_MEMOIZED_SCOPE_SETS = 256;
+
+	private final long version;
+	private final List<ModuleEntry> modules;
+	private final ConcurrentHashMap<ScopeSet, List<NavigationModuleView>> visible = new ConcurrentHashMap<>();
+
+	private NavigationCatalogSnapshot(long version, List<ModuleEntry> modules) {
+		this.version = version;
+		this.modules = modules;
+	}
+
+	/**
+	 * Builds a snapshot from catalog rows ordered by module, then submodule,
+	 * with one row per required scope.
+	 */
+	static NavigationCatalogSnapshot of(long version, List<Row> rows) {
+		LinkedHashMap<String, ModuleBuilder> modules = new LinkedHashMap<>();
+		for (Row row : rows) {
+			modules.computeIfAbsent(row.moduleKey(),
+					key -> new ModuleBuilder(key, row.moduleLabel(), row.moduleIcon())).addScope(row);
+		}
+		return new NavigationCatalogSnapshot(version, modules.values().stream().map(ModuleBuilder::build).toList());
+	}
+
+	long version() {
+		return version;
+	}
+
+	List<NavigationModuleView> visibleTo(ScopeSet scopes) {
+		if (scopes.isEmpty()) {
+			return List.of();
+		}
+		List<NavigationModuleView> cached = visible.get(scopes);
+		if (cached != null) {
+			return cached;
+		}
+
+		List<NavigationModuleView> filtered = filter(scopes);
+		if (visible.size() < MAX_MEMOIZED_SCOPE_SETS) {
+			visible.putIfAbsent(scopes, filtered);
+		}
+		return filtered;
+	}
+
+	private List<NavigationModuleView> filter(ScopeSet scopes) {
+		List<NavigationModuleView> result = new ArrayList<>();
+		for (ModuleEntry module : modules) {
+			List<NavigationItemView> items = new ArrayList<>();
+			for (ItemEntry item : module.items()) {
+				if (item.requiredScopes().intersects(scopes)) {
+					items.add(item.view());
+				}
+			}
+			if (!items.isEmpty()) {
+				result.add(new NavigationModuleView(module.key(), module.label(), module.icon(), List.copyOf(items)));
+			}
+		}
+		return List.copyOf(result);
+	}
+
+	record Row(String moduleKey, String moduleLabel, String moduleIcon, long submoduleId, String itemKey,
+			String itemLabel, String itemIcon, String itemRoute, boolean itemDisabled, String itemHint,
+			String scopeName) {
+	}
+
+	private record ModuleEntry(String key, String label, String icon, List<ItemEntry> items) {
+	}
+
+	private record ItemEntry(NavigationItemView view, ScopeSet requiredScopes) {
+	}
+
+	private static final class ModuleBuilder {
+
+		private final String key;
+		private final String label;
+		private final String icon;
+		private final LinkedHashMap<Long, ItemBuilder> items = new LinkedHashMap<>();
+
+		private ModuleBuilder(String key, String label, String icon) {
+			this.key = key;
+			this.label = label;
+			this.icon = icon;
+		}
+
+		private void addScope(Row row) {
+			items.computeIfAbsent(row.submoduleId(), id -> new ItemBuilder(row)).scopes.add(row.scopeName());
+		}
+
+		private ModuleEntry build() {
+			return new ModuleEntry(key, label, icon, items.values().stream().map(ItemBuilder::build).toList());
+		}
+	}
+
+	private static final class ItemBuilder {
+
+		private final NavigationItemView view;
+		private final List<String> scopes = new ArrayList<>();
+
+		private ItemBuilder(Row row) {
+			this.view = new NavigationItemView(row.itemKey(), row.itemLabel(), row.itemIcon(), row.itemRoute(),
+					row.itemDisabled(), row.itemHint());
+		}
+
+		private ItemEntry build() {
+			return new ItemEntry(view, ScopeSet.of(scopes));
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
+
+import com.dossantosh.springfirstmodulith.core.invalidation.CacheInvalidation;
+import com.dossantosh.springfirstmodulith.core.invalidation.InvalidationBus;
+import com.dossantosh.springfirstmodulith.users.api.events.RoleScopesChangedEvent;
+import com.dossantosh.springfirstmodulith.users.api.events.UserCacheRegions;
+import com.dossantosh.springfirstmodulith.users.api.events.UserChangedEvent;
+import com.dossantosh.springfirstmodulith.users.api.events.UserDeletedEvent;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Forwards committed user and role-scope changes to the other nodes. Local
+ * caches already react to the events themselves.
+ */
+@Component
+class UserCacheInvalidationPublisher {
+
+	private final ObjectProvider<InvalidationBus> bus;
+
+	UserCacheInvalidationPublisher(ObjectProvider<InvalidationBus> bus) {
+		this.bus = bus;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(UserChangedEvent event) {
+		publish(CacheInvalidation.of(UserCacheRegions.USERS, event.userId()));
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(UserDeletedEvent event) {
+		publish(CacheInvalidation.of(UserCacheRegions.USERS, event.userId()));
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(RoleScopesChangedEvent event) {
+		publish(CacheInvalidation.all(UserCacheRegions.ROLE_SCOPES));
+	}
+
+	private void publish(CacheInvalidation invalidation) {
+		bus.ifAvailable(available -> available.publish(invalidation));
+	}
+}
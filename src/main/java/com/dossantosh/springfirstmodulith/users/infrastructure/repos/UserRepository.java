@@ -2,14 +2,11 @@ package com.dossantosh.springfirstmodulith.users.infrastructure.repos;
 
 import com.dossantosh.springfirstmodulith.users.domain.User;
 import com.dossantosh.springfirstmodulith.users.infrastructure.projections.UserAuthProjection;
-import com.dossantosh.springfirstmodulith.users.infrastructure.projections.UserProjection;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -25,6 +22,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
 	boolean existsByEmail(String email);
 
+	// Roles and scopes come from the trigger-maintained user_effective_scopes
+	// read table, so this is a unique-index read plus a primary-key read.
 	@Query(value = """
 			    SELECT
 			        u.id_user AS id,
@@ -33,51 +32,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
 			        u.password AS password,
 			        u.enabled AS enabled,
 			        u.is_admin AS isAdmin,
-			        (
-			            SELECT array_agg(r.name)
-			            FROM roles r
-			            JOIN users_roles ur ON r.id_role = ur.id_role
-			            WHERE ur.id_user = u.id_user
-			        ) AS roles,
-			        (
-			            SELECT array_agg(scope_name ORDER BY scope_name)
-			            FROM (
-			                SELECT DISTINCT s.name AS scope_name
-			                FROM scopes s
-			                JOIN role_scopes rs ON s.id_scope = rs.id_scope
-			                JOIN users_roles ur ON rs.id_role = ur.id_role
-			                WHERE ur.id_user = u.id_user
-			            ) effective_scopes
-			        ) AS scopes
+			        ues.role_names AS roles,
+			        ues.scope_names AS scopes
 			    FROM users u
+			    LEFT JOIN user_effective_scopes ues ON ues.id_user = u.id_user
 			    WHERE u.username = :username
 			""", nativeQuery = true)
 	Optional<UserAuthProjection> findUserAuthByUsername(String username);
 
-	@Query(value = """
-			    SELECT u.id_user AS id,
-			           u.username AS username,
-			           u.email AS email,
-			           u.enabled AS enabled,
-			           u.is_admin AS isAdmin
-			    FROM users u
-			    WHERE (:id IS NULL OR u.id_user = :id)
-			      AND (:username IS NULL OR LOWER(u.username) LIKE CONCAT(LOWER(:username), '%'))
-			      AND (:email IS NULL OR LOWER(u.email) LIKE CONCAT(:email, '%'))
-			      AND (
-			          (:direction = 'NEXT' AND (:lastId IS NULL OR u.id_user > :lastId))
-			          OR
-			          (:direction = 'PREVIOUS' AND (:lastId IS NULL OR u.id_user < :lastId))
-			      )
-			    ORDER BY
-			      CASE WHEN :direction = 'NEXT' THEN u.id_user END ASC,
-			      CASE WHEN :direction = 'PREVIOUS' THEN u.id_user END DESC
-			    LIMIT :limit
-			""", nativeQuery = true)
-	List<UserProjection> findUsersKeyset(@Param("id") Long id, @Param("username") String username,
-			@Param("email") String email, @Param("lastId") Long lastId, @Param("limit") int limit,
-			@Param("direction") String direction);
-
 	@EntityGraph(attributePaths = {"roles"})
 	Optional<User> findFullUserById(Long id);
 }
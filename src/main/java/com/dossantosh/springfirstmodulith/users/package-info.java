@@ -1,4 +1,5 @@
-@ApplicationModule(allowedDependencies = {"authorization", "core", "core::page", "core::exceptionsCustom"})
+@ApplicationModule(allowedDependencies = {"authorization", "core", "core::page", "core::exceptionsCustom", "core::runtime",
+		"core::cache", "core::invalidation", "core::hashing"})
 package com.dossantosh.springfirstmodulith.users;
 
 import org.springframework.modulith.ApplicationModule;
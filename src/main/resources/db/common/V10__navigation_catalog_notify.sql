@@ -0,0 +1,15 @@
+-- Announces catalog changes on the cache invalidation channel as well, so
+-- other application nodes reload their navigation snapshot at once instead of
+-- at their next version stamp check. NOTIFY is only delivered on commit.
+-- The payload follows InvalidationBus: an empty sender node, then the region.
+CREATE OR REPLACE FUNCTION public.bump_navigation_catalog_version()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    UPDATE public.navigation_catalog_version SET version = version + 1 WHERE id = 1;
+    PERFORM pg_notify('cache_invalidation', '|navigation|');
+    RETURN NULL;
+END;
+$$;
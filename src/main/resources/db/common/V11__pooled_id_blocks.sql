@@ -0,0 +1,51 @@
+-- SQL-side allocation that follows Hibernate's pooled optimizer (see V7): each
+-- nextval reserves the block of `increment` ids ending at the returned value.
+-- A plain nextval per row would burn a whole block for every inserted row.
+
+-- Returns id_count ids, taking one block per `increment` ids requested.
+CREATE OR REPLACE FUNCTION public.pooled_ids(seq regclass, id_count bigint)
+    RETURNS SETOF bigint
+    LANGUAGE sql
+AS
+$$
+WITH blocks AS MATERIALIZED (SELECT nextval(seq) AS block_hi, s.seqincrement AS block_size
+                             FROM pg_catalog.pg_sequence s
+                                      CROSS JOIN generate_series(1, ceil(id_count::numeric / s.seqincrement)::bigint)
+                             WHERE s.seqrelid = seq)
+SELECT b.block_hi - b.block_size + g.n
+FROM blocks b
+         CROSS JOIN LATERAL generate_series(1, b.block_size) AS g(n)
+ORDER BY 1
+LIMIT id_count;
+$$;
+
+-- Column default for raw inserts: hands out the ids of one block per session,
+-- kept in a session setting. An aborted transaction restores the setting, so
+-- only ids that were never committed can be handed out again.
+CREATE OR REPLACE FUNCTION public.pooled_nextval(seq regclass)
+    RETURNS bigint
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    setting  text := 'pooled_ids.seq_' || seq::oid;
+    cached   text := current_setting(setting, true);
+    next_id  bigint;
+    block_hi bigint;
+BEGIN
+    IF cached IS NOT NULL AND cached <> '' THEN
+        next_id := split_part(cached, ':', 1)::bigint;
+        block_hi := split_part(cached, ':', 2)::bigint;
+    END IF;
+    IF next_id IS NULL OR next_id > block_hi THEN
+        block_hi := nextval(seq);
+        SELECT block_hi - s.seqincrement + 1 INTO next_id FROM pg_catalog.pg_sequence s WHERE s.seqrelid = seq;
+    END IF;
+    PERFORM set_config(setting, (next_id + 1) || ':' || block_hi, false);
+    RETURN next_id;
+END;
+$$;
+
+ALTER TABLE public.users ALTER COLUMN id_user SET DEFAULT public.pooled_nextval('public.users_id_user_seq');
+ALTER TABLE public.roles ALTER COLUMN id_role SET DEFAULT public.pooled_nextval('public.roles_id_role_seq');
+ALTER TABLE public.scopes ALTER COLUMN id_scope SET DEFAULT public.pooled_nextval('public.scopes_id_scope_seq');
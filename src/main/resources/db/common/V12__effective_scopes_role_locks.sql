@@ -0,0 +1,84 @@
+-- Serializes the ways a user's effective scopes can change through a role.
+-- Without it, a users_roles insert and a role_scopes change for the same role
+-- each refresh from a snapshot missing the other's uncommitted row, and the
+-- user keeps a stale row once both commit.
+-- Membership changes share-lock the role. Scope changes of a role share-lock
+-- the scopes and take the stronger no-key-update lock on the role, as
+-- renaming the role already does; renaming a scope locks the scope and then
+-- the roles holding it. Whichever transaction waits refreshes from a snapshot
+-- taken after the other one committed (READ COMMITTED). Every trigger locks
+-- scopes, then roles, then users.
+CREATE OR REPLACE FUNCTION public.users_roles_effective_scopes_trigger()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM 1
+        FROM public.roles
+        WHERE id_role IN (SELECT id_role FROM new_rows)
+        ORDER BY id_role
+        FOR SHARE;
+        PERFORM public.refresh_user_effective_scopes(ARRAY(SELECT DISTINCT id_user FROM new_rows));
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM 1
+        FROM public.roles
+        WHERE id_role IN (SELECT id_role FROM old_rows)
+        ORDER BY id_role
+        FOR SHARE;
+        PERFORM public.refresh_user_effective_scopes(ARRAY(SELECT DISTINCT id_user FROM old_rows));
+    ELSE
+        PERFORM 1
+        FROM public.roles
+        WHERE id_role IN (SELECT id_role FROM new_rows UNION SELECT id_role FROM old_rows)
+        ORDER BY id_role
+        FOR SHARE;
+        PERFORM public.refresh_user_effective_scopes(
+                ARRAY(SELECT id_user FROM new_rows UNION SELECT id_user FROM old_rows));
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.role_scopes_effective_scopes_trigger()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    role_ids  bigint[];
+    scope_ids bigint[];
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        role_ids := ARRAY(SELECT DISTINCT id_role FROM new_rows);
+        scope_ids := ARRAY(SELECT DISTINCT id_scope FROM new_rows);
+    ELSIF TG_OP = 'DELETE' THEN
+        role_ids := ARRAY(SELECT DISTINCT id_role FROM old_rows);
+        scope_ids := ARRAY(SELECT DISTINCT id_scope FROM old_rows);
+    ELSE
+        role_ids := ARRAY(SELECT id_role FROM new_rows UNION SELECT id_role FROM old_rows);
+        scope_ids := ARRAY(SELECT id_scope FROM new_rows UNION SELECT id_scope FROM old_rows);
+    END IF;
+
+    PERFORM 1 FROM public.scopes WHERE id_scope = ANY (scope_ids) ORDER BY id_scope FOR SHARE;
+    PERFORM 1 FROM public.roles WHERE id_role = ANY (role_ids) ORDER BY id_role FOR NO KEY UPDATE;
+    PERFORM public.refresh_role_members_effective_scopes(role_ids);
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.scope_renamed_effective_scopes_trigger()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    role_ids bigint[];
+BEGIN
+    role_ids := ARRAY(SELECT DISTINCT rs.id_role FROM public.role_scopes rs WHERE rs.id_scope = NEW.id_scope);
+    PERFORM 1 FROM public.roles WHERE id_role = ANY (role_ids) ORDER BY id_role FOR NO KEY UPDATE;
+    PERFORM public.refresh_role_members_effective_scopes(role_ids);
+    RETURN NULL;
+END;
+$$;
@@ -0,0 +1,14 @@
+-- Prefix search on username/email: lower(...) LIKE 'abc%' needs text_pattern_ops
+-- so the planner can turn the prefix into an index range scan under any collation.
+CREATE INDEX IF NOT EXISTS ix_users_username_lower_prefix
+    ON public.users (lower(username) text_pattern_ops);
+
+CREATE INDEX IF NOT EXISTS ix_users_email_lower_prefix
+    ON public.users (lower(email) text_pattern_ops);
+
+-- Covering index for the id-ordered listing: NEXT walks it forwards, PREVIOUS
+-- backwards, and the summary columns are served without touching the heap.
+CREATE UNIQUE INDEX IF NOT EXISTS ix_users_id_summary_covering
+    ON public.users (id_user) INCLUDE (username, email, enabled, is_admin);
+
+ANALYZE public.users;
@@ -0,0 +1,23 @@
+-- Substring and typo-tolerant search on username/email.
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+CREATE EXTENSION IF NOT EXISTS unaccent WITH SCHEMA public;
+
+-- unaccent() is only STABLE (it depends on the dictionary search path), so it
+-- cannot be used in an index expression. Pinning the dictionary makes this
+-- wrapper safe to declare IMMUTABLE and to index.
+CREATE OR REPLACE FUNCTION public.search_normalize(value text)
+    RETURNS text
+    LANGUAGE sql
+    IMMUTABLE PARALLEL SAFE STRICT
+AS $$
+SELECT lower(public.unaccent('public.unaccent'::regdictionary, value))
+$$;
+
+-- GIN trigram indexes serve both '%term%' LIKE and the similarity (%) operator.
+CREATE INDEX IF NOT EXISTS ix_users_username_trgm
+    ON public.users USING gin (public.search_normalize(username) public.gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS ix_users_email_trgm
+    ON public.users USING gin (public.search_normalize(email) public.gin_trgm_ops);
+
+ANALYZE public.users;
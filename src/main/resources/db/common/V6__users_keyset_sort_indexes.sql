@@ -0,0 +1,9 @@
+-- Keyset sorting by username/email compares (column, id_user) as a row value;
+-- a composite index lets that comparison and the ORDER BY run as one range scan.
+CREATE INDEX IF NOT EXISTS ix_users_username_id
+    ON public.users (username, id_user);
+
+CREATE INDEX IF NOT EXISTS ix_users_email_id
+    ON public.users (email, id_user);
+
+ANALYZE public.users;
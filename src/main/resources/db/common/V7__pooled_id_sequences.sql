@@ -0,0 +1,24 @@
+-- Users, roles and scopes move from IDENTITY to pooled sequences so Hibernate can
+-- pre-allocate ids and send inserts as JDBC batches (IDENTITY forces one round
+-- trip per row). The sequences step by the entity allocationSize (50); Hibernate's
+-- pooled optimizer treats each nextval as the upper bound of the block it hands out,
+-- so the first value is placed a full block above the current maximum.
+-- The column default stays on the sequence, so raw SQL inserts keep working.
+
+ALTER TABLE public.users ALTER COLUMN id_user DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS public.users_id_user_seq
+    INCREMENT BY 50 OWNED BY public.users.id_user;
+SELECT setval('public.users_id_user_seq', COALESCE((SELECT MAX(id_user) FROM public.users), 0) + 50, false);
+ALTER TABLE public.users ALTER COLUMN id_user SET DEFAULT nextval('public.users_id_user_seq');
+
+ALTER TABLE public.roles ALTER COLUMN id_role DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS public.roles_id_role_seq
+    INCREMENT BY 50 OWNED BY public.roles.id_role;
+SELECT setval('public.roles_id_role_seq', COALESCE((SELECT MAX(id_role) FROM public.roles), 0) + 50, false);
+ALTER TABLE public.roles ALTER COLUMN id_role SET DEFAULT nextval('public.roles_id_role_seq');
+
+ALTER TABLE public.scopes ALTER COLUMN id_scope DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS public.scopes_id_scope_seq
+    INCREMENT BY 50 OWNED BY public.scopes.id_scope;
+SELECT setval('public.scopes_id_scope_seq', COALESCE((SELECT MAX(id_scope) FROM public.scopes), 0) + 50, false);
+ALTER TABLE public.scopes ALTER COLUMN id_scope SET DEFAULT nextval('public.scopes_id_scope_seq');
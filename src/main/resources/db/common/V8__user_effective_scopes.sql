@@ -0,0 +1,170 @@
+-- Read model for logins: one row per user holding their role names and the
+-- distinct scope names granted through those roles, so the login lookup is a
+-- primary-key read instead of two aggregations over the join tables.
+-- Triggers keep it current: changing a user's roles refreshes that user, and
+-- changing a role's scopes (or renaming a role or scope) refreshes every
+-- member of the affected roles in one set-based statement.
+CREATE TABLE IF NOT EXISTS public.user_effective_scopes
+(
+    id_user     bigint NOT NULL,
+    role_names  text[],
+    scope_names text[],
+    CONSTRAINT user_effective_scopes_pkey PRIMARY KEY (id_user),
+    CONSTRAINT fk_user_effective_scopes_user FOREIGN KEY (id_user) REFERENCES public.users (id_user) ON DELETE CASCADE
+);
+
+CREATE OR REPLACE FUNCTION public.refresh_user_effective_scopes(user_ids bigint[])
+    RETURNS void
+    LANGUAGE sql
+AS
+$$
+-- Serializes concurrent refreshes of the same user; the next statement then
+-- reads a snapshot that includes whatever the other transaction committed.
+SELECT count(*)
+FROM (SELECT 1 FROM public.users WHERE id_user = ANY (user_ids) ORDER BY id_user FOR UPDATE) locked;
+
+INSERT INTO public.user_effective_scopes (id_user, role_names, scope_names)
+SELECT u.id_user,
+       (SELECT array_agg(r.name ORDER BY r.name)
+        FROM public.users_roles ur
+                 JOIN public.roles r ON r.id_role = ur.id_role
+        WHERE ur.id_user = u.id_user),
+       (SELECT array_agg(DISTINCT s.name ORDER BY s.name)
+        FROM public.users_roles ur
+                 JOIN public.role_scopes rs ON rs.id_role = ur.id_role
+                 JOIN public.scopes s ON s.id_scope = rs.id_scope
+        WHERE ur.id_user = u.id_user)
+FROM public.users u
+WHERE u.id_user = ANY (user_ids)
+ON CONFLICT (id_user) DO UPDATE SET role_names  = EXCLUDED.role_names,
+                                    scope_names = EXCLUDED.scope_names;
+$$;
+
+CREATE OR REPLACE FUNCTION public.refresh_role_members_effective_scopes(role_ids bigint[])
+    RETURNS void
+    LANGUAGE sql
+AS
+$$
+SELECT public.refresh_user_effective_scopes(
+               ARRAY(SELECT DISTINCT ur.id_user FROM public.users_roles ur WHERE ur.id_role = ANY (role_ids)));
+$$;
+
+CREATE OR REPLACE FUNCTION public.users_roles_effective_scopes_trigger()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM public.refresh_user_effective_scopes(ARRAY(SELECT DISTINCT id_user FROM new_rows));
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM public.refresh_user_effective_scopes(ARRAY(SELECT DISTINCT id_user FROM old_rows));
+    ELSE
+        PERFORM public.refresh_user_effective_scopes(
+                ARRAY(SELECT id_user FROM new_rows UNION SELECT id_user FROM old_rows));
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.role_scopes_effective_scopes_trigger()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM public.refresh_role_members_effective_scopes(ARRAY(SELECT DISTINCT id_role FROM new_rows));
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM public.refresh_role_members_effective_scopes(ARRAY(SELECT DISTINCT id_role FROM old_rows));
+    ELSE
+        PERFORM public.refresh_role_members_effective_scopes(
+                ARRAY(SELECT id_role FROM new_rows UNION SELECT id_role FROM old_rows));
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.role_renamed_effective_scopes_trigger()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    PERFORM public.refresh_role_members_effective_scopes(ARRAY [NEW.id_role]);
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.scope_renamed_effective_scopes_trigger()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    PERFORM public.refresh_role_members_effective_scopes(
+            ARRAY(SELECT rs.id_role FROM public.role_scopes rs WHERE rs.id_scope = NEW.id_scope));
+    RETURN NULL;
+END;
+$$;
+
+-- Transition tables need one trigger per event.
+CREATE OR REPLACE TRIGGER trg_users_roles_effective_scopes_ins
+    AFTER INSERT
+    ON public.users_roles
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION public.users_roles_effective_scopes_trigger();
+
+CREATE OR REPLACE TRIGGER trg_users_roles_effective_scopes_del
+    AFTER DELETE
+    ON public.users_roles
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION public.users_roles_effective_scopes_trigger();
+
+CREATE OR REPLACE TRIGGER trg_users_roles_effective_scopes_upd
+    AFTER UPDATE
+    ON public.users_roles
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION public.users_roles_effective_scopes_trigger();
+
+CREATE OR REPLACE TRIGGER trg_role_scopes_effective_scopes_ins
+    AFTER INSERT
+    ON public.role_scopes
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION public.role_scopes_effective_scopes_trigger();
+
+CREATE OR REPLACE TRIGGER trg_role_scopes_effective_scopes_del
+    AFTER DELETE
+    ON public.role_scopes
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION public.role_scopes_effective_scopes_trigger();
+
+CREATE OR REPLACE TRIGGER trg_role_scopes_effective_scopes_upd
+    AFTER UPDATE
+    ON public.role_scopes
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION public.role_scopes_effective_scopes_trigger();
+
+CREATE OR REPLACE TRIGGER trg_roles_renamed_effective_scopes
+    AFTER UPDATE OF name
+    ON public.roles
+    FOR EACH ROW
+    WHEN (OLD.name IS DISTINCT FROM NEW.name)
+EXECUTE FUNCTION public.role_renamed_effective_scopes_trigger();
+
+CREATE OR REPLACE TRIGGER trg_scopes_renamed_effective_scopes
+    AFTER UPDATE OF name
+    ON public.scopes
+    FOR EACH ROW
+    WHEN (OLD.name IS DISTINCT FROM NEW.name)
+EXECUTE FUNCTION public.scope_renamed_effective_scopes_trigger();
+
+SELECT public.refresh_user_effective_scopes(ARRAY(SELECT id_user FROM public.users));
+
+ANALYZE public.user_effective_scopes;
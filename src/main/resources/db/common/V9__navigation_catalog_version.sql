@@ -0,0 +1,50 @@
+-- Version stamp for the navigation catalog: modules, submodules and the scopes
+-- each submodule requires. The application keeps the catalog in memory and
+-- only reloads it when this number moves, so every statement touching those
+-- tables (or renaming a scope) bumps it.
+CREATE TABLE IF NOT EXISTS public.navigation_catalog_version
+(
+    id      smallint NOT NULL DEFAULT 1,
+    version bigint   NOT NULL DEFAULT 1,
+    CONSTRAINT navigation_catalog_version_pkey PRIMARY KEY (id),
+    CONSTRAINT navigation_catalog_version_single_row CHECK (id = 1)
+);
+
+INSERT INTO public.navigation_catalog_version (id, version)
+VALUES (1, 1)
+ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION public.bump_navigation_catalog_version()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    UPDATE public.navigation_catalog_version SET version = version + 1 WHERE id = 1;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE TRIGGER trg_modules_navigation_catalog_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE
+    ON public.modules
+    FOR EACH STATEMENT
+EXECUTE FUNCTION public.bump_navigation_catalog_version();
+
+CREATE OR REPLACE TRIGGER trg_submodules_navigation_catalog_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE
+    ON public.submodules
+    FOR EACH STATEMENT
+EXECUTE FUNCTION public.bump_navigation_catalog_version();
+
+CREATE OR REPLACE TRIGGER trg_submodule_required_scopes_navigation_catalog_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE
+    ON public.submodule_required_scopes
+    FOR EACH STATEMENT
+EXECUTE FUNCTION public.bump_navigation_catalog_version();
+
+CREATE OR REPLACE TRIGGER trg_scopes_renamed_navigation_catalog_version
+    AFTER UPDATE OF name
+    ON public.scopes
+    FOR EACH STATEMENT
+EXECUTE FUNCTION public.bump_navigation_catalog_version();
@@ -0,0 +1,136 @@
+package com.dossantosh.springfirstmodulith.authorization;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScopeSetTest {
+
+	private Runnable restoreRegistry;
+
+	@BeforeEach
+	void setUp() throws ReflectiveOperationException {
+		restoreRegistry = snapshotRegistry();
+	}
+
+	@AfterEach
+	void tearDown() {
+		restoreRegistry.run();
+	}
+
+	@Test
+	void declaredScopes_coverAuthorizationScopes() {
+		assertThat(ScopeRegistry.DECLARED).containsExactlyInAnyOrderElementsOf(AuthorizationScopes.ALL);
+		for (int i = 0; i < ScopeRegistry.DECLARED.size(); i++) {
+			assertThat(ScopeRegistry.indexOf(ScopeRegistry.DECLARED.get(i))).isEqualTo(i);
+		}
+	}
+
+	@Test
+	void contains_testsOnlyTheGrantedBits() {
+		ScopeSet scopes = ScopeSet.of(List.of(AuthorizationScopes.SYSTEMS_WRITE, AuthorizationScopes.PERFUMES_READ));
+
+		assertThat(scopes.contains(AuthorizationScopes.SYSTEMS_WRITE)).isTrue();
+		assertThat(scopes.contains(AuthorizationScopes.PERFUMES_READ)).isTrue();
+		assertThat(scopes.contains(AuthorizationScopes.SYSTEMS_READ)).isFalse();
+		assertThat(scopes.contains("never:registered")).isFalse();
+		assertThat(scopes.contains((String) null)).isFalse();
+		assertThat(scopes.names())
+				.containsExactly(AuthorizationScopes.PERFUMES_READ, AuthorizationScopes.SYSTEMS_WRITE);
+		assertThat(scopes.intersects(ScopeSet.of(List.of(AuthorizationScopes.PERFUMES_READ, "x:y")))).isTrue();
+		assertThat(scopes.intersects(ScopeSet.of(List.of(AuthorizationScopes.SYSTEMS_READ)))).isFalse();
+		assertThat(scopes.intersects(ScopeSet.empty())).isFalse();
+	}
+
+	@Test
+	void of_declaredBitsAndNames_rebuildsTheSameSet() {
+		ScopeSet scopes = ScopeSet.of(List.of(AuthorizationScopes.PERFUMES_WRITE, "reports:export"));
+
+		ScopeSet rebuilt = ScopeSet.of(scopes.declaredBits(), scopes.undeclaredNames());
+
+		assertThat(scopes.undeclaredNames()).containsExactly("reports:export");
+		assertThat(rebuilt).isEqualTo(scopes);
+		assertThat(ScopeSet.isKnownDeclaredBits(scopes.declaredBits())).isTrue();
+		assertThat(ScopeSet.isKnownDeclaredBits(1L << 63)).isFalse();
+		assertThatThrownBy(() -> ScopeSet.of(1L << 63, List.of())).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void of_growsPastOneWord_forTableOnlyScopes() {
+		List<String> many = IntStream.range(0, 70).mapToObj(i -> "bulk:" + i).toList();
+
+		ScopeSet scopes = ScopeSet.of(many);
+
+		assertThat(scopes.contains("bulk:0")).isTrue();
+		assertThat(scopes.contains("bulk:69")).isTrue();
+		assertThat(scopes.names()).hasSize(70);
+	}
+
+	@Test
+	void serialization_roundTripsDeclaredAndOtherScopes() throws Exception {
+		ScopeSet scopes = ScopeSet.of(List.of(AuthorizationScopes.SYSTEMS_READ, "reports:read"));
+
+		ScopeSet copy = roundTrip(scopes);
+
+		assertThat(copy).isEqualTo(scopes);
+		assertThat(copy.contains(AuthorizationScopes.SYSTEMS_READ)).isTrue();
+		assertThat(copy.contains("reports:read")).isTrue();
+	}
+
+	@Test
+	void emptySet_isEqualToSetWithClearedWords() throws Exception {
+		assertThat(roundTrip(ScopeSet.empty())).isEqualTo(ScopeSet.empty());
+		assertThat(ScopeSet.of(List.of())).isSameAs(ScopeSet.empty());
+		assertThat(ScopeSet.empty().isEmpty()).isTrue();
+	}
+
+	/**
+	 * Lets a test register scopes without leaving them to later tests: the
+	 * returned action forgets the scopes registered after the snapshot, so
+	 * positions handed out before it keep their meaning. Kept out of
+	 * {@link ScopeRegistry} so production code cannot remap scopes.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Runnable snapshotRegistry() throws ReflectiveOperationException {
+		Field indicesField = ScopeRegistry.class.getDeclaredField("INDICES");
+		Field namesField = ScopeRegistry.class.getDeclaredField("names");
+		indicesField.setAccessible(true);
+		namesField.setAccessible(true);
+		Map<String, Integer> indices = (Map<String, Integer>) indicesField.get(null);
+		int registered = ((String[]) namesField.get(null)).length;
+		return () -> {
+			synchronized (ScopeRegistry.class) {
+				try {
+					indices.values().removeIf(index -> index >= registered);
+					namesField.set(null, Arrays.copyOf((String[]) namesField.get(null), registered));
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+	}
+
+	private static ScopeSet roundTrip(ScopeSet scopes) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(scopes);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (ScopeSet) in.readObject();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.dossantosh.springfirstmodulith.core.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringCacheTest {
+
+	private final AtomicLong now = new AtomicLong();
+
+	@Test
+	void get_afterTtl_returnsNullAndDropsEntry() {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, Duration.ofSeconds(5), now::get);
+		cache.put("a", 1);
+
+		now.addAndGet(Duration.ofSeconds(4).toNanos());
+		assertThat(cache.get("a")).isEqualTo(1);
+
+		now.addAndGet(Duration.ofSeconds(1).toNanos());
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	void invalidateValuesIf_dropsOnlyMatchingValues() {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, Duration.ofMinutes(1), now::get);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.put("c", 1);
+
+		cache.invalidateValuesIf(value -> value == 1);
+
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.get("b")).isEqualTo(2);
+		assertThat(cache.get("c")).isNull();
+	}
+
+	@Test
+	void put_beyondCapacity_evictsLeastRecentlyUsed() {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(2, Duration.ofMinutes(1), now::get);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.get("a");
+
+		cache.put("c", 3);
+
+		assertThat(cache.get("a")).isEqualTo(1);
+		assertThat(cache.get("b")).isNull();
+		assertThat(cache.get("c")).isEqualTo(3);
+	}
+
+	@Test
+	void invalidateIf_removesMatchingKeysOnly() {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, Duration.ofMinutes(1), now::get);
+		cache.put("prod:1", 1);
+		cache.put("historic:1", 2);
+
+		cache.invalidateIf(key -> key.startsWith("prod:"));
+
+		assertThat(cache.get("prod:1")).isNull();
+		assertThat(cache.get("historic:1")).isEqualTo(2);
+	}
+}
@@ -0,0 +1,81 @@
+package com.dossantosh.springfirstmodulith.core.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+	private final AtomicLong now = new AtomicLong();
+
+	@Test
+	void execute_concurrentCallersShareOneLoad() throws Exception {
+		SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ZERO, now::get);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<Integer> first = executor.submit(() -> flight.execute("k", () -> {
+				loading.countDown();
+				await(release);
+				return loads.incrementAndGet();
+			}));
+			loading.await();
+			Future<Integer> second = executor.submit(() -> flight.execute("k", loads::incrementAndGet));
+			while (flight.coalesced() == 0) {
+				Thread.onSpinWait();
+			}
+			release.countDown();
+
+			assertThat(first.get()).isEqualTo(1);
+			assertThat(second.get()).isEqualTo(1);
+		}
+		assertThat(flight.executed()).isEqualTo(1);
+		assertThat(flight.coalesced()).isEqualTo(1);
+	}
+
+	@Test
+	void execute_reusesResultWithinGrace_thenLoadsAgain() {
+		SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofMillis(100), now::get);
+		AtomicInteger loads = new AtomicInteger();
+
+		assertThat(flight.execute("k", loads::incrementAndGet)).isEqualTo(1);
+		now.addAndGet(Duration.ofMillis(50).toNanos());
+		assertThat(flight.execute("k", loads::incrementAndGet)).isEqualTo(1);
+		now.addAndGet(Duration.ofMillis(50).toNanos());
+		assertThat(flight.execute("k", loads::incrementAndGet)).isEqualTo(2);
+
+		flight.forget();
+		assertThat(flight.execute("k", loads::incrementAndGet)).isEqualTo(3);
+	}
+
+	@Test
+	void execute_doesNotReuseFailures() {
+		SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofMinutes(1), now::get);
+
+		assertThatThrownBy(() -> flight.execute("k", () -> {
+			throw new IllegalStateException("boom");
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(flight.execute("k", () -> 7)).isEqualTo(7);
+		assertThat(flight.executed()).isEqualTo(2);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
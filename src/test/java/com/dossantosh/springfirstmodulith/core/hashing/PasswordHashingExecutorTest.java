@@ -0,0 +1,68 @@
+package com.dossantosh.springfirstmodulith.core.hashing;
+
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingExecutorTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, meterRegistry);
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void call_runsOnHashingThread_andRecordsLatency() {
+		String thread = executor.call(() -> Thread.currentThread().getName());
+
+		assertThat(thread).startsWith("password-hash-");
+		assertThat(meterRegistry.timer("security.password.hashing").count()).isEqualTo(1);
+	}
+
+	@Test
+	void call_fromHashingThread_runsInline() {
+		String nested = executor.call(() -> executor.call(() -> Thread.currentThread().getName()));
+
+		assertThat(nested).startsWith("password-hash-");
+	}
+
+	@Test
+	void call_whenQueueIsFull_rejectsWithServiceBusy() throws InterruptedException {
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		executor.submit(() -> {
+			running.countDown();
+			awaitQuietly(release);
+			return null;
+		});
+		running.await();
+		for (int i = 0; i < 32; i++) {
+			executor.submit(() -> null);
+		}
+
+		assertThat(meterRegistry.get("security.password.hashing.queue").gauge().value()).isEqualTo(32);
+		assertThatThrownBy(() -> executor.call(() -> "late")).isInstanceOf(ServiceBusyException.class)
+				.extracting(e -> ((ServiceBusyException) e).retryAfter())
+				.isEqualTo(PasswordHashingExecutor.RETRY_AFTER);
+		assertThat(meterRegistry.counter("security.password.hashing.rejected").count()).isEqualTo(1);
+
+		release.countDown();
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
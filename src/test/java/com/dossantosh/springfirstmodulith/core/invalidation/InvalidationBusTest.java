@@ -0,0 +1,131 @@
+package com.dossantosh.springfirstmodulith.core.invalidation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DriverManager;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two buses on one PostgreSQL container stand in for two application nodes.
+ */
+class InvalidationBusTest {
+
+	private static final String URL = "jdbc:tc:postgresql:17-alpine:///invalidation?TC_DAEMON=true";
+	private static final String FLUSH = "*";
+
+	private final DriverManagerDataSource dataSource = new DriverManagerDataSource(URL);
+	private final RecordingHandler first = new RecordingHandler();
+	private final RecordingHandler second = new RecordingHandler();
+	private final InvalidationBus firstNode = bus(first);
+	private final InvalidationBus secondNode = bus(second);
+
+	@AfterEach
+	void tearDown() {
+		firstNode.stop();
+		secondNode.stop();
+	}
+
+	@Test
+	void publish_reachesOtherNodes_butNotItself() throws InterruptedException {
+		startAndAwaitFlush();
+
+		firstNode.publish(CacheInvalidation.of("users", 42L));
+		firstNode.publish(CacheInvalidation.all("role-scopes"));
+
+		assertThat(second.next()).isEqualTo("users:42");
+		assertThat(second.next()).isEqualTo("role-scopes:");
+		assertThat(first.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+	}
+
+	@Test
+	void notificationsWithoutNode_reachEveryNode_andOnlyAfterCommit() throws InterruptedException {
+		startAndAwaitFlush();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		String notify = "select pg_notify('" + InvalidationBus.CHANNEL + "', '|navigation|')";
+
+		transaction.executeWithoutResult(status -> {
+			jdbcTemplate.queryForList(notify);
+			status.setRollbackOnly();
+		});
+		transaction.executeWithoutResult(status -> jdbcTemplate.queryForList(notify));
+
+		assertThat(first.next()).isEqualTo("navigation:");
+		assertThat(second.next()).isEqualTo("navigation:");
+		assertThat(first.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+	}
+
+	@Test
+	void lostListeningConnection_isReplaced_andFlushes() throws InterruptedException {
+		startAndAwaitFlush();
+
+		new JdbcTemplate(dataSource).queryForList("""
+				select pg_terminate_backend(pid) from pg_stat_activity
+				where pid <> pg_backend_pid() and datname = current_database()
+				  and query in ('SELECT 1', 'LISTEN %s')""".formatted(InvalidationBus.CHANNEL));
+
+		assertThat(first.next()).isEqualTo(FLUSH);
+		assertThat(second.next()).isEqualTo(FLUSH);
+		firstNode.publish(CacheInvalidation.of("users", 7L));
+		assertThat(second.next()).isEqualTo("users:7");
+	}
+
+	@Test
+	void dispatch_flushesEverything_whenMessageIsUnreadableOrHandlerFails() {
+		second.failing = true;
+
+		secondNode.dispatch("garbage");
+		secondNode.dispatch("node||key");
+		secondNode.dispatch("node|users|x");
+
+		assertThat(List.copyOf(second.events)).containsExactly(FLUSH, FLUSH, FLUSH);
+	}
+
+	private void startAndAwaitFlush() throws InterruptedException {
+		firstNode.start();
+		secondNode.start();
+		// Each node flushes once its listening connection is up.
+		assertThat(first.next()).isEqualTo(FLUSH);
+		assertThat(second.next()).isEqualTo(FLUSH);
+	}
+
+	private InvalidationBus bus(RecordingHandler handler) {
+		return new InvalidationBus(Map.of("prod", () -> DriverManager.getConnection(URL)), dataSource, List.of(handler),
+				new SimpleMeterRegistry());
+	}
+
+	private static final class RecordingHandler implements InvalidationHandler {
+
+		private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+		private volatile boolean failing;
+
+		@Override
+		public void invalidate(CacheInvalidation invalidation) {
+			if (failing) {
+				throw new IllegalStateException("cannot evict");
+			}
+			events.add(invalidation.region() + ":" + (invalidation.isRegionWide() ? "" : invalidation.key()));
+		}
+
+		@Override
+		public void invalidateAll() {
+			events.add(FLUSH);
+		}
+
+		private String next() throws InterruptedException {
+			return events.poll(30, TimeUnit.SECONDS);
+		}
+	}
+}
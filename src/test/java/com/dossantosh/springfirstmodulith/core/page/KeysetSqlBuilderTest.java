@@ -0,0 +1,79 @@
+package com.dossantosh.springfirstmodulith.core.page;
+
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetSqlBuilderTest {
+
+	private final KeysetSqlBuilder builder = KeysetSqlBuilder.tiebreaker("id", "t.id")
+			.sortable("name", "t.name")
+			.sortable("price", "t.price", Long::valueOf);
+
+	@Test
+	void build_firstPage_ordersBySortColumnThenTiebreaker_withoutPredicate() {
+		var clause = builder.build("name", null, Direction.NEXT);
+
+		assertThat(clause.predicate()).isNull();
+		assertThat(clause.orderBy()).isEqualTo("t.name ASC, t.id ASC");
+		assertThat(clause.parameters()).isEmpty();
+	}
+
+	@Test
+	void build_next_usesRowValueComparison() {
+		var clause = builder.build("name", KeysetCursor.of("name", "bob", 7L), Direction.NEXT);
+
+		assertThat(clause.predicate()).isEqualTo("(t.name, t.id) > (:keysetValue, :keysetId)");
+		assertThat(clause.parameters()).isEqualTo(Map.of("keysetValue", "bob", "keysetId", 7L));
+	}
+
+	@Test
+	void build_previous_flipsComparisonAndOrdering() {
+		var clause = builder.build("price", KeysetCursor.of("price", "120", 7L), Direction.PREVIOUS);
+
+		assertThat(clause.predicate()).isEqualTo("(t.price, t.id) < (:keysetValue, :keysetId)");
+		assertThat(clause.orderBy()).isEqualTo("t.price DESC, t.id DESC");
+		assertThat(clause.parameters()).containsEntry("keysetValue", 120L);
+	}
+
+	@Test
+	void build_withoutSortKey_pagesByTiebreakerOnly() {
+		var clause = builder.build(null, KeysetCursor.of("id", null, 3L), Direction.NEXT);
+
+		assertThat(clause.sortKey()).isEqualTo("id");
+		assertThat(clause.predicate()).isEqualTo("t.id > :keysetId");
+		assertThat(clause.orderBy()).isEqualTo("t.id ASC");
+	}
+
+	@Test
+	void build_rejectsUnknownSortAndForeignCursor() {
+		assertThatThrownBy(() -> builder.build("password", null, Direction.NEXT))
+				.isInstanceOf(BusinessException.class);
+		assertThatThrownBy(() -> builder.build("name", KeysetCursor.of("price", "1", 1L), Direction.NEXT))
+				.isInstanceOf(BusinessException.class);
+		assertThatThrownBy(() -> builder.build("price", KeysetCursor.of("price", "abc", 1L), Direction.NEXT))
+				.isInstanceOf(BusinessException.class);
+	}
+
+	@Test
+	void cursor_roundTripsThroughOpaqueToken() {
+		KeysetCursor cursor = KeysetCursor.of("name", "José, \"quoted\"", 42L);
+
+		String token = cursor.encode();
+
+		assertThat(token).doesNotContain("José");
+		assertThat(KeysetCursor.decode(token)).isEqualTo(cursor);
+	}
+
+	@Test
+	void cursor_decode_rejectsGarbage() {
+		assertThat(KeysetCursor.decode(null)).isNull();
+		assertThatThrownBy(() -> KeysetCursor.decode("not-a-cursor!"))
+				.isInstanceOf(BusinessException.class);
+		assertThatThrownBy(() -> KeysetCursor.decode("AQ")).isInstanceOf(BusinessException.class);
+	}
+}
@@ -5,9 +5,12 @@ import com.dossantosh.springfirstmodulith.authorization.AuthorizationScopes;
 import com.dossantosh.springfirstmodulith.security.AuthorizationService;
 import com.dossantosh.springfirstmodulith.security.api.AuthController;
 import com.dossantosh.springfirstmodulith.security.login.CustomUserDetailsService;
+import com.dossantosh.springfirstmodulith.security.session.AccessEpochs;
 import com.dossantosh.springfirstmodulith.security.session.CurrentSessionDataViewProvider;
 import com.dossantosh.springfirstmodulith.users.api.ports.navigation.NavigationCatalogQuery;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.AfterEach;
@@ -25,17 +28,22 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
 @ContextConfiguration(classes = SpringfirstmodulithApplication.class)
-@Import({UserAuthScopesIntegrationTest.TestConfig.class, CustomUserDetailsService.class,
+@Import({UserAuthScopesIntegrationTest.TestConfig.class, CustomUserDetailsService.class, AccessEpochs.class,
 		CurrentSessionDataViewProvider.class, AuthorizationService.class, AuthController.class})
 @TestPropertySource(properties = {"spring.datasource.url=jdbc:tc:postgresql:17-alpine:///testdb",
 		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
 		"spring.jpa.hibernate.ddl-auto=create-drop"})
+@Sql(scripts = "classpath:db/common/V8__user_effective_scopes.sql",
+		config = @SqlConfig(separator = ScriptUtils.EOF_STATEMENT_SEPARATOR))
 class UserAuthScopesIntegrationTest {
 
 	private final ObjectMapper objectMapper = new ObjectMapper();
@@ -58,6 +66,16 @@ class UserAuthScopesIntegrationTest {
 		NavigationCatalogQuery navigationCatalogQuery() {
 			return scopes -> java.util.List.of();
 		}
+
+		@Bean
+		ObjectMapper objectMapper() {
+			return new ObjectMapper();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
 	}
 
 	@AfterEach
@@ -66,7 +84,7 @@ class UserAuthScopesIntegrationTest {
 	}
 
 	@Test
-	void me_returnsRoleDerivedScopesOnly() {
+	void me_returnsRoleDerivedScopesOnly() throws Exception {
 		long userId = insertUser("john", "john@example.com", "hashedpw", true, false);
 		long systemsRole = insertRole("SYSTEMS");
 		long perfumesRole = insertRole("PERFUMES");
@@ -95,11 +113,11 @@ class UserAuthScopesIntegrationTest {
 				userDetails.getAuthorities());
 		SecurityContextHolder.getContext().setAuthentication(authentication);
 
-		var response = authController.me(authentication, new MockHttpSession());
+		var response = authController.me(authentication, new MockHttpSession(), null);
 
 		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
 
-		var json = objectMapper.valueToTree(response.getBody());
+		var json = objectMapper.readTree((byte[]) response.getBody());
 		assertThat(json.has("authorities")).isFalse();
 		assertThat(json.path("scopes").size()).isEqualTo(4);
 		assertThat(json.path("username").asText()).isEqualTo("john");
@@ -109,7 +127,7 @@ class UserAuthScopesIntegrationTest {
 	}
 
 	@Test
-	void me_doesNotGrantScopesFromRolesWithoutRoleScopes() {
+	void me_doesNotGrantScopesFromRolesWithoutRoleScopes() throws Exception {
 		long userId = insertUser("metadata-only", "metadata@example.com", "hashedpw", true, false);
 		long userRole = insertRole("SYSTEMS");
 
@@ -125,19 +143,19 @@ class UserAuthScopesIntegrationTest {
 		var authentication = new UsernamePasswordAuthenticationToken(userDetails, userDetails.getPassword(),
 				userDetails.getAuthorities());
 		SecurityContextHolder.getContext().setAuthentication(authentication);
-		var response = authController.me(authentication, new MockHttpSession());
+		var response = authController.me(authentication, new MockHttpSession(), null);
 
 		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
 
-		var json = objectMapper.valueToTree(response.getBody());
+		var json = objectMapper.readTree((byte[]) response.getBody());
 		assertThat(json.path("scopes").isEmpty()).isTrue();
 		assertThat(json.path("roles").get(0).asText()).isEqualTo("SYSTEMS");
 	}
 
 	private long insertUser(String username, String email, String password, boolean enabled, boolean isAdmin) {
 		return ((Number) em.createNativeQuery("""
-				INSERT INTO users (username, email, password, enabled, is_admin)
-				VALUES (:u, :e, :p, :en, :adm)
+				INSERT INTO users (id_user, username, email, password, enabled, is_admin)
+				VALUES (nextval('users_id_user_seq'), :u, :e, :p, :en, :adm)
 				RETURNING id_user
 				""").setParameter("u", username).setParameter("e", email).setParameter("p", password)
 				.setParameter("en", enabled).setParameter("adm", isAdmin).getSingleResult()).longValue();
@@ -145,14 +163,14 @@ class UserAuthScopesIntegrationTest {
 
 	private long insertRole(String name) {
 		return ((Number) em.createNativeQuery("""
-				INSERT INTO roles (name) VALUES (:n)
+				INSERT INTO roles (id_role, name) VALUES (nextval('roles_id_role_seq'), :n)
 				RETURNING id_role
 				""").setParameter("n", name).getSingleResult()).longValue();
 	}
 
 	private long insertScope(String name) {
 		return ((Number) em.createNativeQuery("""
-				INSERT INTO scopes (name) VALUES (:n)
+				INSERT INTO scopes (id_scope, name) VALUES (nextval('scopes_id_scope_seq'), :n)
 				RETURNING id_scope
 				""").setParameter("n", name).getSingleResult()).longValue();
 	}
@@ -0,0 +1,197 @@
+package com.dossantosh.springfirstmodulith.security;
+
+import com.dossantosh.springfirstmodulith.authorization.AuthorizationScopes;
+import com.dossantosh.springfirstmodulith.authorization.RequireScope;
+import com.dossantosh.springfirstmodulith.security.login.CustomUserDetails;
+import com.dossantosh.springfirstmodulith.users.api.ports.login.UserAuthView;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.util.SimpleMethodInvocation;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringJUnitConfig(classes = {MethodSecurityConfig.class, AuthorizationService.class, Permissions.class,
+		ScopeAuthorizationManagerTest.TestConfig.class})
+class ScopeAuthorizationManagerTest {
+
+	@jakarta.annotation.Resource
+	private Guarded guarded;
+
+	@jakarta.annotation.Resource
+	private WriteGuarded writeGuarded;
+
+	@jakarta.annotation.Resource
+	private AuthorizationService authorizationService;
+
+	@jakarta.annotation.Resource
+	private ApplicationContext applicationContext;
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	@WithMockUser(authorities = AuthorizationScopes.SYSTEMS_READ)
+	void requireScope_matchAll_needsEveryScope() {
+		assertThat(guarded.read()).isTrue();
+		assertThatThrownBy(guarded::readAndWrite).isInstanceOf(AccessDeniedException.class);
+	}
+
+	@Test
+	@WithMockUser(authorities = AuthorizationScopes.PERFUMES_READ)
+	void requireScope_matchAny_needsOneScope() {
+		assertThat(guarded.perfumesOrSystemsWrite()).isTrue();
+		assertThatThrownBy(guarded::read).isInstanceOf(AccessDeniedException.class);
+	}
+
+	@Test
+	@WithMockUser
+	void requireScope_onClass_appliesToUnannotatedMethods() {
+		assertThatThrownBy(writeGuarded::inherited).isInstanceOf(AccessDeniedException.class);
+	}
+
+	@Test
+	void requireScope_withCustomUserDetails_testsPrincipalBits() {
+		authenticate(AuthorizationScopes.SYSTEMS_READ, AuthorizationScopes.SYSTEMS_WRITE);
+
+		assertThat(guarded.read()).isTrue();
+		assertThat(guarded.readAndWrite()).isTrue();
+		assertThat(guarded.perfumesOrSystemsWrite()).isTrue();
+		assertThat(writeGuarded.inherited()).isTrue();
+	}
+
+	@Test
+	void requireScope_withoutAuthentication_isDenied() {
+		assertThatThrownBy(guarded::read).isInstanceOf(AccessDeniedException.class);
+	}
+
+	@Test
+	void requireScope_decidesLikeTheSpelExpressionItReplaced() {
+		authenticate(AuthorizationScopes.SYSTEMS_READ);
+		assertThat(guarded.read()).isTrue();
+		assertThat(guarded.spelRead()).isTrue();
+
+		authenticate(AuthorizationScopes.PERFUMES_READ);
+		assertThatThrownBy(guarded::read).isInstanceOf(AccessDeniedException.class);
+		assertThatThrownBy(guarded::spelRead).isInstanceOf(AccessDeniedException.class);
+	}
+
+	/**
+	 * Time per decision of {@link ScopeAuthorizationManager} against the
+	 * {@code @PreAuthorize} expression it replaced, on the same principal.
+	 * Opt-in with {@code -Dbenchmarks=true}; results go to the JUnit report.
+	 */
+	@Test
+	@Tag("benchmark")
+	@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+	void benchmark_requireScopeAgainstSpel(TestReporter reporter) throws NoSuchMethodException {
+		Authentication authentication = authenticate(AuthorizationScopes.SYSTEMS_READ);
+		Guarded target = new Guarded();
+		MethodInvocation annotated = new SimpleMethodInvocation(target, Guarded.class.getMethod("read"));
+		MethodInvocation expression = new SimpleMethodInvocation(target, Guarded.class.getMethod("spelRead"));
+		ScopeAuthorizationManager requireScope = new ScopeAuthorizationManager(authorizationService);
+		DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+		expressionHandler.setApplicationContext(applicationContext);
+		PreAuthorizeAuthorizationManager preAuthorize = new PreAuthorizeAuthorizationManager();
+		preAuthorize.setExpressionHandler(expressionHandler);
+		int iterations = 200_000;
+
+		for (int round = 1; round <= 5; round++) {
+			reporter.publishEntry("round " + round, "@RequireScope %d ns/decision, @PreAuthorize %d ns/decision"
+					.formatted(nanosPerDecision(requireScope, authentication, annotated, iterations),
+							nanosPerDecision(preAuthorize, authentication, expression, iterations)));
+		}
+	}
+
+	private static long nanosPerDecision(AuthorizationManager<MethodInvocation> manager,
+			Authentication authentication, MethodInvocation invocation, int iterations) {
+		int granted = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			if (manager.authorize(() -> authentication, invocation).isGranted()) {
+				granted++;
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		assertThat(granted).isEqualTo(iterations);
+		return elapsed / iterations;
+	}
+
+	private static Authentication authenticate(String... scopes) {
+		CustomUserDetails userDetails = CustomUserDetails
+				.from(new UserAuthView(1L, "john", "john@example.com", "pw", true, false, List.of(), List.of(scopes)));
+		Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(userDetails, null,
+				userDetails.getAuthorities());
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+		return authentication;
+	}
+
+	public static class Guarded {
+
+		@RequireScope(AuthorizationScopes.SYSTEMS_READ)
+		public boolean read() {
+			return true;
+		}
+
+		@RequireScope({AuthorizationScopes.SYSTEMS_READ, AuthorizationScopes.SYSTEMS_WRITE})
+		public boolean readAndWrite() {
+			return true;
+		}
+
+		@RequireScope(value = {AuthorizationScopes.PERFUMES_READ, AuthorizationScopes.SYSTEMS_WRITE},
+				match = RequireScope.Match.ANY)
+		public boolean perfumesOrSystemsWrite() {
+			return true;
+		}
+
+		@PreAuthorize("@permissions.hasScope(authentication, '" + AuthorizationScopes.SYSTEMS_READ + "')")
+		public boolean spelRead() {
+			return true;
+		}
+	}
+
+	@RequireScope(AuthorizationScopes.SYSTEMS_WRITE)
+	public static class WriteGuarded {
+
+		public boolean inherited() {
+			return true;
+		}
+	}
+
+	@Configuration
+	@EnableMethodSecurity
+	static class TestConfig {
+
+		@Bean
+		Guarded guarded() {
+			return new Guarded();
+		}
+
+		@Bean
+		WriteGuarded writeGuarded() {
+			return new WriteGuarded();
+		}
+	}
+}
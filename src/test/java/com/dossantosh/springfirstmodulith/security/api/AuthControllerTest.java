@@ -1,6 +1,7 @@
 package com.dossantosh.springfirstmodulith.security.api;
 
 import com.dossantosh.springfirstmodulith.authorization.AuthorizationScopes;
+import com.dossantosh.springfirstmodulith.core.datasource.runtime.DataViewContext;
 import com.dossantosh.springfirstmodulith.security.AuthorizationService;
 import com.dossantosh.springfirstmodulith.security.login.CustomUserDetails;
 import com.dossantosh.springfirstmodulith.users.api.ports.navigation.NavigationCatalogQuery;
@@ -11,6 +12,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.dossantosh.springfirstmodulith.security.session.CurrentSessionDataViewProvider;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -24,9 +27,9 @@ class AuthControllerTest {
 	private final ObjectMapper objectMapper = new ObjectMapper();
 	private final CurrentSessionDataViewProvider currentSessionDataViewProvider = new CurrentSessionDataViewProvider();
 	private final AuthorizationService authorizationService = new AuthorizationService();
-	private final NavigationCatalogQuery navigationCatalogQuery = this::navigationForScopes;
+	private final CountingCatalog navigationCatalogQuery = new CountingCatalog();
 	private final AuthController controller = new AuthController(currentSessionDataViewProvider, authorizationService,
-			navigationCatalogQuery);
+			navigationCatalogQuery, objectMapper);
 
 	@Test
 	void me_returnsUsernameDataSourceScopesAndNavigationFromSession() {
@@ -37,12 +40,12 @@ class AuthControllerTest {
 		MockHttpSession session = new MockHttpSession();
 		currentSessionDataViewProvider.storeCurrentDataView(session, "historic");
 
-		var response = controller.me(authentication, session);
+		var response = controller.me(authentication, request(session), null);
 
 		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-		assertThat(response.getBody()).isInstanceOf(AuthSessionResponse.class);
+		assertThat(response.getBody()).isInstanceOf(byte[].class);
 
-		AuthSessionResponse body = (AuthSessionResponse) response.getBody();
+		AuthSessionResponse body = body(response);
 		assertThat(body.username()).isEqualTo("john");
 		assertThat(body.dataSource()).isEqualTo("historic");
 		assertThat(body.roles()).containsExactly("SYSTEMS");
@@ -59,12 +62,12 @@ class AuthControllerTest {
 				List.of(new SimpleGrantedAuthority(AuthorizationScopes.PERFUMES_READ),
 						new SimpleGrantedAuthority(AuthorizationScopes.PERFUMES_WRITE)));
 
-		var response = controller.me(authentication, new MockHttpSession());
+		var response = controller.me(authentication, new MockHttpServletRequest(), null);
 
 		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-		assertThat(response.getBody()).isInstanceOf(AuthSessionResponse.class);
+		assertThat(response.getBody()).isInstanceOf(byte[].class);
 
-		AuthSessionResponse body = (AuthSessionResponse) response.getBody();
+		AuthSessionResponse body = body(response);
 		assertThat(body.scopes()).containsExactly(AuthorizationScopes.PERFUMES_READ,
 				AuthorizationScopes.PERFUMES_WRITE);
 		assertThat(body.navigation()).hasSize(1);
@@ -74,15 +77,15 @@ class AuthControllerTest {
 	}
 
 	@Test
-	void me_serializesScopesWithoutExposingAuthorities() {
+	void me_serializesScopesWithoutExposingAuthorities() throws Exception {
 		UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("john", "n/a",
 				List.of(new SimpleGrantedAuthority(AuthorizationScopes.SYSTEMS_READ)));
 
-		var response = controller.me(authentication, new MockHttpSession());
+		var response = controller.me(authentication, new MockHttpServletRequest(), null);
 
 		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
 
-		var json = objectMapper.valueToTree(response.getBody());
+		var json = objectMapper.readTree((byte[]) response.getBody());
 		assertThat(json.has("authorities")).isFalse();
 		assertThat(json.path("username").asText()).isEqualTo("john");
 		assertThat(json.path("scopes").get(0).asText()).isEqualTo(AuthorizationScopes.SYSTEMS_READ);
@@ -96,43 +99,146 @@ class AuthControllerTest {
 				List.of(new SimpleGrantedAuthority(AuthorizationScopes.SYSTEMS_READ)));
 		MockHttpSession session = new MockHttpSession();
 
-		var response = controller.me(authentication, session);
+		var response = controller.me(authentication, request(session), null);
 
 		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-		assertThat(response.getBody()).isInstanceOf(AuthSessionResponse.class);
+		assertThat(response.getBody()).isInstanceOf(byte[].class);
 
-		AuthSessionResponse body = (AuthSessionResponse) response.getBody();
+		AuthSessionResponse body = body(response);
 		assertThat(body.dataSource()).isEqualTo("prod");
 	}
 
+	@Test
+	void me_withoutSession_usesRequestViewAndCreatesNoSession() {
+		UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("john", "n/a",
+				List.of(new SimpleGrantedAuthority(AuthorizationScopes.SYSTEMS_READ)));
+		MockHttpServletRequest request = new MockHttpServletRequest();
+
+		DataViewContext.set("historic");
+		try {
+			assertThat(body(controller.me(authentication, request, null)).dataSource()).isEqualTo("historic");
+		} finally {
+			DataViewContext.clear();
+		}
+		assertThat(request.getSession(false)).isNull();
+	}
+
 	@Test
 	void me_ignoresLegacyAuthoritiesWithoutScopes() {
 		UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("john", "n/a",
 				List.of(new SimpleGrantedAuthority("SUBMODULE_USERS_SEARCH")));
 
-		var response = controller.me(authentication, new MockHttpSession());
+		var response = controller.me(authentication, new MockHttpServletRequest(), null);
 
 		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-		assertThat(response.getBody()).isInstanceOf(AuthSessionResponse.class);
+		assertThat(response.getBody()).isInstanceOf(byte[].class);
 
-		AuthSessionResponse body = (AuthSessionResponse) response.getBody();
+		AuthSessionResponse body = body(response);
 		assertThat(body.scopes()).isEmpty();
 		assertThat(body.navigation()).isEmpty();
 	}
 
 	@Test
 	void me_returnsUnauthorizedWhenAuthenticationIsMissing() {
-		var response = controller.me(null, new MockHttpSession());
+		var response = controller.me(null, new MockHttpServletRequest(), null);
 
 		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
 		assertThat(response.getBody()).isNull();
 	}
 
+	@Test
+	void me_answersNotModified_whenETagMatches_withoutRebuilding() {
+		UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("john", "n/a",
+				List.of(new SimpleGrantedAuthority(AuthorizationScopes.SYSTEMS_READ)));
+		MockHttpSession session = new MockHttpSession();
+
+		String etag = controller.me(authentication, request(session), null).getHeaders().getETag();
+		var response = controller.me(authentication, request(session), "W/\"other\", " + etag);
+
+		assertThat(etag).startsWith("\"").endsWith("\"");
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+		assertThat(response.getBody()).isNull();
+		assertThat(navigationCatalogQuery.lookups).isEqualTo(1);
+	}
+
+	@Test
+	void me_answersNotModified_onACacheMiss_withoutBuilding() {
+		UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("john", "n/a",
+				List.of(new SimpleGrantedAuthority(AuthorizationScopes.SYSTEMS_READ)));
+		MockHttpSession session = new MockHttpSession();
+		String etag = controller.me(authentication, request(session), null).getHeaders().getETag();
+		AuthController otherNode = new AuthController(currentSessionDataViewProvider, authorizationService,
+				navigationCatalogQuery, objectMapper);
+
+		var response = otherNode.me(authentication, request(session), etag);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+		assertThat(navigationCatalogQuery.lookups).isEqualTo(1);
+		assertThat(otherNode.me(authentication, request(session), null).getHeaders().getETag()).isEqualTo(etag);
+	}
+
+	@Test
+	void me_rebuilds_whenCatalogVersionOrScopesChange() {
+		UsernamePasswordAuthenticationToken systems = new UsernamePasswordAuthenticationToken("john", "n/a",
+				List.of(new SimpleGrantedAuthority(AuthorizationScopes.SYSTEMS_READ)));
+		UsernamePasswordAuthenticationToken perfumes = new UsernamePasswordAuthenticationToken("john", "n/a",
+				List.of(new SimpleGrantedAuthority(AuthorizationScopes.PERFUMES_READ)));
+		MockHttpSession session = new MockHttpSession();
+		String etag = controller.me(systems, request(session), null).getHeaders().getETag();
+
+		navigationCatalogQuery.version++;
+		var newCatalog = controller.me(systems, request(session), etag);
+		assertThat(newCatalog.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(newCatalog.getHeaders().getETag()).isNotEqualTo(etag);
+		assertThat(navigationCatalogQuery.lookups).isEqualTo(2);
+
+		var response = controller.me(perfumes, request(session), newCatalog.getHeaders().getETag());
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getETag()).isNotEqualTo(etag)
+				.isNotEqualTo(newCatalog.getHeaders().getETag());
+		assertThat(body(response).navigation().getFirst().key()).isEqualTo("perfumes");
+		assertThat(navigationCatalogQuery.lookups).isEqualTo(3);
+	}
+
+	private static MockHttpServletRequest request(MockHttpSession session) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setSession(session);
+		return request;
+	}
+
+	private AuthSessionResponse body(ResponseEntity<?> response) {
+		try {
+			return objectMapper.readValue((byte[]) response.getBody(), AuthSessionResponse.class);
+		} catch (java.io.IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+
 	private CustomUserDetails customUserDetails(String username, List<String> roles, List<String> scopes) {
 		return CustomUserDetails.from(new UserAuthView(1L, username, username + "@example.com", "secret", true, false,
 				roles, scopes));
 	}
 
+	private final class CountingCatalog implements NavigationCatalogQuery {
+
+		private int lookups;
+		private long version;
+
+		@Override
+		public List<NavigationModuleView> findVisibleNavigation(java.util.Collection<String> scopes) {
+			lookups++;
+			return navigationForScopes(scopes);
+		}
+
+		@Override
+		public long catalogVersion() {
+			return version;
+		}
+	}
+
 	private List<NavigationModuleView> navigationForScopes(java.util.Collection<String> scopes) {
 		if (scopes.contains(AuthorizationScopes.SYSTEMS_READ)) {
 			return List.of(new NavigationModuleView("systems", "Sistemas", "settings",
@@ -0,0 +1,80 @@
+package com.dossantosh.springfirstmodulith.security.login;
+
+import com.dossantosh.springfirstmodulith.authorization.AuthorizationScopes;
+import com.dossantosh.springfirstmodulith.users.api.ports.login.UserAuthView;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessProfileTest {
+
+	@Test
+	void from_withSameRolesAndScopes_sharesOneProfile() {
+		CustomUserDetails john = principal(1L, "john");
+		CustomUserDetails jane = principal(2L, "jane");
+
+		assertThat(jane.getAccessProfile()).isSameAs(john.getAccessProfile());
+		assertThat(jane.getAuthorities()).isSameAs(john.getAuthorities());
+		assertThat(jane.getScopes()).containsExactly(AuthorizationScopes.SYSTEMS_READ,
+				AuthorizationScopes.SYSTEMS_WRITE);
+	}
+
+	@Test
+	void from_withDifferentScopes_keepsProfilesApart() {
+		CustomUserDetails reader = CustomUserDetails.from(new UserAuthView(3L, "reader", "reader@x.com", "pw", true,
+				false, List.of("SYSTEMS"), List.of(AuthorizationScopes.SYSTEMS_READ)));
+
+		assertThat(reader.getAccessProfile()).isNotSameAs(principal(1L, "john").getAccessProfile());
+	}
+
+	@Test
+	void deserializedPrincipal_reusesInternedProfile_withoutCountingIt() throws Exception {
+		CustomUserDetails john = principal(1L, "john");
+		AccessProfile.FootprintReport before = AccessProfile.footprint();
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(john);
+		}
+		CustomUserDetails copy;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (CustomUserDetails) in.readObject();
+		}
+
+		assertThat(copy).isNotSameAs(john);
+		assertThat(copy.getAccessProfile()).isSameAs(john.getAccessProfile());
+		assertThat(copy.hasScope(AuthorizationScopes.SYSTEMS_WRITE)).isTrue();
+		assertThat(AccessProfile.footprint().deduplicatedCopies()).isEqualTo(before.deduplicatedCopies());
+	}
+
+	@Test
+	void footprint_countsDistinctProfilesAndAvoidedCopies() {
+		CustomUserDetails john = principal(1L, "john");
+		AccessProfile.FootprintReport before = AccessProfile.footprint();
+
+		principal(2L, "jane");
+		AccessProfile.FootprintReport after = AccessProfile.footprint();
+
+		assertThat(after.distinctProfiles()).isPositive();
+		assertThat(after.retainedBytes()).isPositive();
+		assertThat(after.deduplicatedCopies()).isEqualTo(before.deduplicatedCopies() + 1);
+		assertThat(after.deduplicatedBytes() - before.deduplicatedBytes())
+				.isEqualTo(john.getAccessProfile().estimatedBytes());
+	}
+
+	private static CustomUserDetails principal(Long id, String username) {
+		// Fresh lists and strings, as each database read would produce.
+		List<String> roles = new ArrayList<>(List.of(new String("SYSTEMS")));
+		List<String> scopes = new ArrayList<>(
+				List.of(new String(AuthorizationScopes.SYSTEMS_WRITE), new String(AuthorizationScopes.SYSTEMS_READ)));
+		return CustomUserDetails
+				.from(new UserAuthView(id, username, username + "@x.com", "pw", true, false, roles, scopes));
+	}
+}
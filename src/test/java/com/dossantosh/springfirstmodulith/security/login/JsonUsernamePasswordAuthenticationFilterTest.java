@@ -0,0 +1,153 @@
+package com.dossantosh.springfirstmodulith.security.login;
+
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.ServiceBusyException;
+import com.dossantosh.springfirstmodulith.core.hashing.PasswordHashingExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JsonUsernamePasswordAuthenticationFilterTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final List<Runnable> started = new ArrayList<>();
+
+	@Mock
+	private AuthenticationManager authenticationManager;
+
+	private JsonUsernamePasswordAuthenticationFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		LoginThrottle loginThrottle = new LoginThrottle(3, 5, Duration.ofSeconds(60), 100, meterRegistry,
+				System::currentTimeMillis);
+		filter = new JsonUsernamePasswordAuthenticationFilter(new ObjectMapper(), loginThrottle, started::add);
+		filter.setAuthenticationManager(authenticationManager);
+		filter.setAuthenticationSuccessHandler((request, response, authentication) -> {
+			response.setStatus(200);
+			response.getWriter().write(authentication.getName());
+		});
+		filter.setAuthenticationFailureHandler((request, response, exception) -> response.setStatus(401));
+	}
+
+	@Test
+	void login_checksCredentialsOffTheRequestThread_andAnswersOnAsyncDispatch() throws Exception {
+		Authentication authenticated = UsernamePasswordAuthenticationToken.authenticated("john", null, List.of());
+		when(authenticationManager.authenticate(any())).thenReturn(authenticated);
+		MockHttpServletRequest request = login("{\"username\":\"john\",\"password\":\"secret\",\"view\":\"historic\"}");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(request, response, new MockFilterChain());
+
+		assertThat(response.getContentAsString()).isEmpty();
+		verifyNoInteractions(authenticationManager);
+		runStarted();
+		assertThat(((MockAsyncContext) request.getAsyncContext()).getDispatchedPath()).isEqualTo("/api/auth/login");
+
+		dispatchAsync(request, response);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getContentAsString()).isEqualTo("john");
+		assertThat(request.getAttribute(JsonUsernamePasswordAuthenticationFilter.REQ_ATTR_DATA_SOURCE))
+				.isEqualTo("historic");
+		verify(authenticationManager).authenticate(any());
+	}
+
+	@Test
+	void login_withBadCredentials_failsOnAsyncDispatch_andCountsTheFailure() throws Exception {
+		when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("bad"));
+		MockHttpServletRequest request = login("{\"username\":\"john\",\"password\":\"wrong\"}");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(request, response, new MockFilterChain());
+		runStarted();
+		dispatchAsync(request, response);
+
+		assertThat(response.getStatus()).isEqualTo(401);
+		assertThat(meterRegistry.counter("security.login.failures").count()).isEqualTo(1);
+	}
+
+	@Test
+	void login_whenHashingQueueIsFull_answers503OnAsyncDispatch() throws Exception {
+		when(authenticationManager.authenticate(any()))
+				.thenThrow(new ServiceBusyException("busy", PasswordHashingExecutor.RETRY_AFTER));
+		MockHttpServletRequest request = login("{\"username\":\"john\",\"password\":\"secret\"}");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(request, response, new MockFilterChain());
+		runStarted();
+		dispatchAsync(request, response);
+
+		assertThat(response.getStatus()).isEqualTo(503);
+		assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		assertThat(meterRegistry.counter("security.login.failures").count()).isZero();
+	}
+
+	@Test
+	void login_beyondTheLoginsInFlight_answers503WithoutAuthenticating() throws Exception {
+		for (int i = 0; i < JsonUsernamePasswordAuthenticationFilter.MAX_LOGINS_IN_FLIGHT; i++) {
+			filter.doFilter(login("{\"username\":\"user" + i + "\",\"password\":\"secret\"}"),
+					new MockHttpServletResponse(), new MockFilterChain());
+		}
+		MockHttpServletRequest request = login("{\"username\":\"john\",\"password\":\"secret\"}");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(request, response, new MockFilterChain());
+
+		assertThat(response.getStatus()).isEqualTo(503);
+		assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		assertThat(request.isAsyncStarted()).isFalse();
+		verifyNoInteractions(authenticationManager);
+
+		runStarted();
+		MockHttpServletRequest retried = login("{\"username\":\"john\",\"password\":\"secret\"}");
+		filter.doFilter(retried, new MockHttpServletResponse(), new MockFilterChain());
+		assertThat(retried.isAsyncStarted()).isTrue();
+	}
+
+	private void runStarted() {
+		List<Runnable> tasks = List.copyOf(started);
+		started.clear();
+		tasks.forEach(Runnable::run);
+	}
+
+	// What the container does after AsyncContext#dispatch: the same request runs through the filter again.
+	private void dispatchAsync(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+		request.setDispatcherType(DispatcherType.ASYNC);
+		request.setAsyncStarted(false);
+		filter.doFilter(request, response, new MockFilterChain());
+	}
+
+	private static MockHttpServletRequest login(String body) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+		request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		request.setAsyncSupported(true);
+		return request;
+	}
+}
@@ -0,0 +1,100 @@
+package com.dossantosh.springfirstmodulith.security.login;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicLong now = new AtomicLong(1_000_000);
+	private final LoginThrottle throttle = new LoginThrottle(3, 5, Duration.ofSeconds(60), 100, meterRegistry,
+			now::get);
+
+	@Test
+	void check_afterTooManyFailuresForUser_throttlesThatUserFromThatAddress() {
+		for (int i = 0; i < 3; i++) {
+			assertThat(throttle.check("john", "10.0.0.1")).isZero();
+			throttle.recordFailure("John ", "10.0.0.1");
+		}
+
+		assertThat(throttle.check("john", "10.0.0.1")).isEqualTo(Duration.ofSeconds(60));
+		assertThat(throttle.check("john", "10.0.0.2")).isZero();
+		assertThat(throttle.check("jane", "10.0.0.1")).isZero();
+		assertThat(meterRegistry.counter("security.login.throttled", "key", "user").count()).isEqualTo(1);
+		assertThat(meterRegistry.counter("security.login.failures").count()).isEqualTo(3);
+	}
+
+	@Test
+	void check_afterTooManyFailuresFromAddress_throttlesEveryUsername() {
+		for (int i = 0; i < 5; i++) {
+			throttle.recordFailure("user" + i, "10.0.0.1");
+		}
+
+		assertThat(throttle.check("someone-else", "10.0.0.1")).isPositive();
+		assertThat(meterRegistry.counter("security.login.throttled", "key", "address").count()).isEqualTo(1);
+	}
+
+	@Test
+	void check_forgetsFailuresThatLeftTheWindow() {
+		for (int i = 0; i < 3; i++) {
+			throttle.recordFailure("john", "10.0.0.1");
+		}
+
+		now.addAndGet(Duration.ofSeconds(61).toMillis());
+
+		assertThat(throttle.check("john", "10.0.0.1")).isZero();
+	}
+
+	@Test
+	void check_countsFailuresSpreadAcrossBuckets() {
+		throttle.recordFailure("john", "10.0.0.1");
+		now.addAndGet(Duration.ofSeconds(20).toMillis());
+		throttle.recordFailure("john", "10.0.0.1");
+		now.addAndGet(Duration.ofSeconds(20).toMillis());
+		throttle.recordFailure("john", "10.0.0.1");
+
+		// The first failure leaves the window 20s later, which brings the count under the limit.
+		assertThat(throttle.check("john", "10.0.0.1")).isEqualTo(Duration.ofSeconds(20));
+		now.addAndGet(Duration.ofSeconds(20).toMillis());
+		assertThat(throttle.check("john", "10.0.0.1")).isZero();
+	}
+
+	@Test
+	void recordFailure_pastMaxKeys_evictsTheOldestKeysInsteadOfGrowing() {
+		throttle.recordFailure("first", "10.0.0.1");
+		throttle.recordFailure("first", "10.0.0.1");
+		for (int i = 0; i < 500; i++) {
+			now.addAndGet(100);
+			throttle.recordFailure("user" + i, "10.0.1." + i);
+		}
+
+		assertThat(throttle.trackedKeys()).isLessThanOrEqualTo(100);
+		throttle.recordFailure("first", "10.0.0.1");
+		assertThat(throttle.check("first", "10.0.0.1")).isZero();
+		assertThat(throttle.check("user499", "10.0.1.499")).isZero();
+		throttle.recordFailure("user499", "10.0.1.499");
+		throttle.recordFailure("user499", "10.0.1.499");
+		assertThat(throttle.check("user499", "10.0.1.499")).isPositive();
+	}
+
+	@Test
+	void check_afterAnAttackerFilledTheKeys_letsOtherUsersSignIn() {
+		// Random usernames sprayed from many addresses, far more keys than are tracked.
+		for (int i = 0; i < 1_000; i++) {
+			for (int attempt = 0; attempt < 3; attempt++) {
+				throttle.recordFailure("random-" + i, "203.0.113." + (i % 200));
+			}
+		}
+
+		assertThat(throttle.trackedKeys()).isLessThanOrEqualTo(100);
+		assertThat(throttle.check("jane", "10.0.0.9")).isZero();
+		throttle.recordFailure("jane", "10.0.0.9");
+		assertThat(throttle.check("jane", "10.0.0.9")).isZero();
+		assertThat(throttle.check("john", "198.51.100.4")).isZero();
+	}
+}
@@ -0,0 +1,118 @@
+package com.dossantosh.springfirstmodulith.security.session;
+
+import com.dossantosh.springfirstmodulith.authorization.AuthorizationScopes;
+import com.dossantosh.springfirstmodulith.security.login.CustomUserDetails;
+import com.dossantosh.springfirstmodulith.users.api.ports.login.UserAuthView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccessEpochFilterTest {
+
+	private final AccessEpochs accessEpochs = new AccessEpochs();
+
+	@Mock
+	private UserDetailsService userDetailsService;
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void currentPrincipal_isKeptWithoutLookup() throws Exception {
+		CustomUserDetails john = principal(true, accessEpochs.current(7L), AuthorizationScopes.SYSTEMS_WRITE);
+		authenticate(john);
+
+		filter().doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), new MockFilterChain());
+
+		assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(john);
+		verifyNoInteractions(userDetailsService);
+	}
+
+	@Test
+	void stalePrincipal_isReloadedAndStoredInSession() throws Exception {
+		authenticate(principal(true, accessEpochs.current(7L), AuthorizationScopes.SYSTEMS_WRITE));
+		accessEpochs.bump(7L);
+		CustomUserDetails revoked = principal(true, accessEpochs.current(7L), AuthorizationScopes.SYSTEMS_READ);
+		when(userDetailsService.loadUserByUsername("john")).thenReturn(revoked);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setSession(new MockHttpSession());
+
+		filter().doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+		var authentication = SecurityContextHolder.getContext().getAuthentication();
+		assertThat(authentication.getPrincipal()).isSameAs(revoked);
+		assertThat(authentication.getAuthorities()).extracting("authority")
+				.containsExactly(AuthorizationScopes.SYSTEMS_READ);
+		assertThat(request.getSession().getAttribute(
+				HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY)).isNotNull();
+	}
+
+	@Test
+	void roleScopesChange_marksEveryPrincipalStale() {
+		long before = accessEpochs.current(7L);
+
+		accessEpochs.bumpAll();
+
+		assertThat(accessEpochs.isStale(7L, before)).isTrue();
+		assertThat(accessEpochs.isStale(8L, accessEpochs.current(8L))).isFalse();
+	}
+
+	@Test
+	void stalePrincipal_ofDisabledUser_isLoggedOut() throws Exception {
+		authenticate(principal(true, accessEpochs.current(7L), AuthorizationScopes.SYSTEMS_WRITE));
+		accessEpochs.bump(7L);
+		when(userDetailsService.loadUserByUsername("john")).thenReturn(principal(false, accessEpochs.current(7L)));
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		MockHttpSession session = new MockHttpSession();
+		request.setSession(session);
+
+		filter().doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+		assertThat(session.isInvalid()).isTrue();
+	}
+
+	@Test
+	void stalePrincipal_ofDeletedUser_isLoggedOut() throws Exception {
+		authenticate(principal(true, accessEpochs.current(7L), AuthorizationScopes.SYSTEMS_WRITE));
+		accessEpochs.bump(7L);
+		when(userDetailsService.loadUserByUsername("john")).thenThrow(new UsernameNotFoundException("john"));
+
+		filter().doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), new MockFilterChain());
+
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+	}
+
+	private AccessEpochFilter filter() {
+		return new AccessEpochFilter(accessEpochs, userDetailsService);
+	}
+
+	private static void authenticate(CustomUserDetails principal) {
+		SecurityContextHolder.getContext().setAuthentication(
+				UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+	}
+
+	private static CustomUserDetails principal(boolean enabled, long epoch, String... scopes) {
+		return CustomUserDetails.from(new UserAuthView(7L, "john", "john@example.com", "pw", enabled, false,
+				List.of("SYSTEMS"), List.of(scopes)), epoch);
+	}
+}
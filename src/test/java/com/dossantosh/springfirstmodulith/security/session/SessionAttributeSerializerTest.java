@@ -0,0 +1,303 @@
+package com.dossantosh.springfirstmodulith.security.session;
+
+import com.dossantosh.springfirstmodulith.authorization.AuthorizationScopes;
+import com.dossantosh.springfirstmodulith.authorization.ScopeSet;
+import com.dossantosh.springfirstmodulith.security.login.CustomUserDetails;
+import com.dossantosh.springfirstmodulith.users.api.ports.login.UserAuthView;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectStreamConstants;
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionAttributeSerializerTest {
+
+	private final SessionAttributeSerializer serializer = new SessionAttributeSerializer(true);
+	private final SerializingConverter jdk = new SerializingConverter();
+
+	@Test
+	void securityContext_roundTripsCompactly() {
+		SecurityContext context = context(principal(), null);
+		byte[] bytes = serializer.serialize(context);
+
+		Authentication restored = ((SecurityContext) serializer.deserialize(bytes)).getAuthentication();
+
+		assertThat(bytes.length).isLessThan(jdk.convert(context).length / 3);
+		CustomUserDetails user = (CustomUserDetails) restored.getPrincipal();
+		assertThat(user.getId()).isEqualTo(7L);
+		assertThat(user.getUsername()).isEqualTo("john");
+		assertThat(user.getEmail()).isEqualTo("john@example.com");
+		assertThat(user.getPassword()).isEqualTo("{bcrypt}hash");
+		assertThat(user.getAccessEpoch()).isEqualTo(42L);
+		assertThat(user.getRoles()).containsExactly("SYSTEMS");
+		assertThat(user.getScopes()).containsExactly("reports:read", AuthorizationScopes.SYSTEMS_READ);
+		assertThat(restored.isAuthenticated()).isTrue();
+		assertThat(restored.getAuthorities()).isEqualTo(user.getAuthorities());
+		assertThat(restored.getDetails()).isEqualTo(new WebAuthenticationDetails("10.0.0.1", "abc"));
+	}
+
+	@Test
+	void securityContext_keepsAuthoritiesBeyondThePrincipals() {
+		CustomUserDetails principal = principal();
+		List<GrantedAuthority> authorities = new ArrayList<>(principal.getAuthorities());
+		authorities.add(new SimpleGrantedAuthority("EXTRA"));
+		authorities.add(new TestAuthority("FACTOR_TEST"));
+
+		Authentication restored = ((SecurityContext) serializer.deserialize(
+				serializer.serialize(context(principal, authorities)))).getAuthentication();
+
+		assertThat(restored.getAuthorities()).containsExactlyElementsOf(authorities);
+	}
+
+	@Test
+	void readsSessionsWrittenWithJdkSerialization() {
+		SecurityContext context = context(principal(), null);
+
+		Object restored = serializer.deserialize(jdk.convert(context));
+
+		assertThat(((SecurityContext) restored).getAuthentication().getName()).isEqualTo("john");
+		assertThat(serializer.deserialize(jdk.convert("historic"))).isEqualTo("historic");
+	}
+
+	@Test
+	void sessionsFromBeforeTheAccessProfile_readAsSignedOut() throws IOException {
+		List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(AuthorizationScopes.SYSTEMS_READ));
+		BaselineUserDetails baseline = new BaselineUserDetails(7L, "john", "john@example.com", "{bcrypt}hash", true,
+				false, List.of("SYSTEMS"), List.of(AuthorizationScopes.SYSTEMS_READ), authorities);
+		byte[] stored = jdk.convert(new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(
+				baseline, null, authorities)));
+		byte[] oldSession = renameClass(stored, BaselineUserDetails.class, CustomUserDetails.class.getName());
+		byte[] removedClass = renameClass(stored, BaselineUserDetails.class, "com.example.RemovedUserDetails");
+
+		assertThatThrownBy(() -> new DeserializingConverter().convert(oldSession))
+				.hasRootCauseInstanceOf(InvalidClassException.class);
+		assertThat(serializer.deserialize(oldSession)).isNull();
+		assertThat(serializer.deserialize(removedClass)).isNull();
+	}
+
+	@Test
+	void scopesDeclaredOnlyByANewerVersion_readAsSignedOut() throws IOException {
+		CustomUserDetails principal = principal();
+		ScopeSet scopes = principal.getScopeSet();
+		long newerBit = 1L << 63;
+		byte[] compact = replaceFirst(serializer.serialize(context(principal, null)),
+				compactScopes(scopes.declaredBits(), scopes.undeclaredNames()),
+				compactScopes(scopes.declaredBits() | newerBit, scopes.undeclaredNames()));
+		ScopeSet declared = ScopeSet.of(List.of(AuthorizationScopes.SYSTEMS_READ));
+		byte[] jdkSet = replaceFirst(jdk.convert(declared), jdkScopes(declared.declaredBits()),
+				jdkScopes(declared.declaredBits() | newerBit));
+
+		assertThat(serializer.deserialize(compact)).isNull();
+		assertThat(serializer.deserialize(jdkSet)).isNull();
+	}
+
+	@Test
+	void corruptStreams_stillFail() {
+		byte[] truncated = Arrays.copyOf(jdk.convert(context(principal(), null)), 40);
+
+		assertThatThrownBy(() -> serializer.deserialize(truncated)).isInstanceOf(SerializationFailedException.class);
+	}
+
+	@Test
+	void strings_areCompact_andLargeValuesDeflated() {
+		String large = "historic".repeat(200);
+
+		assertThat(serializer.serialize("historic")).hasSize(17);
+		assertThat(serializer.deserialize(serializer.serialize("historic"))).isEqualTo("historic");
+		assertThat(serializer.serialize(large).length).isLessThan(100);
+		assertThat(serializer.deserialize(serializer.serialize(large))).isEqualTo(large);
+	}
+
+	@Test
+	void otherValues_andDisabledCompaction_useJdkSerialization() {
+		ArrayList<String> list = new ArrayList<>(List.of("a", "b"));
+		SecurityContext context = context(principal(), null);
+		SessionAttributeSerializer jdkOnly = new SessionAttributeSerializer(false);
+
+		assertThat(serializer.serialize(list)).isEqualTo(jdk.convert(list));
+		assertThat(jdkOnly.serialize(context)).isEqualTo(jdk.convert(context));
+		assertThat(jdkOnly.serialize("prod")).isEqualTo(jdk.convert("prod"));
+		assertThat(serializer.deserialize(serializer.serialize(list))).isEqualTo(list);
+	}
+
+	/**
+	 * Bytes per stored security context and encode/decode time of the JDK
+	 * and compact forms, each with and without deflate. Opt-in with
+	 * {@code -Dbenchmarks=true}; results go to the JUnit report.
+	 */
+	@Test
+	@Tag("benchmark")
+	@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+	void benchmark_compactAgainstJdkSerialization(TestReporter reporter) {
+		SecurityContext context = context(principal(), null);
+		// Same content, but not a shape the compact form takes, so it goes through the JDK fallback.
+		SecurityContext jdkContext = new JdkOnlySecurityContext(context.getAuthentication());
+		int iterations = 50_000;
+
+		for (int round = 1; round <= 3; round++) {
+			reporter.publishEntry("round " + round + ", jdk", measure(new SessionAttributeSerializer(false),
+					context, iterations));
+			reporter.publishEntry("round " + round + ", jdk deflated", measure(new SessionAttributeSerializer(true, 0),
+					jdkContext, iterations));
+			reporter.publishEntry("round " + round + ", compact", measure(
+					new SessionAttributeSerializer(true, Integer.MAX_VALUE), context, iterations));
+			reporter.publishEntry("round " + round + ", compact deflated", measure(
+					new SessionAttributeSerializer(true, 0), context, iterations));
+		}
+	}
+
+	private static String measure(SessionAttributeSerializer serializer, Object value, int iterations) {
+		byte[] bytes = serializer.serialize(value);
+		long encoded = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			encoded += serializer.serialize(value).length;
+		}
+		long encodeNanos = (System.nanoTime() - start) / iterations;
+
+		int decoded = 0;
+		start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			if (serializer.deserialize(bytes) instanceof SecurityContext) {
+				decoded++;
+			}
+		}
+		long decodeNanos = (System.nanoTime() - start) / iterations;
+
+		assertThat(encoded).isEqualTo((long) bytes.length * iterations);
+		assertThat(decoded).isEqualTo(iterations);
+		return "%d bytes, %d ns encode, %d ns decode".formatted(bytes.length, encodeNanos, decodeNanos);
+	}
+
+	private static CustomUserDetails principal() {
+		return CustomUserDetails.from(new UserAuthView(7L, "john", "john@example.com", "{bcrypt}hash", true, false,
+				List.of("SYSTEMS"), List.of(AuthorizationScopes.SYSTEMS_READ, "reports:read")), 42L);
+	}
+
+	private static SecurityContext context(CustomUserDetails principal, List<GrantedAuthority> authorities) {
+		UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+				principal, null, authorities == null ? principal.getAuthorities() : authorities);
+		authentication.setDetails(new WebAuthenticationDetails("10.0.0.1", "abc"));
+		return new SecurityContextImpl(authentication);
+	}
+
+	// Rewrites the class name in the stream's class descriptor, which is written as modified UTF-8.
+	private static byte[] renameClass(byte[] stream, Class<?> type, String name) throws IOException {
+		return replaceFirst(stream, utf(type.getName()), utf(name));
+	}
+
+	private static byte[] replaceFirst(byte[] stream, byte[] from, byte[] to) {
+		for (int i = 0; i <= stream.length - from.length; i++) {
+			if (Arrays.equals(stream, i, i + from.length, from, 0, from.length)) {
+				ByteArrayOutputStream replaced = new ByteArrayOutputStream(stream.length);
+				replaced.write(stream, 0, i);
+				replaced.write(to, 0, to.length);
+				replaced.write(stream, i + from.length, stream.length - i - from.length);
+				return replaced.toByteArray();
+			}
+		}
+		throw new IllegalArgumentException("Bytes not in the stream");
+	}
+
+	// The declared bits and undeclared names as the compact form writes them.
+	private static byte[] compactScopes(long declaredBits, List<String> undeclaredNames) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeLong(declaredBits);
+			out.writeInt(undeclaredNames.size());
+			for (String name : undeclaredNames) {
+				byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(utf8.length);
+				out.write(utf8);
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	// The declared bits of a JDK-serialized ScopeSet, followed by the start of its array of other names.
+	private static byte[] jdkScopes(long declaredBits) {
+		return ByteBuffer.allocate(Long.BYTES + 1).putLong(declaredBits).put(ObjectStreamConstants.TC_ARRAY).array();
+	}
+
+	private static byte[] utf(String value) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeUTF(value);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * The fields {@link CustomUserDetails} had before it kept an access
+	 * profile, with the serialVersionUID the JDK computed for that class.
+	 */
+	@SuppressWarnings("unused")
+	private static final class BaselineUserDetails implements Serializable {
+
+		@Serial
+		private static final long serialVersionUID = 3019406798177018535L;
+
+		private final Long id;
+		private final String username;
+		private final String email;
+		private final String password;
+		private final boolean enabled;
+		private final boolean isAdmin;
+		private final List<String> roles;
+		private final List<String> scopes;
+		private final List<GrantedAuthority> authorities;
+
+		private BaselineUserDetails(Long id, String username, String email, String password, boolean enabled,
+				boolean isAdmin, List<String> roles, List<String> scopes, List<GrantedAuthority> authorities) {
+			this.id = id;
+			this.username = username;
+			this.email = email;
+			this.password = password;
+			this.enabled = enabled;
+			this.isAdmin = isAdmin;
+			this.roles = roles;
+			this.scopes = scopes;
+			this.authorities = authorities;
+		}
+	}
+
+	private static final class JdkOnlySecurityContext extends SecurityContextImpl {
+
+		private JdkOnlySecurityContext(Authentication authentication) {
+			super(authentication);
+		}
+	}
+
+	private record TestAuthority(String authority) implements GrantedAuthority {
+
+		@Override
+		public String getAuthority() {
+			return authority;
+		}
+	}
+}
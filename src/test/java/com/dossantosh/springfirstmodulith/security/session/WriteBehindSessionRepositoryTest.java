@@ -0,0 +1,199 @@
+package com.dossantosh.springfirstmodulith.security.session;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindSessionRepositoryTest {
+
+	private static final Duration MAX_STALENESS = Duration.ofSeconds(60);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+
+	@Mock
+	private FindByIndexNameSessionRepository<Session> delegate;
+
+	@Test
+	void recentTouch_isNeitherWrittenNorQueued() {
+		MapSession stored = stored("recent", Instant.now().minusSeconds(10));
+		WriteBehindSessionRepository repository = repository();
+
+		Session session = repository.findById("recent");
+		session.setLastAccessedTime(Instant.now());
+		repository.save(session);
+		repository.flush();
+
+		verify(delegate).save(stored);
+		assertThat(stored.getLastAccessedTime()).isBefore(session.getLastAccessedTime());
+		assertThat(jdbcTemplate.updates).isEmpty();
+	}
+
+	@Test
+	void staleTouches_areCoalescedIntoOneBatchedUpdate() {
+		Instant old = Instant.now().minus(Duration.ofMinutes(5));
+		stored("a", old);
+		stored("b", old);
+		WriteBehindSessionRepository repository = repository();
+
+		Instant first = old.plus(Duration.ofMinutes(2));
+		Instant latest = old.plus(Duration.ofMinutes(3));
+		touch(repository, "a", latest);
+		touch(repository, "a", first);
+		touch(repository, "b", first);
+		repository.flush();
+
+		assertThat(jdbcTemplate.updates).singleElement().satisfies(update -> {
+			assertThat(update.sql()).contains("from (values (?::char(36), ?::bigint), (?, ?))");
+			assertThat(pairs(update.args())).containsExactlyInAnyOrder(
+					List.of("a", latest.toEpochMilli()), List.of("b", first.toEpochMilli()));
+		});
+		assertThat(meterRegistry.counter("session.touches", "result", "queued").count()).isEqualTo(2);
+		assertThat(meterRegistry.counter("session.touches", "result", "coalesced").count()).isEqualTo(1);
+
+		repository.flush();
+		assertThat(jdbcTemplate.updates).hasSize(1);
+	}
+
+	@Test
+	void failedFlush_keepsTouchesForTheNextOne() {
+		Instant old = Instant.now().minus(Duration.ofMinutes(5));
+		stored("a", old);
+		WriteBehindSessionRepository repository = repository();
+		touch(repository, "a", Instant.now());
+
+		jdbcTemplate.failure = new DataAccessResourceFailureException("database unavailable");
+		repository.flush();
+		jdbcTemplate.failure = null;
+		repository.flush();
+
+		assertThat(jdbcTemplate.updates).hasSize(2);
+		assertThat(jdbcTemplate.updates.get(1).args()).containsExactly(jdbcTemplate.updates.get(0).args());
+		assertThat(meterRegistry.get("session.touches.pending").gauge().value()).isZero();
+	}
+
+	@Test
+	void unexpectedFailure_keepsTouchesForTheNextFlush() {
+		stored("a", Instant.now().minus(Duration.ofMinutes(5)));
+		WriteBehindSessionRepository repository = repository();
+		touch(repository, "a", Instant.now());
+
+		jdbcTemplate.failure = new IllegalStateException("driver bug");
+		repository.flush();
+		jdbcTemplate.failure = null;
+		repository.flush();
+
+		assertThat(jdbcTemplate.updates).hasSize(2);
+		assertThat(jdbcTemplate.updates.get(1).args()).containsExactly(jdbcTemplate.updates.get(0).args());
+	}
+
+	@Test
+	void deleteById_dropsPendingTouch() {
+		stored("gone", Instant.now().minus(Duration.ofMinutes(5)));
+		WriteBehindSessionRepository repository = repository();
+		touch(repository, "gone", Instant.now());
+
+		repository.deleteById("gone");
+		repository.flush();
+
+		verify(delegate).deleteById("gone");
+		assertThat(jdbcTemplate.updates).isEmpty();
+	}
+
+	@Test
+	void newSession_isSavedWithItsAccessTime() {
+		MapSession created = new MapSession();
+		when(delegate.createSession()).thenReturn(created);
+		WriteBehindSessionRepository repository = repository();
+
+		Session session = repository.createSession();
+		Instant accessed = created.getLastAccessedTime().plusSeconds(1);
+		session.setLastAccessedTime(accessed);
+		repository.save(session);
+
+		verify(delegate).save(created);
+		assertThat(created.getLastAccessedTime()).isEqualTo(accessed);
+		assertThat(meterRegistry.get("session.touches.pending").gauge().value()).isZero();
+	}
+
+	@Test
+	void stop_flushesPendingTouches() {
+		stored("a", Instant.now().minus(Duration.ofMinutes(5)));
+		WriteBehindSessionRepository repository = repository();
+		repository.start();
+		touch(repository, "a", Instant.now());
+
+		repository.stop();
+
+		assertThat(repository.isRunning()).isFalse();
+		assertThat(jdbcTemplate.updates).hasSize(1);
+	}
+
+	@Test
+	void constructor_rejectsStalenessTooCloseToTimeout() {
+		assertThatThrownBy(() -> new WriteBehindSessionRepository(delegate, jdbcTemplate, Duration.ofMinutes(8),
+				Duration.ofSeconds(5), Duration.ofMinutes(30), meterRegistry))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private WriteBehindSessionRepository repository() {
+		return new WriteBehindSessionRepository(delegate, jdbcTemplate, MAX_STALENESS, Duration.ofHours(1),
+				Duration.ofDays(1), meterRegistry);
+	}
+
+	private MapSession stored(String id, Instant lastAccessed) {
+		MapSession session = new MapSession(id);
+		session.setLastAccessedTime(lastAccessed);
+		lenient().when(delegate.findById(id)).thenReturn(session);
+		return session;
+	}
+
+	private static void touch(WriteBehindSessionRepository repository, String id, Instant accessed) {
+		Session session = repository.findById(id);
+		session.setLastAccessedTime(accessed);
+		repository.save(session);
+	}
+
+	private static List<List<Object>> pairs(Object[] args) {
+		List<List<Object>> pairs = new ArrayList<>();
+		for (int i = 0; i < args.length; i += 2) {
+			pairs.add(List.of(args[i], args[i + 1]));
+		}
+		return pairs;
+	}
+
+	private record Update(String sql, Object[] args) {
+	}
+
+	private static final class RecordingJdbcTemplate extends JdbcTemplate {
+
+		private final List<Update> updates = new ArrayList<>();
+		private RuntimeException failure;
+
+		@Override
+		public int update(String sql, Object... args) {
+			updates.add(new Update(sql, args));
+			if (failure != null) {
+				throw failure;
+			}
+			return args.length / 2;
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package com.dossantosh.springfirstmodulith.security.token;
+
+import com.dossantosh.springfirstmodulith.authorization.AuthorizationScopes;
+import com.dossantosh.springfirstmodulith.core.invalidation.CacheInvalidation;
+import com.dossantosh.springfirstmodulith.security.login.CustomUserDetails;
+import com.dossantosh.springfirstmodulith.users.api.ports.login.UserAuthView;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SignedTokenServiceTest {
+
+	private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+	private static final Instant NOW = Instant.parse("2026-01-01T10:00:00Z");
+
+	private final SignedTokenService tokens = service(NOW);
+
+	@Test
+	void verify_returnsClaimsOfIssuedToken() {
+		String token = tokens.issue(user("reports:read"), "historic").value();
+
+		TokenClaims claims = tokens.verify(token).orElseThrow();
+
+		assertThat(claims.userId()).isEqualTo(7L);
+		assertThat(claims.username()).isEqualTo("john");
+		assertThat(claims.dataView()).isEqualTo("historic");
+		assertThat(claims.roles()).containsExactly("SYSTEMS");
+		assertThat(claims.expiresAt()).isEqualTo(NOW.plus(Duration.ofMinutes(5)));
+
+		CustomUserDetails principal = tokens.principal(claims);
+		assertThat(principal.hasScope(AuthorizationScopes.SYSTEMS_READ)).isTrue();
+		assertThat(principal.hasScope("reports:read")).isTrue();
+		assertThat(principal.hasScope(AuthorizationScopes.SYSTEMS_WRITE)).isFalse();
+	}
+
+	@Test
+	void verify_rejectsTamperedOrForeignTokens() {
+		String token = tokens.issue(user(), "prod").value();
+		int dot = token.indexOf('.');
+		String otherPayload = tokens.issue(user(AuthorizationScopes.SYSTEMS_WRITE), "prod").value().substring(0, dot);
+
+		assertThat(tokens.verify(otherPayload + token.substring(dot))).isEmpty();
+		assertThat(tokens.verify("garbage")).isEmpty();
+		assertThat(tokens.verify(null)).isEmpty();
+
+		SignedTokenService other = new SignedTokenService(
+				"fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII), Duration.ofMinutes(5),
+				Duration.ofMinutes(30), Clock.fixed(NOW, ZoneOffset.UTC));
+		assertThat(other.verify(token)).isEmpty();
+	}
+
+	@Test
+	void expiredToken_canOnlyBeRefreshedWithinWindow() {
+		String token = tokens.issue(user(), "prod").value();
+
+		SignedTokenService later = service(NOW.plus(Duration.ofMinutes(10)));
+		assertThat(later.verify(token)).isEmpty();
+		assertThat(later.verifyForRefresh(token)).isPresent();
+
+		SignedTokenService muchLater = service(NOW.plus(Duration.ofHours(1)));
+		assertThat(muchLater.verifyForRefresh(token)).isEmpty();
+	}
+
+	@Test
+	void revoke_deniesTokenForVerifyAndRefresh() {
+		String token = tokens.issue(user(), "prod").value();
+		String untouched = tokens.issue(user(), "prod").value();
+
+		tokens.revoke(tokens.verify(token).orElseThrow());
+
+		assertThat(tokens.verify(token)).isEmpty();
+		assertThat(tokens.verifyForRefresh(token)).isEmpty();
+		assertThat(tokens.verify(untouched)).isPresent();
+	}
+
+	@Test
+	void revoke_succeedsOnlyOnce_andIsPublished() {
+		List<CacheInvalidation> published = new ArrayList<>();
+		SignedTokenService publishing = new SignedTokenService(SECRET, Duration.ofMinutes(5), Duration.ofMinutes(30),
+				Clock.fixed(NOW, ZoneOffset.UTC), published::add);
+		TokenClaims claims = publishing.verify(publishing.issue(user(), "prod").value()).orElseThrow();
+
+		assertThat(publishing.revoke(claims)).isTrue();
+		assertThat(publishing.revoke(claims)).isFalse();
+
+		assertThat(published).singleElement().satisfies(invalidation -> {
+			assertThat(invalidation.region()).isEqualTo(SignedTokenService.REVOKED_TOKENS_REGION);
+			assertThat(invalidation.key()).startsWith(claims.tokenId() + ":");
+		});
+	}
+
+	@Test
+	void revocationFromAnotherNode_deniesTokenHere() {
+		String token = tokens.issue(user(), "prod").value();
+		List<CacheInvalidation> published = new ArrayList<>();
+		SignedTokenService otherNode = new SignedTokenService(SECRET, Duration.ofMinutes(5), Duration.ofMinutes(30),
+				Clock.fixed(NOW, ZoneOffset.UTC), published::add);
+		otherNode.revoke(otherNode.verify(token).orElseThrow());
+
+		tokens.invalidate(published.getFirst());
+		tokens.invalidateAll();
+
+		assertThat(tokens.verify(token)).isEmpty();
+		assertThat(tokens.verifyForRefresh(token)).isEmpty();
+	}
+
+	@Test
+	void constructor_rejectsShortSecrets() {
+		assertThatThrownBy(() -> new SignedTokenService(new byte[16], Duration.ofMinutes(5), Duration.ofMinutes(30),
+				Clock.systemUTC())).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static SignedTokenService service(Instant now) {
+		return new SignedTokenService(SECRET, Duration.ofMinutes(5), Duration.ofMinutes(30),
+				Clock.fixed(now, ZoneOffset.UTC));
+	}
+
+	private static CustomUserDetails user(String... extraScopes) {
+		List<String> scopes = new java.util.ArrayList<>(List.of(AuthorizationScopes.SYSTEMS_READ));
+		scopes.addAll(List.of(extraScopes));
+		return CustomUserDetails.from(
+				new UserAuthView(7L, "john", "john@example.com", "pw", true, false, List.of("SYSTEMS"), scopes));
+	}
+}
@@ -4,13 +4,16 @@ import com.dossantosh.springfirstmodulith.authorization.AuthorizationScopes;
 import com.dossantosh.springfirstmodulith.core.page.Direction;
 import com.dossantosh.springfirstmodulith.core.page.KeysetPage;
 import com.dossantosh.springfirstmodulith.security.AuthorizationService;
-import com.dossantosh.springfirstmodulith.security.Permissions;
+import com.dossantosh.springfirstmodulith.security.MethodSecurityConfig;
 import com.dossantosh.springfirstmodulith.users.api.requests.CreateUserRequest;
 import com.dossantosh.springfirstmodulith.users.api.requests.UpdateUserRequest;
 import com.dossantosh.springfirstmodulith.users.api.requests.UserAccessRequest;
 import com.dossantosh.springfirstmodulith.users.application.services.UserAccessResolverService;
 import com.dossantosh.springfirstmodulith.users.application.services.UserCommandService;
+import com.dossantosh.springfirstmodulith.users.application.services.UserCountService;
+import com.dossantosh.springfirstmodulith.users.application.services.UserPagePrefetchService;
 import com.dossantosh.springfirstmodulith.users.application.services.UserQueryService;
+import com.dossantosh.springfirstmodulith.users.application.services.UserSearchMode;
 import com.dossantosh.springfirstmodulith.users.application.views.UserDetailsView;
 import com.dossantosh.springfirstmodulith.users.application.views.UserSummaryView;
 import com.dossantosh.springfirstmodulith.users.domain.Roles;
@@ -27,6 +30,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -34,7 +38,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
-@SpringJUnitConfig(classes = {UserController.class, Permissions.class, AuthorizationService.class,
+@SpringJUnitConfig(classes = {UserController.class, MethodSecurityConfig.class, AuthorizationService.class,
 		UserControllerAuthorizationTest.TestConfig.class})
 class UserControllerAuthorizationTest {
 
@@ -50,9 +54,12 @@ class UserControllerAuthorizationTest {
 	@jakarta.annotation.Resource
 	private UserQueryService userQueryService;
 
+	@jakarta.annotation.Resource
+	private UserCountService userCountService;
+
 	@BeforeEach
 	void setUp() {
-		reset(userCommandService, userAccessResolverService, userQueryService);
+		reset(userCommandService, userAccessResolverService, userQueryService, userCountService);
 	}
 
 	@Test
@@ -63,10 +70,85 @@ class UserControllerAuthorizationTest {
 
 		when(userQueryService.findUsersKeyset(null, null, null, null, 25, Direction.NEXT)).thenReturn(page);
 
-		var response = userController.getUsers(null, null, null, null, 25, "NEXT");
+		var response = userController.getUsers(null, null, null, null, 25, "NEXT", null, null, null, null);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).isSameAs(page);
+	}
+
+	@Test
+	@WithMockUser(authorities = AuthorizationScopes.SYSTEMS_READ)
+	void getUsers_withExactTotal_attachesTotalFromCountService() {
+		KeysetPage<UserSummaryView> page = new KeysetPage<>(
+				List.of(new UserSummaryView(1L, "john", "john@example.com", true, false)), false, false, null, null);
+		KeysetPage<UserSummaryView> counted = page.withTotal(1L, true);
+
+		when(userQueryService.findUsersKeyset(null, "jo", null, null, 25, Direction.NEXT)).thenReturn(page);
+		when(userCountService.withTotal(page, null, "jo", null, true)).thenReturn(counted);
+
+		var response = userController.getUsers(null, "JO", null, null, 25, "NEXT", null, null, "exact", null);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).isSameAs(counted);
+	}
+
+	@Test
+	@WithMockUser(authorities = AuthorizationScopes.SYSTEMS_READ)
+	void getUsers_withIdSortAndLastId_pagesFromLastId() {
+		KeysetPage<UserSummaryView> page = new KeysetPage<>(
+				List.of(new UserSummaryView(6L, "john", "john@example.com", true, false)), false, true, 6L, 6L);
+
+		when(userQueryService.findUsersKeyset(null, null, null, 5L, 25, Direction.NEXT)).thenReturn(page);
+
+		var response = userController.getUsers(null, null, null, 5L, 25, "NEXT", "id", null, null, null);
 
 		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
 		assertThat(response.getBody()).isSameAs(page);
+		verify(userQueryService, never()).findUsersSorted(any(), any(), any(), any(), any(), anyInt(), any());
+	}
+
+	@Test
+	@WithMockUser(authorities = AuthorizationScopes.SYSTEMS_READ)
+	void getUsers_withLastIdAndAnotherSortOrCursor_returnsBadRequest() {
+		var sorted = userController.getUsers(null, null, null, 5L, 25, "NEXT", "username", null, null, null);
+		var withCursor = userController.getUsers(null, null, null, 5L, 25, "NEXT", null, "abc", null, null);
+
+		assertThat(sorted.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(withCursor.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		verifyNoInteractions(userQueryService);
+	}
+
+	@Test
+	@WithMockUser(authorities = AuthorizationScopes.SYSTEMS_READ)
+	void searchUsers_whenUserHasSystemsReadScope_returnsUsers() {
+		KeysetPage<UserSummaryView> page = new KeysetPage<>(
+				List.of(new UserSummaryView(1L, "john", "john@example.com", true, false)), false, false, null, null);
+
+		when(userQueryService.findUsersByTerm("joh", UserSearchMode.CONTAINS, null, 25, Direction.NEXT))
+				.thenReturn(page);
+
+		var response = userController.searchUsers("joh", "contains", null, 25, "NEXT");
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).isSameAs(page);
+	}
+
+	@Test
+	@WithMockUser(authorities = AuthorizationScopes.SYSTEMS_READ)
+	void searchUsers_withTooShortTerm_returnsBadRequest() {
+		var response = userController.searchUsers("jo", "CONTAINS", null, 25, "NEXT");
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		verifyNoInteractions(userQueryService);
+	}
+
+	@Test
+	@WithMockUser
+	void searchUsers_withoutSystemsReadScope_isDenied() {
+		assertThatThrownBy(() -> userController.searchUsers("john", "CONTAINS", null, 25, "NEXT"))
+				.isInstanceOf(AccessDeniedException.class);
+
+		verifyNoInteractions(userQueryService);
 	}
 
 	@Test
@@ -81,10 +163,30 @@ class UserControllerAuthorizationTest {
 		assertThat(response.getBody()).isSameAs(details);
 	}
 
+	@Test
+	@WithMockUser(authorities = AuthorizationScopes.SYSTEMS_READ)
+	void getUsersByIds_whenUserHasSystemsReadScope_returnsMap() {
+		Map<Long, UserDetailsView> users = Map.of(1L, detailsView(1L));
+		when(userQueryService.getUserDetailsByIds(List.of(1L, 2L))).thenReturn(users);
+
+		var response = userController.getUsersByIds(List.of(1L, 2L));
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).isSameAs(users);
+	}
+
+	@Test
+	@WithMockUser
+	void getUsersByIds_withoutSystemsReadScope_isDenied() {
+		assertThatThrownBy(() -> userController.getUsersByIds(List.of(1L))).isInstanceOf(AccessDeniedException.class);
+
+		verifyNoInteractions(userQueryService);
+	}
+
 	@Test
 	@WithMockUser
 	void getUsers_withoutSystemsReadScope_isDenied() {
-		assertThatThrownBy(() -> userController.getUsers(null, null, null, null, 25, "NEXT"))
+		assertThatThrownBy(() -> userController.getUsers(null, null, null, null, 25, "NEXT", null, null, null, null))
 				.isInstanceOf(AccessDeniedException.class);
 
 		verifyNoInteractions(userQueryService);
@@ -222,6 +324,16 @@ class UserControllerAuthorizationTest {
 		UserQueryService userQueryService() {
 			return mock(UserQueryService.class);
 		}
+
+		@Bean
+		UserCountService userCountService() {
+			return mock(UserCountService.class);
+		}
+
+		@Bean
+		UserPagePrefetchService userPagePrefetchService() {
+			return mock(UserPagePrefetchService.class);
+		}
 	}
 }
 
@@ -1,11 +1,16 @@
 package com.dossantosh.springfirstmodulith.users.api.controllers;
 
 import com.dossantosh.springfirstmodulith.core.exceptions.GlobalExceptionHandler;
+import com.dossantosh.springfirstmodulith.core.page.Direction;
+import com.dossantosh.springfirstmodulith.core.page.KeysetPage;
 import com.dossantosh.springfirstmodulith.users.application.services.UserAccessResolverService;
 import com.dossantosh.springfirstmodulith.users.application.services.UserCommandService;
+import com.dossantosh.springfirstmodulith.users.application.services.UserCountService;
+import com.dossantosh.springfirstmodulith.users.application.services.UserPagePrefetchService;
 import com.dossantosh.springfirstmodulith.users.application.services.UserQueryService;
 import com.dossantosh.springfirstmodulith.users.application.views.RoleView;
 import com.dossantosh.springfirstmodulith.users.application.views.UserDetailsView;
+import com.dossantosh.springfirstmodulith.users.application.views.UserSummaryView;
 import com.dossantosh.springfirstmodulith.users.domain.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,14 +19,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
 import java.util.List;
 import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -41,6 +50,12 @@ class UserControllerTest {
 	@Mock
 	private UserQueryService userQueryService;
 
+	@Mock
+	private UserCountService userCountService;
+
+	@Mock
+	private UserPagePrefetchService userPagePrefetchService;
+
 	@InjectMocks
 	private UserController userController;
 
@@ -126,6 +141,33 @@ class UserControllerTest {
 				.andExpect(status().isBadRequest());
 	}
 
+	@Test
+	void getUsers_withPrefetchDisabled_doesNotCreateSession() throws Exception {
+		when(userQueryService.findUsersKeyset(null, null, null, null, 25, Direction.NEXT)).thenReturn(emptyPage());
+
+		MvcResult result = mockMvc.perform(get("/api/users")).andExpect(status().isOk()).andReturn();
+
+		assertThat(result.getRequest().getSession(false)).isNull();
+		verify(userPagePrefetchService).prefetched(null, null, null, null, null, 25, Direction.NEXT);
+	}
+
+	@Test
+	void getUsers_withPrefetchEnabled_usesExistingSessionOnly() throws Exception {
+		when(userPagePrefetchService.isEnabled()).thenReturn(true);
+		when(userQueryService.findUsersKeyset(any(), any(), any(), any(), anyInt(), any())).thenReturn(emptyPage());
+		MockHttpSession session = new MockHttpSession();
+
+		mockMvc.perform(get("/api/users").param("lastId", "5").session(session)).andExpect(status().isOk());
+		MvcResult anonymous = mockMvc.perform(get("/api/users")).andExpect(status().isOk()).andReturn();
+
+		verify(userPagePrefetchService).prefetched(session.getId(), null, null, null, 5L, 25, Direction.NEXT);
+		assertThat(anonymous.getRequest().getSession(false)).isNull();
+	}
+
+	private static KeysetPage<UserSummaryView> emptyPage() {
+		return new KeysetPage<>(List.of(), false, false, null, null);
+	}
+
 	private UserDetailsView detailsView(Long id, String username, String email) {
 		return new UserDetailsView(id, username, email, true, false, Set.of(new RoleView(20L, "USER")));
 	}
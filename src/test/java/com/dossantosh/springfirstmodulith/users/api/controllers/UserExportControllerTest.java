@@ -0,0 +1,109 @@
+package com.dossantosh.springfirstmodulith.users.api.controllers;
+
+import com.dossantosh.springfirstmodulith.users.application.services.UserExportService;
+import com.dossantosh.springfirstmodulith.users.application.views.UserSummaryView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class UserExportControllerTest {
+
+	@Mock
+	private UserExportService userExportService;
+
+	@Test
+	void exportUsers_writesOneJsonObjectPerLine() throws Exception {
+		stubTwoUsers();
+		UserExportController controller = new UserExportController(userExportService, new ObjectMapper());
+
+		var response = controller.exportUsers(null, "JO", null, "ndjson", null);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		response.getBody().writeTo(out);
+
+		assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+		assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("""
+				{"id":1,"username":"john","email":"john@example.com","enabled":true,"isAdmin":false}
+				{"id":2,"username":"joe","email":"joe@example.com","enabled":false,"isAdmin":true}
+				""");
+	}
+
+	@Test
+	void exportUsers_whenClientAcceptsGzip_compressesBody() throws Exception {
+		stubTwoUsers();
+		UserExportController controller = new UserExportController(userExportService, new ObjectMapper());
+
+		var response = controller.exportUsers(null, "jo", null, "ndjson", "deflate, gzip;q=0.8");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		response.getBody().writeTo(out);
+
+		assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()).hasSize(2);
+		}
+	}
+
+	@Test
+	void exportUsers_csv_passesCopyOutputThrough() throws Exception {
+		doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(3);
+			out.write("id_user,username\n1,john\n".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).when(userExportService).exportUsersCsv(eq(null), eq(null), eq(null), any(OutputStream.class));
+		UserExportController controller = new UserExportController(userExportService, new ObjectMapper());
+
+		var response = controller.exportUsers(null, null, null, "CSV", null);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		response.getBody().writeTo(out);
+
+		assertThat(response.getHeaders().getContentType()).hasToString("text/csv;charset=UTF-8");
+		assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("id_user,username\n1,john\n");
+	}
+
+	@Test
+	void exportUsers_withUnknownFormat_returnsBadRequest() {
+		UserExportController controller = new UserExportController(userExportService, new ObjectMapper());
+
+		var response = controller.exportUsers(null, null, null, "xml", null);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void acceptsGzip_honoursExplicitRejection() {
+		assertThat(UserExportController.acceptsGzip("gzip, deflate")).isTrue();
+		assertThat(UserExportController.acceptsGzip("gzip;q=0")).isFalse();
+		assertThat(UserExportController.acceptsGzip("gzip; q=0.0")).isFalse();
+		assertThat(UserExportController.acceptsGzip("gzip;q=0.000, br")).isFalse();
+		assertThat(UserExportController.acceptsGzip("gzip;q=0.001")).isTrue();
+		assertThat(UserExportController.acceptsGzip("gzip;q=oops")).isFalse();
+		assertThat(UserExportController.acceptsGzip("br")).isFalse();
+		assertThat(UserExportController.acceptsGzip(null)).isFalse();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void stubTwoUsers() {
+		doAnswer(invocation -> {
+			Consumer<UserSummaryView> sink = invocation.getArgument(3);
+			sink.accept(new UserSummaryView(1L, "john", "john@example.com", true, false));
+			sink.accept(new UserSummaryView(2L, "joe", "joe@example.com", false, true));
+			return null;
+		}).when(userExportService).exportUsers(eq(null), eq("jo"), eq(null), any(Consumer.class));
+	}
+}
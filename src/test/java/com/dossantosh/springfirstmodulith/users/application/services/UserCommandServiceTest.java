@@ -1,6 +1,8 @@
 package com.dossantosh.springfirstmodulith.users.application.services;
 
 import com.dossantosh.springfirstmodulith.core.exceptions.custom.BusinessException;
+import com.dossantosh.springfirstmodulith.users.api.events.UserChangedEvent;
+import com.dossantosh.springfirstmodulith.users.api.events.UserDeletedEvent;
 import com.dossantosh.springfirstmodulith.users.application.ports.out.UserCommandPort;
 import com.dossantosh.springfirstmodulith.users.domain.*;
 import com.dossantosh.springfirstmodulith.users.domain.ports.UserUniquenessPolicy;
@@ -11,6 +13,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
@@ -36,6 +39,9 @@ class UserCommandServiceTest {
 	@Mock
 	private PasswordEncoder passwordEncoder;
 
+	@Mock
+	private ApplicationEventPublisher events;
+
 	@InjectMocks
 	private UserCommandService userCommandService;
 
@@ -62,6 +68,7 @@ class UserCommandServiceTest {
 		assertThat(saved.passwordHash()).isEqualTo("hashed");
 		assertThat(saved.enabled()).isFalse();
 		assertThat(saved.roles()).extracting(Roles::id, Roles::name).containsExactly(tuple(20L, "USER"));
+		verify(events).publishEvent(new UserChangedEvent(5L));
 	}
 
 	@Test
@@ -90,6 +97,16 @@ class UserCommandServiceTest {
                 .hasMessageContaining("99");
     }
 
+	@Test
+	void deleteById_whenUserExists_deletesAndPublishesEvent() {
+		when(userCommandPort.existsById(7L)).thenReturn(true);
+
+		userCommandService.deleteById(7L);
+
+		verify(userCommandPort).deleteById(7L);
+		verify(events).publishEvent(new UserDeletedEvent(7L));
+	}
+
 	@Test
 	void createUser_assignsDefaultAccessAndEncodesPassword() {
 		Roles userRole = role(2L, "USER");
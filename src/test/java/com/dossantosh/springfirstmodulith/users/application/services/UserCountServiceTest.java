@@ -0,0 +1,69 @@
+package com.dossantosh.springfirstmodulith.users.application.services;
+
+import com.dossantosh.springfirstmodulith.core.page.KeysetPage;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserQueryPort;
+import com.dossantosh.springfirstmodulith.users.application.views.UserSummaryView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCountServiceTest {
+
+	@Mock
+	private UserQueryPort userQueryPort;
+
+	@InjectMocks
+	private UserCountService userCountService;
+
+	private final KeysetPage<UserSummaryView> page = new KeysetPage<>(
+			List.of(new UserSummaryView(1L, "john", "john@example.com", true, false)), true, false, 1L, 1L);
+
+	@AfterEach
+	void tearDown() {
+		userCountService.shutdown();
+	}
+
+	@Test
+	void withTotal_estimate_usesPlannerEstimateAndNeverCounts() {
+		when(userQueryPort.estimateUsers(null, "jo", null)).thenReturn(120L);
+
+		KeysetPage<UserSummaryView> result = userCountService.withTotal(page, null, "jo", null, false);
+
+		assertThat(result.total()).isEqualTo(120L);
+		assertThat(result.exactTotal()).isFalse();
+		assertThat(result.content()).isEqualTo(page.content());
+		verify(userQueryPort, never()).countUsers(any(), any(), any());
+	}
+
+	@Test
+	void withTotal_exact_fallsBackToEstimateUntilBackgroundCountIsCached() {
+		when(userQueryPort.estimateUsers(null, "jo", null)).thenReturn(120L);
+		CountDownLatch release = new CountDownLatch(1);
+		when(userQueryPort.countUsers(null, "jo", null)).thenAnswer(invocation -> {
+			release.await();
+			return 97L;
+		});
+
+		KeysetPage<UserSummaryView> first = userCountService.withTotal(page, null, "jo", null, true);
+		assertThat(first.total()).isEqualTo(120L);
+		assertThat(first.exactTotal()).isFalse();
+
+		release.countDown();
+		assertThat(userCountService.exactCount(null, "jo", null).join()).isEqualTo(97L);
+
+		KeysetPage<UserSummaryView> second = userCountService.withTotal(page, null, "jo", null, true);
+		assertThat(second.total()).isEqualTo(97L);
+		assertThat(second.exactTotal()).isTrue();
+		verify(userQueryPort, times(1)).countUsers(null, "jo", null);
+	}
+}
@@ -0,0 +1,272 @@
+package com.dossantosh.springfirstmodulith.users.application.services;
+
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.BusinessException;
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.ServiceBusyException;
+import com.dossantosh.springfirstmodulith.core.hashing.PasswordHashingExecutor;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserImportPort;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserImportPort.LoadResult;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserImportPort.RejectedRow;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserImportPort.StagedUser;
+import com.dossantosh.springfirstmodulith.users.application.views.UserImportReport;
+import com.dossantosh.springfirstmodulith.users.application.views.UserImportReport.RowError;
+import com.dossantosh.springfirstmodulith.users.application.views.UserImportStatus;
+import com.dossantosh.springfirstmodulith.users.application.views.UserImportStatus.State;
+import com.dossantosh.springfirstmodulith.users.domain.Roles;
+import com.dossantosh.springfirstmodulith.users.domain.UserAccess;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+	@Mock
+	private UserImportPort userImportPort;
+
+	@Mock
+	private DefaultUserAccessPolicyService defaultUserAccessPolicyService;
+
+	@Mock
+	private PasswordEncoder passwordEncoder;
+
+	@Mock
+	private PasswordHashingExecutor hashingExecutor;
+
+	private UserImportService userImportService;
+
+	@BeforeEach
+	void setUp() {
+		lenient().when(hashingExecutor.parallelism()).thenReturn(2);
+		lenient().when(hashingExecutor.submit(any())).thenAnswer(
+				invocation -> CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(0).get()));
+		userImportService = new UserImportService(userImportPort, defaultUserAccessPolicyService, passwordEncoder,
+				hashingExecutor, new ObjectMapper());
+	}
+
+	@AfterEach
+	void tearDown() {
+		userImportService.shutdown();
+	}
+
+	@Test
+	void startImport_csv_stagesValidRowsWithHashes_andReportsInvalidAndConflictingLines() throws Exception {
+		when(defaultUserAccessPolicyService.defaultAccessForNewUser())
+				.thenReturn(UserAccess.of(Set.of(Roles.reference(3L, "SYSTEMS"))));
+		when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hash:" + invocation.getArgument(0));
+		when(userImportPort.load(anyList(), eq(List.of(3L))))
+				.thenReturn(new LoadResult(2, List.of(new RejectedRow(4, "Email 'b@x.com' is repeated"))));
+
+		String csv = """
+				username,email,password
+				ann," ANN@X.com ",secretPass1
+				"bob, jr",b@x.com,"pass""word9"
+				carl,b@x.com,secretPass3
+				dave,not-an-email,secretPass4
+				eve,e@x.com,short
+				""";
+
+		UserImportStatus started = userImportService.startImport(stream(csv), UserImportFormat.CSV);
+		assertThat(started.received()).isEqualTo(5);
+		assertThat(started.toHash()).isEqualTo(3);
+
+		UserImportStatus finished = awaitFinished(started.id());
+		assertThat(finished.state()).isEqualTo(State.COMPLETED);
+		assertThat(finished.hashed()).isEqualTo(3);
+		UserImportReport report = finished.report();
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<StagedUser>> staged = ArgumentCaptor.forClass(List.class);
+		verify(userImportPort).load(staged.capture(), eq(List.of(3L)));
+		assertThat(staged.getValue()).containsExactly(new StagedUser(2, "ann", "ann@x.com", "hash:secretPass1"),
+				new StagedUser(3, "bob, jr", "b@x.com", "hash:pass\"word9"),
+				new StagedUser(4, "carl", "b@x.com", "hash:secretPass3"));
+
+		assertThat(report.received()).isEqualTo(5);
+		assertThat(report.imported()).isEqualTo(2);
+		assertThat(report.rejected()).isEqualTo(3);
+		assertThat(report.errors()).extracting(RowError::line).containsExactly(4L, 5L, 6L);
+		assertThat(report.errors().get(1).reason()).isEqualTo("email format is invalid");
+		assertThat(report.errorsTruncated()).isFalse();
+	}
+
+	@Test
+	void startImport_ndjson_reportsMalformedLinesWithoutFailingTheImport() throws Exception {
+		when(defaultUserAccessPolicyService.defaultAccessForNewUser())
+				.thenReturn(UserAccess.of(Set.of(Roles.reference(3L, "SYSTEMS"))));
+		when(passwordEncoder.encode(anyString())).thenReturn("hash");
+		when(userImportPort.load(anyList(), eq(List.of(3L)))).thenReturn(new LoadResult(1, List.of()));
+
+		String ndjson = """
+				{"username":"ann","email":"ann@x.com","password":"secretPass1"}
+				{not json
+
+				["array"]
+				""";
+
+		UserImportReport report = awaitFinished(
+				userImportService.startImport(stream(ndjson), UserImportFormat.NDJSON).id()).report();
+
+		assertThat(report.imported()).isEqualTo(1);
+		assertThat(report.errors()).containsExactly(new RowError(2, "invalid JSON"),
+				new RowError(4, "expected a JSON object"));
+	}
+
+	@Test
+	void startImport_csvWithoutRequiredColumns_isRejected() {
+		when(defaultUserAccessPolicyService.defaultAccessForNewUser())
+				.thenReturn(UserAccess.of(Set.of(Roles.reference(3L, "SYSTEMS"))));
+
+		assertThatThrownBy(() -> userImportService.startImport(stream("username,email\nann,a@x.com\n"),
+				UserImportFormat.CSV)).isInstanceOf(BusinessException.class);
+
+		verifyNoInteractions(userImportPort);
+	}
+
+	@Test
+	void startImport_afterARejectedUpload_acceptsTheNextOne() throws Exception {
+		when(defaultUserAccessPolicyService.defaultAccessForNewUser())
+				.thenReturn(UserAccess.of(Set.of(Roles.reference(3L, "SYSTEMS"))));
+		when(userImportPort.load(anyList(), anyList())).thenReturn(new LoadResult(0, List.of()));
+
+		assertThatThrownBy(() -> userImportService.startImport(stream("username,email\nann,a@x.com\n"),
+				UserImportFormat.CSV)).isInstanceOf(BusinessException.class);
+
+		UserImportStatus status = userImportService.startImport(stream("username,email,password\n"),
+				UserImportFormat.CSV);
+		assertThat(awaitFinished(status.id()).state()).isEqualTo(State.COMPLETED);
+	}
+
+	@Test
+	void startImport_whileAnotherIsRunning_failsWithServiceBusy() throws Exception {
+		when(defaultUserAccessPolicyService.defaultAccessForNewUser())
+				.thenReturn(UserAccess.of(Set.of(Roles.reference(3L, "SYSTEMS"))));
+		CountDownLatch release = new CountDownLatch(1);
+		when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+			release.await();
+			return "hash";
+		});
+		when(userImportPort.load(anyList(), anyList())).thenReturn(new LoadResult(1, List.of()));
+
+		String csv = "username,email,password\nann,a@x.com,secretPass1\n";
+		UserImportStatus first = userImportService.startImport(stream(csv), UserImportFormat.CSV);
+
+		assertThatThrownBy(() -> userImportService.startImport(stream(csv), UserImportFormat.CSV))
+				.isInstanceOf(ServiceBusyException.class);
+		assertThat(userImportService.status(first.id()).state()).isEqualTo(State.RUNNING);
+
+		release.countDown();
+		assertThat(awaitFinished(first.id()).state()).isEqualTo(State.COMPLETED);
+	}
+
+	@Test
+	void startImport_keepsAtMostAQuarterOfTheHashingThreadsBusy() throws Exception {
+		when(defaultUserAccessPolicyService.defaultAccessForNewUser())
+				.thenReturn(UserAccess.of(Set.of(Roles.reference(3L, "SYSTEMS"))));
+		when(hashingExecutor.parallelism()).thenReturn(8);
+		AtomicInteger pending = new AtomicInteger();
+		AtomicInteger maxPending = new AtomicInteger();
+		doAnswer(invocation -> {
+			maxPending.accumulateAndGet(pending.incrementAndGet(), Math::max);
+			Object hash = invocation.<Supplier<?>>getArgument(0).get();
+			return new CompletableFuture<>() {
+				@Override
+				public Object get() {
+					pending.decrementAndGet();
+					return hash;
+				}
+			};
+		}).when(hashingExecutor).submit(any());
+		when(passwordEncoder.encode(anyString())).thenReturn("hash");
+		when(userImportPort.load(anyList(), anyList())).thenReturn(new LoadResult(10, List.of()));
+
+		StringBuilder csv = new StringBuilder("username,email,password\n");
+		for (int i = 0; i < 10; i++) {
+			csv.append("user").append(i).append(",u").append(i).append("@x.com,secretPass1\n");
+		}
+		UserImportStatus status = userImportService.startImport(stream(csv.toString()), UserImportFormat.CSV);
+
+		assertThat(awaitFinished(status.id()).report().imported()).isEqualTo(10);
+		assertThat(maxPending.get()).isEqualTo(8 / UserImportService.HASHING_SHARE);
+		assertThat(pending.get()).isZero();
+	}
+
+	@Test
+	void startImport_whenHashingIsSaturated_waitsForLoginsInsteadOfFailing() throws Exception {
+		when(defaultUserAccessPolicyService.defaultAccessForNewUser())
+				.thenReturn(UserAccess.of(Set.of(Roles.reference(3L, "SYSTEMS"))));
+		when(passwordEncoder.encode(anyString())).thenReturn("hash");
+		when(userImportPort.load(anyList(), anyList())).thenReturn(new LoadResult(1, List.of()));
+		ServiceBusyException busy = new ServiceBusyException("busy", Duration.ofMillis(1));
+		doThrow(busy, busy).doAnswer(
+				invocation -> CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(0).get()))
+				.when(hashingExecutor).submit(any());
+
+		String csv = "username,email,password\nann,a@x.com,secretPass1\n";
+		UserImportStatus status = userImportService.startImport(stream(csv), UserImportFormat.CSV);
+
+		assertThat(awaitFinished(status.id()).state()).isEqualTo(State.COMPLETED);
+		verify(hashingExecutor, times(3)).submit(any());
+	}
+
+	@Test
+	void startImport_whenTheLoadFails_reportsTheFailure() throws Exception {
+		when(defaultUserAccessPolicyService.defaultAccessForNewUser())
+				.thenReturn(UserAccess.of(Set.of(Roles.reference(3L, "SYSTEMS"))));
+		when(passwordEncoder.encode(anyString())).thenReturn("hash");
+		when(userImportPort.load(anyList(), anyList())).thenThrow(new IllegalStateException("connection lost"));
+
+		String csv = "username,email,password\nann,a@x.com,secretPass1\n";
+		UserImportStatus status = awaitFinished(userImportService.startImport(stream(csv), UserImportFormat.CSV).id());
+
+		assertThat(status.state()).isEqualTo(State.FAILED);
+		assertThat(status.failure()).isEqualTo("connection lost");
+		assertThat(status.report()).isNull();
+	}
+
+	@Test
+	void status_ofAnUnknownImport_isNotFound() {
+		assertThatThrownBy(() -> userImportService.status(UUID.randomUUID()))
+				.isInstanceOf(EntityNotFoundException.class);
+	}
+
+	private UserImportStatus awaitFinished(UUID id) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		UserImportStatus status = userImportService.status(id);
+		while (status.state() == State.RUNNING && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+			status = userImportService.status(id);
+		}
+		return status;
+	}
+
+	private static ByteArrayInputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,85 @@
+package com.dossantosh.springfirstmodulith.users.application.services;
+
+import com.dossantosh.springfirstmodulith.core.page.Direction;
+import com.dossantosh.springfirstmodulith.core.page.KeysetPage;
+import com.dossantosh.springfirstmodulith.users.application.views.UserSummaryView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserPagePrefetchServiceTest {
+
+	@Mock
+	private UserQueryService userQueryService;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private UserPagePrefetchService prefetchService;
+
+	private final KeysetPage<UserSummaryView> first = new KeysetPage<>(
+			List.of(new UserSummaryView(1L, "john", "john@example.com", true, false)), true, false, 1L, 1L);
+
+	private final KeysetPage<UserSummaryView> second = new KeysetPage<>(
+			List.of(new UserSummaryView(2L, "jane", "jane@example.com", true, false)), false, true, 2L, 2L);
+
+	@AfterEach
+	void tearDown() {
+		if (prefetchService != null) {
+			prefetchService.shutdown();
+		}
+	}
+
+	@Test
+	void prefetchNext_loadsFollowingPage_andServesItOnceFromMemory() {
+		prefetchService = new UserPagePrefetchService(userQueryService, meterRegistry, true);
+		when(userQueryService.findUsersKeyset(null, "j", null, 1L, 1, Direction.NEXT)).thenReturn(second);
+
+		prefetchService.prefetchNext("s1", null, "j", null, 1, first);
+
+		assertThat(prefetchService.prefetched("s1", null, "j", null, 1L, 1, Direction.NEXT)).isSameAs(second);
+		assertThat(prefetchService.prefetched("s1", null, "j", null, 1L, 1, Direction.NEXT)).isNull();
+		assertThat(count("hit")).isEqualTo(1.0);
+		assertThat(count("miss")).isEqualTo(1.0);
+		verify(userQueryService, times(1)).findUsersKeyset(null, "j", null, 1L, 1, Direction.NEXT);
+	}
+
+	@Test
+	void prefetched_missesForOtherSessionsAndFilters() {
+		prefetchService = new UserPagePrefetchService(userQueryService, meterRegistry, true);
+		when(userQueryService.findUsersKeyset(null, "j", null, 1L, 1, Direction.NEXT)).thenReturn(second);
+
+		prefetchService.prefetchNext("s1", null, "j", null, 1, first);
+
+		assertThat(prefetchService.prefetched("s2", null, "j", null, 1L, 1, Direction.NEXT)).isNull();
+		assertThat(prefetchService.prefetched("s1", null, "ja", null, 1L, 1, Direction.NEXT)).isNull();
+		assertThat(prefetchService.prefetched("s1", null, "j", null, 1L, 1, Direction.NEXT)).isSameAs(second);
+		assertThat(count("miss")).isEqualTo(2.0);
+	}
+
+	@Test
+	void prefetchNext_doesNothingWhenDisabledOrOnLastPage() {
+		prefetchService = new UserPagePrefetchService(userQueryService, meterRegistry, false);
+		prefetchService.prefetchNext("s1", null, "j", null, 1, first);
+		assertThat(prefetchService.prefetched("s1", null, "j", null, 1L, 1, Direction.NEXT)).isNull();
+		prefetchService.shutdown();
+
+		prefetchService = new UserPagePrefetchService(userQueryService, meterRegistry, true);
+		prefetchService.prefetchNext("s1", null, "j", null, 1, second);
+
+		verifyNoInteractions(userQueryService);
+		assertThat(count("miss")).isZero();
+	}
+
+	private double count(String result) {
+		return meterRegistry.counter("users.page.prefetch", "result", result).count();
+	}
+}
@@ -1,8 +1,12 @@
 package com.dossantosh.springfirstmodulith.users.application.services;
 
+import com.dossantosh.springfirstmodulith.core.exceptions.custom.BusinessException;
 import com.dossantosh.springfirstmodulith.core.page.Direction;
+import com.dossantosh.springfirstmodulith.core.page.KeysetCursor;
 import com.dossantosh.springfirstmodulith.core.page.KeysetPage;
 import com.dossantosh.springfirstmodulith.users.application.ports.out.UserQueryPort;
+import com.dossantosh.springfirstmodulith.users.application.views.RoleView;
+import com.dossantosh.springfirstmodulith.users.application.views.UserDetailsView;
 import com.dossantosh.springfirstmodulith.users.application.views.UserSummaryView;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,9 +15,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -86,6 +95,93 @@ class UserQueryServiceTest {
 		assertThat(page.hasNext()).isTrue();
 	}
 
+	@Test
+	void findUsersSorted_byUsername_decodesCursor_andEncodesPageEdges() {
+		int limit = 2;
+		KeysetCursor position = KeysetCursor.of("username", "bob", 5L);
+
+		UserQueryPort.UserSummaryRow p1 = new UserQueryPort.UserSummaryRow(8L, "carl", "c@x.com", true, false);
+		UserQueryPort.UserSummaryRow p2 = new UserQueryPort.UserSummaryRow(3L, "dave", "d@x.com", true, false);
+
+		when(userQueryPort.findUsersSorted(null, null, null, "username", position, limit + 1, Direction.NEXT.name()))
+				.thenReturn(new ArrayList<>(List.of(p1, p2)));
+
+		KeysetPage<UserSummaryView> page = userQueryService.findUsersSorted(null, null, null, UserSort.USERNAME,
+				position.encode(), limit, Direction.NEXT);
+
+		assertThat(page.content()).extracting(UserSummaryView::id).containsExactly(8L, 3L);
+		assertThat(KeysetCursor.decode(page.nextCursor())).isEqualTo(KeysetCursor.of("username", "dave", 3L));
+		assertThat(KeysetCursor.decode(page.previousCursor())).isEqualTo(KeysetCursor.of("username", "carl", 8L));
+		assertThat(page.hasNext()).isFalse();
+		assertThat(page.hasPrevious()).isTrue();
+	}
+
+	@Test
+	void findUsersByTerm_keepsRankedOrder_andUsesLastRowAsNextCursor() {
+		int limit = 2;
+
+		UserQueryPort.UserSearchRow best = searchRow(42L, "maria", 0.8f);
+		UserQueryPort.UserSearchRow second = searchRow(7L, "mario", 0.6f);
+		UserQueryPort.UserSearchRow extra = searchRow(9L, "marta", 0.4f);
+
+		when(userQueryPort.findUsersByTerm("mari", UserSearchMode.FUZZY.name(), null, limit + 1,
+				Direction.NEXT.name())).thenReturn(new ArrayList<>(List.of(best, second, extra)));
+
+		KeysetPage<UserSummaryView> page = userQueryService.findUsersByTerm("mari", UserSearchMode.FUZZY, null, limit,
+				Direction.NEXT);
+
+		assertThat(page.content()).extracting(UserSummaryView::id).containsExactly(42L, 7L);
+		assertThat(page.nextId()).isEqualTo(7L);
+		assertThat(KeysetCursor.decode(page.nextCursor())).isEqualTo(KeysetCursor.of("score", "0.6", 7L));
+		assertThat(page.hasNext()).isTrue();
+		assertThat(page.hasPrevious()).isFalse();
+	}
+
+	@Test
+	void findUsersByTerm_passesScoreCursorThrough_andRejectsOtherCursors() {
+		KeysetCursor cursor = KeysetCursor.of("score", "0.6", 7L);
+		when(userQueryPort.findUsersByTerm("mari", UserSearchMode.FUZZY.name(), cursor, 3, Direction.NEXT.name()))
+				.thenReturn(List.of());
+
+		KeysetPage<UserSummaryView> page = userQueryService.findUsersByTerm("mari", UserSearchMode.FUZZY,
+				cursor.encode(), 2, Direction.NEXT);
+
+		assertThat(page.content()).isEmpty();
+		assertThatThrownBy(() -> userQueryService.findUsersByTerm("mari", UserSearchMode.FUZZY,
+				KeysetCursor.of("username", "maria", 42L).encode(), 2, Direction.NEXT))
+				.isInstanceOf(BusinessException.class);
+	}
+
+	private static UserQueryPort.UserSearchRow searchRow(long id, String username, float score) {
+		return new UserQueryPort.UserSearchRow(
+				new UserQueryPort.UserSummaryRow(id, username, username + "@x.com", true, false), score);
+	}
+
+	@Test
+	void getUserDetailsByIds_keysResultByRequestedOrder_andSkipsUnknownIds() {
+		UserQueryPort.UserDetailsRow ann = new UserQueryPort.UserDetailsRow(3L, "ann", "ann@x.com", true, false,
+				List.of(1L, 2L), List.of("USER", "SYSTEMS"));
+		UserQueryPort.UserDetailsRow bob = new UserQueryPort.UserDetailsRow(1L, "bob", "bob@x.com", true, false,
+				List.of(), List.of());
+
+		when(userQueryPort.findUserDetailsByIds(new LinkedHashSet<>(List.of(1L, 3L, 99L))))
+				.thenReturn(List.of(ann, bob));
+
+		Map<Long, UserDetailsView> result = userQueryService.getUserDetailsByIds(List.of(1L, 3L, 1L, 99L));
+
+		assertThat(result.keySet()).containsExactly(1L, 3L);
+		assertThat(result.get(3L).roles()).containsExactly(new RoleView(1L, "USER"), new RoleView(2L, "SYSTEMS"));
+		assertThat(result.get(1L).roles()).isEmpty();
+	}
+
+	@Test
+	void getUserDetailsByIds_overBatchLimit_throwsBusinessException() {
+		List<Long> ids = LongStream.rangeClosed(1, UserQueryService.MAX_BATCH_SIZE + 1).boxed().toList();
+
+		assertThatThrownBy(() -> userQueryService.getUserDetailsByIds(ids)).isInstanceOf(BusinessException.class);
+		verifyNoInteractions(userQueryPort);
+	}
+
 	@Test
 	void findUsersKeyset_whenNoResults_returnsEmptyPageWithNullCursors() {
 		int limit = 10;
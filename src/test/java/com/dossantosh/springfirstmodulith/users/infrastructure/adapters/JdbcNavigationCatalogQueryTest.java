@@ -0,0 +1,99 @@
+package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
+
+import com.dossantosh.springfirstmodulith.users.api.ports.navigation.NavigationModuleView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JdbcNavigationCatalogQueryTest {
+
+	private static final long CHECK_NANOS = JdbcNavigationCatalogQuery.STAMP_CHECK_INTERVAL.toNanos();
+
+	@Mock
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	private final AtomicLong clock = new AtomicLong();
+
+	@Test
+	void findVisibleNavigation_filtersInMemory_keepingCatalogOrder() {
+		stubCatalog(List.of(1L), List.of(
+				row("systems", 1, "users", "systems:read"),
+				row("systems", 2, "audit", "systems:write"),
+				row("systems", 2, "audit", "audit:read"),
+				row("perfumes", 3, "catalog", "perfumes:read")));
+		JdbcNavigationCatalogQuery query = new JdbcNavigationCatalogQuery(jdbcTemplate, clock::get);
+
+		List<NavigationModuleView> visible = query.findVisibleNavigation(List.of("systems:read", "audit:read"));
+
+		assertThat(visible).extracting(NavigationModuleView::key).containsExactly("systems");
+		assertThat(visible.getFirst().items()).extracting("key").containsExactly("users", "audit");
+		assertThat(query.findVisibleNavigation(List.of("unknown:scope"))).isEmpty();
+		assertThat(query.findVisibleNavigation(List.of())).isEmpty();
+	}
+
+	@Test
+	void findVisibleNavigation_memoizesPerScopeSet() {
+		stubCatalog(List.of(1L), List.of(row("systems", 1, "users", "systems:read")));
+		JdbcNavigationCatalogQuery query = new JdbcNavigationCatalogQuery(jdbcTemplate, clock::get);
+
+		List<NavigationModuleView> first = query.findVisibleNavigation(List.of("systems:read"));
+
+		assertThat(query.findVisibleNavigation(List.of("systems:read"))).isSameAs(first);
+	}
+
+	@Test
+	void findVisibleNavigation_reloadsOnlyWhenStampMoves() {
+		stubCatalog(List.of(1L, 1L, 2L), List.of(row("systems", 1, "users", "systems:read")),
+				List.of(row("perfumes", 3, "catalog", "systems:read")));
+		JdbcNavigationCatalogQuery query = new JdbcNavigationCatalogQuery(jdbcTemplate, clock::get);
+
+		assertThat(keys(query)).containsExactly("systems");
+
+		clock.addAndGet(CHECK_NANOS - 1);
+		assertThat(keys(query)).containsExactly("systems");
+
+		clock.addAndGet(1);
+		assertThat(keys(query)).containsExactly("systems");
+
+		clock.addAndGet(CHECK_NANOS);
+		assertThat(keys(query)).containsExactly("perfumes");
+
+		verify(jdbcTemplate, times(3)).queryForObject(anyString(), anyMap(), eq(Long.class));
+		verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class));
+	}
+
+	private static List<String> keys(JdbcNavigationCatalogQuery query) {
+		return query.findVisibleNavigation(List.of("systems:read")).stream().map(NavigationModuleView::key).toList();
+	}
+
+	@SafeVarargs
+	@SuppressWarnings("unchecked")
+	private void stubCatalog(List<Long> versions, List<NavigationCatalogSnapshot.Row>... loads) {
+		when(jdbcTemplate.queryForObject(anyString(), anyMap(), eq(Long.class))).thenReturn(versions.getFirst(),
+				versions.subList(1, versions.size()).toArray(Long[]::new));
+		when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenReturn(loads[0],
+				Arrays.copyOfRange(loads, 1, loads.length));
+	}
+
+	private static NavigationCatalogSnapshot.Row row(String module, long submoduleId, String item, String scope) {
+		return new NavigationCatalogSnapshot.Row(module, module, "dashboard", submoduleId, item, item, "icon",
+				"/" + item, false, null, scope);
+	}
+}
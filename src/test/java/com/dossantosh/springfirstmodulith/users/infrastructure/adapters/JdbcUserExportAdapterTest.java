@@ -0,0 +1,69 @@
+package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({JdbcUserSearchQuery.class, JdbcUserExportAdapter.class})
+@TestPropertySource(properties = {"spring.datasource.url=jdbc:tc:postgresql:17-alpine:///testdb",
+		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
+		"spring.jpa.hibernate.ddl-auto=create-drop"})
+class JdbcUserExportAdapterTest {
+
+	@Autowired
+	private JdbcUserExportAdapter userExportAdapter;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Test
+	void copyUsersCsv_writesOneLinePerRoleMembership_withFiltersBoundAsSettings() throws Exception {
+		long roleA = insertRole("EXP_A");
+		long roleB = insertRole("EXP_B");
+		long ann = insertUser("o'ann", "ann@x.com");
+		long bob = insertUser("o'bob", "bob@x.com");
+		insertUser("other", "other@x.com");
+		assignRole(ann, roleA);
+		assignRole(ann, roleB);
+		em.flush();
+		em.clear();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		userExportAdapter.copyUsersCsv(null, "O'", null, out);
+
+		assertThat(out.toString(StandardCharsets.UTF_8).lines()).containsExactly(
+				"id_user,username,email,enabled,is_admin,id_role,role_name",
+				ann + ",o'ann,ann@x.com,t,f," + roleA + ",EXP_A",
+				ann + ",o'ann,ann@x.com,t,f," + roleB + ",EXP_B",
+				bob + ",o'bob,bob@x.com,t,f,,");
+	}
+
+	private long insertUser(String username, String email) {
+		return ((Number) em.createNativeQuery("""
+				INSERT INTO users (id_user, username, email, password, enabled, is_admin)
+				VALUES (nextval('users_id_user_seq'), :u, :e, 'pw', true, false)
+				RETURNING id_user
+				""").setParameter("u", username).setParameter("e", email).getSingleResult()).longValue();
+	}
+
+	private long insertRole(String name) {
+		return ((Number) em.createNativeQuery("""
+				INSERT INTO roles (id_role, name) VALUES (nextval('roles_id_role_seq'), :n) RETURNING id_role
+				""").setParameter("n", name).getSingleResult()).longValue();
+	}
+
+	private void assignRole(long userId, long roleId) {
+		em.createNativeQuery("INSERT INTO users_roles (id_user, id_role) VALUES (:u, :r)").setParameter("u", userId)
+				.setParameter("r", roleId).executeUpdate();
+	}
+}
@@ -0,0 +1,102 @@
+package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
+
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserImportPort.LoadResult;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserImportPort.RejectedRow;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserImportPort.StagedUser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(JdbcUserImportAdapter.class)
+@TestPropertySource(properties = {"spring.datasource.url=jdbc:tc:postgresql:17-alpine:///testdb",
+		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
+		"spring.jpa.hibernate.ddl-auto=create-drop"})
+@Sql(scripts = "classpath:db/common/V11__pooled_id_blocks.sql",
+		config = @SqlConfig(separator = ScriptUtils.EOF_STATEMENT_SEPARATOR))
+class JdbcUserImportAdapterTest {
+
+	@Autowired
+	private JdbcUserImportAdapter userImportAdapter;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Test
+	void stagedUsers_areCheckedSetWise_thenLoadedWithRoles() {
+		long role = ((Number) em.createNativeQuery("""
+				INSERT INTO roles (id_role, name) VALUES (nextval('roles_id_role_seq'), 'IMPORTED') RETURNING id_role
+				""").getSingleResult()).longValue();
+		em.createNativeQuery("""
+				INSERT INTO users (id_user, username, email, password, enabled, is_admin)
+				VALUES (nextval('users_id_user_seq'), 'taken', 'taken@x.com', 'pw', true, false)
+				""").executeUpdate();
+		em.flush();
+
+		userImportAdapter.createStaging();
+		userImportAdapter.stage(List.of(new StagedUser(2, "new1", "new1@x.com", "h1"),
+				new StagedUser(3, "taken", "other@x.com", "h2"),
+				new StagedUser(4, "new2", "new1@x.com", "h3"),
+				new StagedUser(5, "quote\"d, name", "new3@x.com", "h4"),
+				new StagedUser(6, "taken", "taken@x.com", "h5")));
+
+		List<RejectedRow> rejected = userImportAdapter.rejectConflicts();
+		int loaded = userImportAdapter.insertStaged(List.of(role));
+
+		assertThat(rejected).extracting(RejectedRow::line).containsExactly(3L, 4L, 6L);
+		assertThat(rejected.get(0).reason()).isEqualTo("Username 'taken' is already in use");
+		assertThat(rejected.get(2).reason()).isEqualTo("Username 'taken' is already in use; "
+				+ "Email 'taken@x.com' is already in use; Username 'taken' is repeated from line 3");
+		assertThat(loaded).isEqualTo(2);
+		assertThat(em.createNativeQuery("""
+				SELECT u.username FROM users u JOIN users_roles ur ON ur.id_user = u.id_user
+				WHERE ur.id_role = :role ORDER BY u.id_user
+				""").setParameter("role", role).getResultList()).containsExactly("new1", "quote\"d, name");
+	}
+
+	@Test
+	void load_stagesInChunks_andReportsOneRowPerRejectedLine() {
+		em.createNativeQuery("""
+				INSERT INTO users (id_user, username, email, password, enabled, is_admin)
+				VALUES (nextval('users_id_user_seq'), 'held', 'held@x.com', 'pw', true, false)
+				""").executeUpdate();
+		em.flush();
+
+		List<StagedUser> users = new ArrayList<>();
+		for (int line = 2; line < 2_502; line++) {
+			users.add(new StagedUser(line, "bulk" + line, "bulk" + line + "@x.com", "h"));
+		}
+		users.add(new StagedUser(2_502, "held", "held@x.com", "h"));
+
+		LoadResult result = userImportAdapter.load(users, List.of());
+
+		assertThat(result.imported()).isEqualTo(2_500);
+		assertThat(result.rejected()).extracting(RejectedRow::line).containsExactly(2_502L);
+		Object[] span = (Object[]) em.createNativeQuery(
+				"SELECT min(id_user), max(id_user) FROM users WHERE username LIKE 'bulk%'").getSingleResult();
+		assertThat(((Number) span[1]).longValue() - ((Number) span[0]).longValue()).isLessThan(2_550L);
+	}
+
+	@Test
+	void columnDefault_handsOutOneBlockPerSession() {
+		List<?> rows = em.createNativeQuery("""
+				INSERT INTO roles (name) VALUES ('POOLED_A'), ('POOLED_B'), ('POOLED_C') RETURNING id_role
+				""").getResultList();
+		List<Long> ids = rows.stream().map(id -> ((Number) id).longValue()).sorted().toList();
+
+		assertThat(ids).doesNotHaveDuplicates();
+		assertThat(ids.getLast() - ids.getFirst()).isEqualTo(2L);
+	}
+}
@@ -0,0 +1,231 @@
+package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
+
+import com.dossantosh.springfirstmodulith.core.page.Direction;
+import com.dossantosh.springfirstmodulith.core.page.KeysetCursor;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserQueryPort.UserDetailsRow;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserQueryPort.UserSearchRow;
+import com.dossantosh.springfirstmodulith.users.application.ports.out.UserQueryPort.UserSummaryRow;
+import com.dossantosh.springfirstmodulith.users.application.services.UserSearchMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(JdbcUserSearchQuery.class)
+@TestPropertySource(properties = {"spring.datasource.url=jdbc:tc:postgresql:17-alpine:///testdb",
+		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
+		"spring.jpa.hibernate.ddl-auto=create-drop"})
+@Sql(scripts = "classpath:db/common/V5__users_trigram_search.sql",
+		config = @SqlConfig(separator = ScriptUtils.EOF_STATEMENT_SEPARATOR))
+class JdbcUserSearchQueryTest {
+
+	@Autowired
+	private JdbcUserSearchQuery userSearchQuery;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Test
+	void findUsersKeyset_next_returnsAscending_fromLastId() {
+		long u1 = insertUser("a1", "a1@x.com");
+		insertUser("a2", "a2@x.com");
+		insertUser("a3", "a3@x.com");
+		em.flush();
+		em.clear();
+
+		var res = userSearchQuery.findUsersKeyset(null, "a", null, u1, 10, Direction.NEXT);
+		assertThat(res).extracting(UserSummaryRow::username).containsExactly("a2", "a3");
+	}
+
+	@Test
+	void findUsersKeyset_previous_walksBackwardsFromLastId() {
+		insertUser("b1", "b1@x.com");
+		insertUser("b2", "b2@x.com");
+		long u3 = insertUser("b3", "b3@x.com");
+		em.flush();
+		em.clear();
+
+		var res = userSearchQuery.findUsersKeyset(null, "b", null, u3, 10, Direction.PREVIOUS);
+		assertThat(res).extracting(UserSummaryRow::username).containsExactly("b2", "b1");
+	}
+
+	@Test
+	void findUsersKeyset_matchesUsernameAndEmailPrefixesCaseInsensitively() {
+		insertUser("Carla", "carla@x.com");
+		insertUser("carlos", "carlos@y.com");
+		insertUser("other", "carl@x.com");
+		em.flush();
+		em.clear();
+
+		var res = userSearchQuery.findUsersKeyset(null, "CARL", "carl", null, 10, Direction.NEXT);
+		assertThat(res).extracting(UserSummaryRow::username).containsExactly("Carla", "carlos");
+	}
+
+	@Test
+	void findUsersKeyset_treatsLikeWildcardsInPrefixLiterally() {
+		insertUser("d_1", "d1@x.com");
+		insertUser("dx1", "dx1@x.com");
+		em.flush();
+		em.clear();
+
+		var res = userSearchQuery.findUsersKeyset(null, "d_", null, null, 10, Direction.NEXT);
+		assertThat(res).extracting(UserSummaryRow::username).containsExactly("d_1");
+	}
+
+	@Test
+	void findUsersKeyset_byId_returnsSingleRow() {
+		insertUser("e1", "e1@x.com");
+		long u2 = insertUser("e2", "e2@x.com");
+		em.flush();
+		em.clear();
+
+		var res = userSearchQuery.findUsersKeyset(u2, null, null, null, 10, Direction.NEXT);
+		assertThat(res).extracting(UserSummaryRow::id).containsExactly(u2);
+	}
+
+	@Test
+	void findUsersSorted_byUsername_pagesWithCompositeCursor() {
+		long zed = insertUser("f-zed", "f3@x.com");
+		insertUser("f-amy", "f1@x.com");
+		long bob = insertUser("f-bob", "f2@x.com");
+		em.flush();
+		em.clear();
+
+		var first = userSearchQuery.findUsersSorted(null, "f-", null, "username", null, 2, Direction.NEXT);
+		assertThat(first).extracting(UserSummaryRow::username).containsExactly("f-amy", "f-bob");
+
+		var next = userSearchQuery.findUsersSorted(null, "f-", null, "username",
+				KeysetCursor.of("username", "f-bob", bob), 2, Direction.NEXT);
+		assertThat(next).extracting(UserSummaryRow::id).containsExactly(zed);
+
+		var previous = userSearchQuery.findUsersSorted(null, "f-", null, "username",
+				KeysetCursor.of("username", "f-zed", zed), 2, Direction.PREVIOUS);
+		assertThat(previous).extracting(UserSummaryRow::username).containsExactly("f-bob", "f-amy");
+	}
+
+	@Test
+	void countUsers_countsOnlyMatchingRows_andEstimateStaysNonNegative() {
+		insertUser("g1", "g1@x.com");
+		insertUser("g2", "g2@x.com");
+		insertUser("h1", "h1@x.com");
+		em.flush();
+		em.clear();
+
+		assertThat(userSearchQuery.countUsers(null, "g", null)).isEqualTo(2L);
+		assertThat(userSearchQuery.countUsers(null, null, null)).isEqualTo(3L);
+		assertThat(userSearchQuery.estimateUsers(null, "g", null)).isNotNegative();
+		assertThat(userSearchQuery.estimateUsers(null, null, null)).isNotNegative();
+	}
+
+	@Test
+	void streamUsers_pushesEveryMatchingRowInIdOrder() {
+		long i1 = insertUser("i1", "i1@x.com");
+		long i2 = insertUser("i2", "i2@x.com");
+		insertUser("j1", "j1@x.com");
+		em.flush();
+		em.clear();
+
+		List<UserSummaryRow> rows = new ArrayList<>();
+		userSearchQuery.streamUsers(null, "i", null, rows::add);
+
+		assertThat(rows).extracting(UserSummaryRow::id).containsExactly(i1, i2);
+	}
+
+	@Test
+	void findUserDetailsByIds_returnsOneRowPerUser_withRolesAggregated() {
+		long roleA = ((Number) em.createNativeQuery("""
+				INSERT INTO roles (id_role, name) VALUES (nextval('roles_id_role_seq'), 'BATCH_A') RETURNING id_role
+				""").getSingleResult()).longValue();
+		long roleB = ((Number) em.createNativeQuery("""
+				INSERT INTO roles (id_role, name) VALUES (nextval('roles_id_role_seq'), 'BATCH_B') RETURNING id_role
+				""").getSingleResult()).longValue();
+		long k1 = insertUser("k1", "k1@x.com");
+		long k2 = insertUser("k2", "k2@x.com");
+		insertUser("k3", "k3@x.com");
+		em.createNativeQuery("INSERT INTO users_roles (id_user, id_role) VALUES (:u, :a), (:u, :b)")
+				.setParameter("u", k1).setParameter("a", roleA).setParameter("b", roleB).executeUpdate();
+		em.flush();
+		em.clear();
+
+		var rows = userSearchQuery.findUserDetailsByIds(List.of(k1, k2, -1L));
+
+		assertThat(rows).extracting(UserDetailsRow::id).containsExactlyInAnyOrder(k1, k2);
+		UserDetailsRow withRoles = rows.stream().filter(row -> row.id() == k1).findFirst().orElseThrow();
+		assertThat(withRoles.roleIds()).containsExactly(roleA, roleB);
+		assertThat(withRoles.roleNames()).containsExactly("BATCH_A", "BATCH_B");
+		UserDetailsRow withoutRoles = rows.stream().filter(row -> row.id() == k2).findFirst().orElseThrow();
+		assertThat(withoutRoles.roleIds()).isEmpty();
+	}
+
+	@Test
+	void findUsersByTerm_contains_matchesSubstringsAccentInsensitively_bestFirst() {
+		long exact = insertUser("ines", "ines@x.com");
+		long accented = insertUser("Inés-Maria", "im@x.com");
+		insertUser("other", "other@x.com");
+		em.flush();
+		em.clear();
+
+		var rows = userSearchQuery.findUsersByTerm("INES", UserSearchMode.CONTAINS, null, 10, Direction.NEXT);
+
+		assertThat(rows).extracting(row -> row.user().id()).containsExactly(exact, accented);
+		assertThat(rows.get(0).score()).isGreaterThan(rows.get(1).score());
+	}
+
+	@Test
+	void findUsersByTerm_fuzzy_toleratesTypos() {
+		long maria = insertUser("maria", "maria@x.com");
+		insertUser("zed", "zed@x.com");
+		em.flush();
+		em.clear();
+
+		var rows = userSearchQuery.findUsersByTerm("marla", UserSearchMode.FUZZY, null, 10, Direction.NEXT);
+
+		assertThat(rows).extracting(row -> row.user().id()).containsExactly(maria);
+	}
+
+	@Test
+	void findUsersByTerm_pagesByScoreCursor_evenAfterCursorRowStopsMatching() {
+		long best = insertUser("paula", "paula@x.com");
+		long second = insertUser("paulaxx", "p2@x.com");
+		long third = insertUser("paulaxxxxxx", "p3@x.com");
+		em.flush();
+		em.clear();
+
+		var first = userSearchQuery.findUsersByTerm("paula", UserSearchMode.CONTAINS, null, 2, Direction.NEXT);
+		assertThat(first).extracting(row -> row.user().id()).containsExactly(best, second);
+
+		em.createNativeQuery("UPDATE users SET username = 'renamed', email = 'r@x.com' WHERE id_user = :id")
+				.setParameter("id", second).executeUpdate();
+		var next = userSearchQuery.findUsersByTerm("paula", UserSearchMode.CONTAINS, cursorOf(first.getLast()), 2,
+				Direction.NEXT);
+		assertThat(next).extracting(row -> row.user().id()).containsExactly(third);
+
+		var previous = userSearchQuery.findUsersByTerm("paula", UserSearchMode.CONTAINS, cursorOf(next.getFirst()),
+				2, Direction.PREVIOUS);
+		assertThat(previous).extracting(row -> row.user().id()).containsExactly(best);
+	}
+
+	private static KeysetCursor cursorOf(UserSearchRow row) {
+		return KeysetCursor.of("score", Float.toString(row.score()), row.user().id());
+	}
+
+	private long insertUser(String username, String email) {
+		return ((Number) em.createNativeQuery("""
+				INSERT INTO users (id_user, username, email, password, enabled, is_admin)
+				VALUES (nextval('users_id_user_seq'), :u, :e, 'pw', true, false)
+				RETURNING id_user
+				""").setParameter("u", username).setParameter("e", email).getSingleResult()).longValue();
+	}
+}
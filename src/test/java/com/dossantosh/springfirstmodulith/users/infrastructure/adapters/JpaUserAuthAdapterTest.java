@@ -0,0 +1,83 @@
+package com.dossantosh.springfirstmodulith.users.infrastructure.adapters;
+
+import com.dossantosh.springfirstmodulith.users.api.events.RoleScopesChangedEvent;
+import com.dossantosh.springfirstmodulith.users.api.events.UserChangedEvent;
+import com.dossantosh.springfirstmodulith.users.api.ports.login.UserAuthView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({JpaUserAuthAdapter.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {"spring.datasource.url=jdbc:tc:postgresql:17-alpine:///testdb",
+		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
+		"spring.jpa.hibernate.ddl-auto=create-drop"})
+@Sql(scripts = "classpath:db/common/V8__user_effective_scopes.sql",
+		config = @SqlConfig(separator = ScriptUtils.EOF_STATEMENT_SEPARATOR))
+class JpaUserAuthAdapterTest {
+
+	@Autowired
+	private JpaUserAuthAdapter userAuthAdapter;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Test
+	void findByUsername_servesCachedView_untilUserChangedEventArrives() {
+		long userId = insertUser("cached", "cached@x.com");
+		em.flush();
+
+		assertThat(userAuthAdapter.findByUsername("cached")).map(UserAuthView::enabled).contains(true);
+
+		disable(userId);
+		assertThat(userAuthAdapter.findByUsername("cached")).map(UserAuthView::enabled).contains(true);
+
+		userAuthAdapter.on(new UserChangedEvent(userId));
+		assertThat(userAuthAdapter.findByUsername("cached")).map(UserAuthView::enabled).contains(false);
+	}
+
+	@Test
+	void findByUsername_reloadsEveryone_afterRoleScopesChange() {
+		long userId = insertUser("roleful", "roleful@x.com");
+		em.flush();
+		userAuthAdapter.findByUsername("roleful");
+
+		disable(userId);
+		userAuthAdapter.on(new RoleScopesChangedEvent(1L));
+
+		assertThat(userAuthAdapter.findByUsername("roleful")).map(UserAuthView::enabled).contains(false);
+	}
+
+	@Test
+	void findByUsername_doesNotRememberUnknownUsers() {
+		assertThat(userAuthAdapter.findByUsername("late")).isEmpty();
+
+		insertUser("late", "late@x.com");
+		em.flush();
+
+		assertThat(userAuthAdapter.findByUsername("late")).isPresent();
+	}
+
+	private void disable(long userId) {
+		em.createNativeQuery("UPDATE users SET enabled = false WHERE id_user = :id").setParameter("id", userId)
+				.executeUpdate();
+	}
+
+	private long insertUser(String username, String email) {
+		return ((Number) em.createNativeQuery("""
+				INSERT INTO users (id_user, username, email, password, enabled, is_admin)
+				VALUES (nextval('users_id_user_seq'), :u, :e, 'pw', true, false)
+				RETURNING id_user
+				""").setParameter("u", username).setParameter("e", email).getSingleResult()).longValue();
+	}
+}
@@ -1,16 +1,30 @@
 package com.dossantosh.springfirstmodulith.users.infrastructure.repos;
 
 import com.dossantosh.springfirstmodulith.authorization.AuthorizationScopes;
+import com.dossantosh.springfirstmodulith.users.domain.User;
 import com.dossantosh.springfirstmodulith.users.infrastructure.projections.UserAuthProjection;
-import com.dossantosh.springfirstmodulith.users.infrastructure.projections.UserProjection;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.test.context.TestPropertySource;
-
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -18,11 +32,17 @@ import static org.assertj.core.api.Assertions.assertThat;
 @TestPropertySource(properties = {"spring.datasource.url=jdbc:tc:postgresql:17-alpine:///testdb",
 		"spring.datasource.driver-class-name=org.testcontainers.jdbc.ContainerDatabaseDriver",
 		"spring.jpa.hibernate.ddl-auto=create-drop"})
+@Sql(scripts = {"classpath:db/common/V8__user_effective_scopes.sql",
+		"classpath:db/common/V12__effective_scopes_role_locks.sql"},
+		config = @SqlConfig(separator = ScriptUtils.EOF_STATEMENT_SEPARATOR))
 class UserRepositoryTest {
 
 	@Autowired
 	private UserRepository userRepository;
 
+	@Autowired
+	private DataSource dataSource;
+
 	@PersistenceContext
 	private EntityManager em;
 
@@ -78,30 +98,125 @@ class UserRepositoryTest {
 	}
 
 	@Test
-	void findUsersKeyset_next_returnsAscending_fromLastId() {
-		long u1 = insertUser("a1", "a1@x.com", "pw", true, false);
-		insertUser("a2", "a2@x.com", "pw", true, false);
-		insertUser("a3", "a3@x.com", "pw", true, false);
+	void findUserAuthByUsername_followsRoleScopeChangesForEveryMember() {
+		long ann = insertUser("ann", "ann@x.com", "pw", true, false);
+		long bob = insertUser("bob", "bob@x.com", "pw", true, false);
+		long role = insertRole("AUDITOR");
+		linkUserRole(ann, role);
+		linkUserRole(bob, role);
+		long readScope = insertScope(AuthorizationScopes.SYSTEMS_READ);
+		linkRoleScope(role, readScope);
 		em.flush();
 		em.clear();
 
-		var res = userRepository.findUsersKeyset(null, "a", null, u1, 10, "NEXT");
-		assertThat(res).extracting(UserProjection::getUsername).containsExactly("a2", "a3");
+		assertThat(userRepository.findUserAuthByUsername("ann").orElseThrow().getScopes())
+				.containsExactly(AuthorizationScopes.SYSTEMS_READ);
+		assertThat(userRepository.findUserAuthByUsername("bob").orElseThrow().getScopes())
+				.containsExactly(AuthorizationScopes.SYSTEMS_READ);
+
+		em.createNativeQuery("DELETE FROM role_scopes WHERE id_role = :r").setParameter("r", role).executeUpdate();
+		em.createNativeQuery("DELETE FROM users_roles WHERE id_user = :u").setParameter("u", bob).executeUpdate();
 
+		assertThat(userRepository.findUserAuthByUsername("ann").orElseThrow().getScopes()).isNull();
+		UserAuthProjection withoutRoles = userRepository.findUserAuthByUsername("bob").orElseThrow();
+		assertThat(withoutRoles.getRoles()).isNull();
+		assertThat(withoutRoles.getScopes()).isNull();
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void effectiveScopes_membershipAndRoleScopeChangesRacing_endUpCurrent() throws Exception {
+		long user;
+		long role;
+		long scope;
+		try (Connection setup = dataSource.getConnection()) {
+			user = insertReturningId(setup, """
+					INSERT INTO users (id_user, username, email, password, enabled, is_admin)
+					VALUES (nextval('users_id_user_seq'), 'racer', 'racer@x.com', 'pw', true, false)
+					RETURNING id_user""");
+			role = insertReturningId(setup, """
+					INSERT INTO roles (id_role, name) VALUES (nextval('roles_id_role_seq'), 'RACE')
+					RETURNING id_role""");
+			scope = insertReturningId(setup, """
+					INSERT INTO scopes (id_scope, name) VALUES (nextval('scopes_id_scope_seq'), 'race:read')
+					RETURNING id_scope""");
+		}
+
+		try (Connection membership = dataSource.getConnection()) {
+			membership.setAutoCommit(false);
+			execute(membership, "INSERT INTO users_roles (id_user, id_role) VALUES (?, ?)", user, role);
+
+			CompletableFuture<Void> grant = CompletableFuture.runAsync(() -> {
+				try (Connection scopes = dataSource.getConnection()) {
+					execute(scopes, "INSERT INTO role_scopes (id_role, id_scope) VALUES (?, ?)", role, scope);
+				} catch (SQLException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			Thread.sleep(300);
+			assertThat(grant).as("role_scopes change waits for the membership change").isNotDone();
+
+			membership.commit();
+			grant.get(10, TimeUnit.SECONDS);
+		}
+
+		try (Connection check = dataSource.getConnection();
+				PreparedStatement statement = check
+						.prepareStatement("SELECT scope_names FROM user_effective_scopes WHERE id_user = ?")) {
+			statement.setLong(1, user);
+			try (ResultSet rs = statement.executeQuery()) {
+				assertThat(rs.next()).isTrue();
+				Array scopeNames = rs.getArray(1);
+				assertThat(scopeNames).isNotNull();
+				assertThat((Object[]) scopeNames.getArray()).containsExactly("race:read");
+			}
+			execute(check, "DELETE FROM users_roles WHERE id_user = ?", user);
+			execute(check, "DELETE FROM role_scopes WHERE id_role = ?", role);
+			execute(check, "DELETE FROM users WHERE id_user = ?", user);
+			execute(check, "DELETE FROM roles WHERE id_role = ?", role);
+			execute(check, "DELETE FROM scopes WHERE id_scope = ?", scope);
+		}
+	}
+
+	@Test
+	void saveAll_assignsConsecutiveIdsFromPooledSequence() {
+		List<User> saved = userRepository.saveAll(List.of(new User("pool1", "pool1@x.com", "pw", false),
+				new User("pool2", "pool2@x.com", "pw", false), new User("pool3", "pool3@x.com", "pw", false)));
+
+		assertThat(saved).extracting(User::id).doesNotContainNull();
+		assertThat(saved.get(1).id()).isEqualTo(saved.get(0).id() + 1);
+		assertThat(saved.get(2).id()).isEqualTo(saved.get(1).id() + 1);
 	}
 
 	private long insertUser(String username, String email, String password, boolean enabled, boolean isAdmin) {
 		return ((Number) em.createNativeQuery("""
-				INSERT INTO users (username, email, password, enabled, is_admin)
-				VALUES (:u, :e, :p, :en, :adm)
+				INSERT INTO users (id_user, username, email, password, enabled, is_admin)
+				VALUES (nextval('users_id_user_seq'), :u, :e, :p, :en, :adm)
 				RETURNING id_user
 				""").setParameter("u", username).setParameter("e", email).setParameter("p", password)
 				.setParameter("en", enabled).setParameter("adm", isAdmin).getSingleResult()).longValue();
 	}
 
+	private static long insertReturningId(Connection connection, String sql) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(sql);
+				ResultSet rs = statement.executeQuery()) {
+			rs.next();
+			return rs.getLong(1);
+		}
+	}
+
+	private static void execute(Connection connection, String sql, long... ids) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			for (int i = 0; i < ids.length; i++) {
+				statement.setLong(i + 1, ids[i]);
+			}
+			statement.executeUpdate();
+		}
+	}
+
 	private long insertRole(String name) {
 		return ((Number) em.createNativeQuery("""
-				INSERT INTO roles (name) VALUES (:n)
+				INSERT INTO roles (id_role, name) VALUES (nextval('roles_id_role_seq'), :n)
 				RETURNING id_role
 				""").setParameter("n", name).getSingleResult()).longValue();
 	}
@@ -115,7 +230,7 @@ class UserRepositoryTest {
 
 	private long insertScope(String name) {
 		return ((Number) em.createNativeQuery("""
-				INSERT INTO scopes (name) VALUES (:n)
+				INSERT INTO scopes (id_scope, name) VALUES (nextval('scopes_id_scope_seq'), :n)
 				RETURNING id_scope
 				""").setParameter("n", name).getSingleResult()).longValue();
 	}